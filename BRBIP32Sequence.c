@@ -153,6 +153,29 @@ size_t BRBIP32PubKey(uint8_t *pubKey, size_t pubKeyLen, BRMasterPubKey mpk, uint
     return (! pubKey || sizeof(BRECPoint) <= pubKeyLen) ? sizeof(BRECPoint) : 0;
 }
 
+// writes the public keys for paths N(m/0H/chain/index) through N(m/0H/chain/index + pubKeysCount - 1) to pubKeys,
+// 33 bytes each, deriving N(m/0H/chain) only once
+void BRBIP32PubKeyList(uint8_t *pubKeys, size_t pubKeysCount, BRMasterPubKey mpk, uint32_t chain, uint32_t index)
+{
+    UInt256 chainCode = mpk.chainCode, c;
+    BRECPoint K = *(BRECPoint *)mpk.pubKey;
+    
+    assert(memcmp(&mpk, &BR_MASTER_PUBKEY_NONE, sizeof(mpk)) != 0);
+    assert(pubKeys != NULL || pubKeysCount == 0);
+    
+    if (pubKeys && pubKeysCount > 0) {
+        _CKDpub(&K, &chainCode, chain); // path N(m/0H/chain)
+        
+        for (size_t i = 0; i < pubKeysCount; i++) {
+            c = chainCode;
+            ((BRECPoint *)pubKeys)[i] = K;
+            _CKDpub(&((BRECPoint *)pubKeys)[i], &c, index + (uint32_t)i); // index'th key in chain
+        }
+        
+        var_clean(&chainCode, &c);
+    }
+}
+
 // sets the private key for path m/0H/chain/index to key
 void BRBIP32PrivKey(BRKey *key, const void *seed, size_t seedLen, uint32_t chain, uint32_t index)
 {
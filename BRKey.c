@@ -438,6 +438,8 @@ int BRKeyRecoverPubKey(BRKey *key, UInt256 md, const void *compactSig, size_t si
     assert(compactSig != NULL);
     assert(sigLen == 65);
     
+    pthread_once(&_ctx_once, _ctx_init);
+
     if (sigLen == 65) {
         if (((uint8_t *)compactSig)[0] - 27 >= 4) compressed = 1;
         recid = (((uint8_t *)compactSig)[0] - 27) % 4;
@@ -41,6 +41,7 @@
 
 #define PROTOCOL_TIMEOUT      20.0
 #define MAX_CONNECT_FAILURES  20 // notify user of network problems after this many connect failures in a row
+#define MAX_FAILED_PEERS      100 // failed peers kept for BRPeerManagerFailedPeers(), oldest are dropped first
 #define PEER_FLAG_SYNCED      0x01
 #define PEER_FLAG_NEEDSUPDATE 0x02
 
@@ -168,13 +169,16 @@ inline static int _BRBlockHeightEq(const void *block, const void *otherBlock)
 
 struct BRPeerManagerStruct {
     const BRChainParams *params;
-    BRWallet *wallet;
+    BRWallet *wallet, **wallets; // wallet is wallets[0], the wallet given to BRPeerManagerNew()
     int isConnected, connectFailureCount, misbehavinCount, dnsThreadCount, peerThreadCount, maxConnectCount;
-    BRPeer *peers, *downloadPeer, fixedPeer, **connectedPeers;
+    BRPeer *peers, *downloadPeer, fixedPeer, **connectedPeers, *failedPeers;
     char downloadPeerName[INET6_ADDRSTRLEN + 6];
     uint32_t earliestKeyTime, syncStartHeight, filterUpdateHeight, estimatedHeight;
     BRBloomFilter *bloomFilter;
-    double fpRate, averageTxPerBlock;
+    double fpRate, averageTxPerBlock, filterFpRate, filterRebuildFactor;
+    uint32_t filterTweak, filterLoadCount;
+    uint64_t filterTxCount, filterWalletTxCount;
+    BRSet *filterTxHashes; // hashes of tx matched by the current bloom filter
     BRSet *blocks, *orphans, *checkpoints;
     BRMerkleBlock *lastBlock, *lastOrphan;
     BRTxPeerList *txRelays, *txRequests;
@@ -219,6 +223,67 @@ static void _BRPeerManagerSyncStopped(BRPeerManager *manager)
     }
 }
 
+// the transaction for txHash from the first of manager->wallets that has one, or NULL
+static BRTransaction *_BRPeerManagerTransactionForHash(BRPeerManager *manager, UInt256 txHash)
+{
+    BRTransaction *tx = NULL;
+    
+    for (size_t i = 0; ! tx && i < array_count(manager->wallets); i++) {
+        tx = BRWalletTransactionForHash(manager->wallets[i], txHash);
+    }
+    
+    return tx;
+}
+
+// true if tx is associated with any of manager->wallets
+static int _BRPeerManagerContainsTx(BRPeerManager *manager, const BRTransaction *tx)
+{
+    for (size_t i = 0; i < array_count(manager->wallets); i++) {
+        if (BRWalletContainsTransaction(manager->wallets[i], tx)) return 1;
+    }
+    
+    return 0;
+}
+
+// true if any of manager->wallets has registered tx itself, rather than a copy, and so will free it
+static int _BRPeerManagerOwnsTx(BRPeerManager *manager, const BRTransaction *tx)
+{
+    for (size_t i = 0; i < array_count(manager->wallets); i++) {
+        if (BRWalletTransactionForHash(manager->wallets[i], tx->txHash) == tx) return 1;
+    }
+    
+    return 0;
+}
+
+// registers tx with each of manager->wallets it's associated with, the first to add it taking tx and the rest a copy,
+// since each wallet frees its transactions; a tx associated with no wallet is registered with manager->wallet, as with
+// a single wallet; returns the result of BRWalletRegisterTransaction() for any wallet
+static int _BRPeerManagerRegisterTx(BRPeerManager *manager, BRTransaction *tx)
+{
+    BRTransaction *t;
+    int r = 0, isOwned = 0;
+    
+    for (size_t i = 0; i < array_count(manager->wallets); i++) {
+        if (array_count(manager->wallets) > 1 && ! BRWalletContainsTransaction(manager->wallets[i], tx)) continue;
+        t = (isOwned) ? BRTransactionCopy(tx) : tx;
+        if (BRWalletRegisterTransaction(manager->wallets[i], t)) r = 1;
+        if (BRWalletTransactionForHash(manager->wallets[i], t->txHash) == t) isOwned = 1;
+        else if (t != tx) BRTransactionFree(t);
+    }
+    
+    if (! r && ! isOwned && array_count(manager->wallets) > 1) r = BRWalletRegisterTransaction(manager->wallet, tx);
+    return r;
+}
+
+// calls BRWalletUpdateTransactions() for each of manager->wallets, which each ignore transactions they don't have
+static void _BRPeerManagerUpdateTransactions(BRPeerManager *manager, const UInt256 txHashes[], size_t txCount,
+                                             uint32_t blockHeight, uint32_t timestamp)
+{
+    for (size_t i = 0; i < array_count(manager->wallets); i++) {
+        BRWalletUpdateTransactions(manager->wallets[i], txHashes, txCount, blockHeight, timestamp);
+    }
+}
+
 // adds transaction to list of tx to be published, along with any unconfirmed inputs
 static void _BRPeerManagerAddTxToPublishList(BRPeerManager *manager, BRTransaction *tx, void *info,
                                              void (*callback)(void *, int))
@@ -232,7 +297,7 @@ static void _BRPeerManagerAddTxToPublishList(BRPeerManager *manager, BRTransacti
         array_add(manager->publishedTxHashes, tx->txHash);
 
         for (size_t i = 0; i < tx->inCount; i++) {
-            _BRPeerManagerAddTxToPublishList(manager, BRWalletTransactionForHash(manager->wallet, tx->inputs[i].txHash),
+            _BRPeerManagerAddTxToPublishList(manager, _BRPeerManagerTransactionForHash(manager, tx->inputs[i].txHash),
                                              NULL, NULL);
         }
     }
@@ -263,37 +328,52 @@ static void _setApplyFreeBlock(void *info, void *block)
     BRMerkleBlockFree(block);
 }
 
-static void _BRPeerManagerLoadBloomFilter(BRPeerManager *manager, BRPeer *peer)
+static void _setApplyFree(void *info, void *item)
 {
-    // every time a new wallet address is added, the bloom filter has to be rebuilt, and each address is only used
-    // for one transaction, so here we generate some spare addresses to avoid rebuilding the filter each time a
-    // wallet transaction is encountered during the chain sync
-    BRWalletUnusedAddrs(manager->wallet, NULL, SEQUENCE_GAP_LIMIT_EXTERNAL + 100, 0);
-    BRWalletUnusedAddrs(manager->wallet, NULL, SEQUENCE_GAP_LIMIT_INTERNAL + 100, 1);
+    free(item);
+}
 
-    BRSetApply(manager->orphans, NULL, _setApplyFreeBlock);
-    BRSetClear(manager->orphans); // clear out orphans that may have been received on an old filter
-    manager->lastOrphan = NULL;
-    manager->filterUpdateHeight = manager->lastBlock->height;
-    manager->fpRate = BLOOM_REDUCED_FALSEPOSITIVE_RATE;
+inline static size_t _BRTxHashHash(const void *txHash)
+{
+    return (size_t)((const UInt256 *)txHash)->u32[0];
+}
+
+inline static int _BRTxHashEq(const void *txHash, const void *otherTxHash)
+{
+    return (txHash == otherTxHash || UInt256Eq(*(const UInt256 *)txHash, *(const UInt256 *)otherTxHash));
+}
+
+// counts a tx matched by the current bloom filter, unless txHash was already counted (relayed by another peer, or
+// first relayed on its own and then in a block)
+static void _BRPeerManagerCountFilterTx(BRPeerManager *manager, UInt256 txHash, int isWalletTx)
+{
+    UInt256 *hash;
     
-    size_t addrsCount = BRWalletAllAddrs(manager->wallet, NULL, 0);
+    if (BRSetContains(manager->filterTxHashes, &txHash)) return;
+    hash = malloc(sizeof(*hash));
+    assert(hash != NULL);
+    *hash = txHash;
+    BRSetAdd(manager->filterTxHashes, hash);
+    manager->filterTxCount++;
+    if (isWalletTx) manager->filterWalletTxCount++;
+}
+
+// inserts wallet's addresses, UTXOs, and TXOs spent since blockHeight into filter
+static void _BRPeerManagerBloomFilterAddWallet(BRBloomFilter *filter, BRWallet *wallet, uint32_t blockHeight)
+{
+    size_t addrsCount = BRWalletAllAddrs(wallet, NULL, 0);
     BRAddress *addrs = malloc(addrsCount*sizeof(*addrs));
-    size_t utxosCount = BRWalletUTXOs(manager->wallet, NULL, 0);
+    size_t utxosCount = BRWalletUTXOs(wallet, NULL, 0);
     BRUTXO *utxos = malloc(utxosCount*sizeof(*utxos));
-    uint32_t blockHeight = (manager->lastBlock->height > 100) ? manager->lastBlock->height - 100 : 0;
-    size_t txCount = BRWalletTxUnconfirmedBefore(manager->wallet, NULL, 0, blockHeight);
+    size_t txCount = BRWalletTxUnconfirmedBefore(wallet, NULL, 0, blockHeight);
     BRTransaction **transactions = malloc(txCount*sizeof(*transactions));
-    BRBloomFilter *filter;
     
     assert(addrs != NULL);
     assert(utxos != NULL);
     assert(transactions != NULL);
-    addrsCount = BRWalletAllAddrs(manager->wallet, addrs, addrsCount);
-    utxosCount = BRWalletUTXOs(manager->wallet, utxos, utxosCount);
-    txCount = BRWalletTxUnconfirmedBefore(manager->wallet, transactions, txCount, blockHeight);
-    filter = BRBloomFilterNew(manager->fpRate, addrsCount + utxosCount + txCount + 100, (uint32_t)BRPeerHash(peer),
-                              BLOOM_UPDATE_ALL); // BUG: XXX txCount not the same as number of spent wallet outputs
+    addrsCount = BRWalletAllAddrs(wallet, addrs, addrsCount);
+    utxosCount = BRWalletUTXOs(wallet, utxos, utxosCount);
+    txCount = BRWalletTxUnconfirmedBefore(wallet, transactions, txCount, blockHeight);
     
     for (size_t i = 0; i < addrsCount; i++) { // add addresses to watch for tx receiveing money to the wallet
         UInt160 hash = UINT160_ZERO;
@@ -320,11 +400,11 @@ static void _BRPeerManagerLoadBloomFilter(BRPeerManager *manager, BRPeer *peer)
     for (size_t i = 0; i < txCount; i++) { // also add TXOs spent within the last 100 blocks
         for (size_t j = 0; j < transactions[i]->inCount; j++) {
             BRTxInput *input = &transactions[i]->inputs[j];
-            BRTransaction *tx = BRWalletTransactionForHash(manager->wallet, input->txHash);
+            BRTransaction *tx = BRWalletTransactionForHash(wallet, input->txHash);
             uint8_t o[sizeof(UInt256) + sizeof(uint32_t)];
             
             if (tx && input->index < tx->outCount &&
-                BRWalletContainsAddress(manager->wallet, tx->outputs[input->index].address)) {
+                BRWalletContainsAddress(wallet, tx->outputs[input->index].address)) {
                 UInt256Set(o, input->txHash);
                 UInt32SetLE(&o[sizeof(UInt256)], input->index);
                 if (! BRBloomFilterContainsData(filter, o, sizeof(o))) BRBloomFilterInsertData(filter, o,sizeof(o));
@@ -333,6 +413,46 @@ static void _BRPeerManagerLoadBloomFilter(BRPeerManager *manager, BRPeer *peer)
     }
     
     free(transactions);
+}
+
+static void _BRPeerManagerLoadBloomFilter(BRPeerManager *manager, BRPeer *peer)
+{
+    size_t i, elemCount = 100;
+    
+    // every time a new wallet address is added, the bloom filter has to be rebuilt, and each address is only used
+    // for one transaction, so here we generate some spare addresses to avoid rebuilding the filter each time a
+    // wallet transaction is encountered during the chain sync
+    for (i = 0; i < array_count(manager->wallets); i++) {
+        BRWalletUnusedAddrs(manager->wallets[i], NULL, SEQUENCE_GAP_LIMIT_EXTERNAL + 100, 0);
+        BRWalletUnusedAddrs(manager->wallets[i], NULL, SEQUENCE_GAP_LIMIT_INTERNAL + 100, 1);
+    }
+
+    BRSetApply(manager->orphans, NULL, _setApplyFreeBlock);
+    BRSetClear(manager->orphans); // clear out orphans that may have been received on an old filter
+    manager->lastOrphan = NULL;
+    manager->filterUpdateHeight = manager->lastBlock->height;
+    manager->fpRate = manager->filterFpRate;
+    BRSetApply(manager->filterTxHashes, NULL, _setApplyFree);
+    BRSetClear(manager->filterTxHashes); // counts are of tx matched by the new filter
+    manager->filterTxCount = manager->filterWalletTxCount = 0;
+    
+    uint32_t blockHeight = (manager->lastBlock->height > 100) ? manager->lastBlock->height - 100 : 0, tweak;
+    BRBloomFilter *filter;
+    
+    for (i = 0; i < array_count(manager->wallets); i++) { // one filter matches every wallet
+        elemCount += BRWalletAllAddrs(manager->wallets[i], NULL, 0) + BRWalletUTXOs(manager->wallets[i], NULL, 0) +
+                     BRWalletTxUnconfirmedBefore(manager->wallets[i], NULL, 0, blockHeight);
+    }
+    
+    tweak = (manager->filterTweak) ? manager->filterTweak : (uint32_t)BRPeerHash(peer);
+    filter = BRBloomFilterNew(manager->fpRate, elemCount, tweak,
+                              BLOOM_UPDATE_ALL); // BUG: XXX txCount not the same as number of spent wallet outputs
+    manager->filterLoadCount++;
+    
+    for (i = 0; i < array_count(manager->wallets); i++) {
+        _BRPeerManagerBloomFilterAddWallet(filter, manager->wallets[i], blockHeight);
+    }
+    
     if (manager->bloomFilter) BRBloomFilterFree(manager->bloomFilter);
     manager->bloomFilter = filter;
     // TODO: XXX if already synced, recursively add inputs of unconfirmed receives
@@ -470,12 +590,13 @@ static void _requestUnrelayedTxGetdataDone(void *info, int success)
 
     // don't remove transactions until we're connected to maxConnectCount peers, and all peers have finished
     // relaying their mempools
-    if (count >= manager->maxConnectCount) {
+    for (size_t w = 0; count >= manager->maxConnectCount && w < array_count(manager->wallets); w++) {
+        BRWallet *wallet = manager->wallets[w];
         UInt256 hash;
-        size_t txCount = BRWalletTxUnconfirmedBefore(manager->wallet, NULL, 0, TX_UNCONFIRMED);
+        size_t txCount = BRWalletTxUnconfirmedBefore(wallet, NULL, 0, TX_UNCONFIRMED);
         BRTransaction *tx[(txCount*sizeof(BRTransaction *) <= 0x1000) ? txCount : 0x1000/sizeof(BRTransaction *)];
         
-        txCount = BRWalletTxUnconfirmedBefore(manager->wallet, tx, sizeof(tx)/sizeof(*tx), TX_UNCONFIRMED);
+        txCount = BRWalletTxUnconfirmedBefore(wallet, tx, sizeof(tx)/sizeof(*tx), TX_UNCONFIRMED);
 
         for (size_t i = txCount; i > 0; i--) {
             hash = tx[i - 1]->txHash;
@@ -490,11 +611,11 @@ static void _requestUnrelayedTxGetdataDone(void *info, int success)
                 _BRTxPeerListCount(manager->txRequests, hash) == 0) {
                 peer_log(peer, "removing tx unconfirmed at: %d, txHash: %s", manager->lastBlock->height, u256hex(hash));
                 assert(tx[i - 1]->blockHeight == TX_UNCONFIRMED);
-                BRWalletRemoveTransaction(manager->wallet, hash);
+                BRWalletRemoveTransaction(wallet, hash);
             }
             else if (! isPublishing && _BRTxPeerListCount(manager->txRelays, hash) < manager->maxConnectCount) {
                 // set timestamp 0 to mark as unverified
-                BRWalletUpdateTransactions(manager->wallet, &hash, 1, TX_UNCONFIRMED, 0);
+                BRWalletUpdateTransactions(wallet, &hash, 1, TX_UNCONFIRMED, 0);
             }
         }
     }
@@ -505,19 +626,32 @@ static void _requestUnrelayedTxGetdataDone(void *info, int success)
 static void _BRPeerManagerRequestUnrelayedTx(BRPeerManager *manager, BRPeer *peer)
 {
     BRPeerCallbackInfo *info;
-    size_t hashCount = 0, txCount = BRWalletTxUnconfirmedBefore(manager->wallet, NULL, 0, TX_UNCONFIRMED);
-    BRTransaction *tx[txCount];
-    UInt256 txHashes[txCount];
+    size_t hashCount = 0, txCount = 0, count = 0;
+    BRTransaction **tx;
+    UInt256 *txHashes;
     
-    txCount = BRWalletTxUnconfirmedBefore(manager->wallet, tx, txCount, TX_UNCONFIRMED);
+    for (size_t w = 0; w < array_count(manager->wallets); w++) {
+        txCount += BRWalletTxUnconfirmedBefore(manager->wallets[w], NULL, 0, TX_UNCONFIRMED);
+    }
     
-    for (size_t i = 0; i < txCount; i++) {
+    tx = malloc((txCount + 1)*sizeof(*tx));
+    txHashes = malloc((txCount + 1)*sizeof(*txHashes));
+    assert(tx != NULL);
+    assert(txHashes != NULL);
+    
+    for (size_t w = 0; w < array_count(manager->wallets); w++) {
+        count += BRWalletTxUnconfirmedBefore(manager->wallets[w], &tx[count], txCount - count, TX_UNCONFIRMED);
+    }
+    
+    for (size_t i = 0; i < count; i++) { // a tx of several wallets is requested once
         if (! _BRTxPeerListHasPeer(manager->txRelays, tx[i]->txHash, peer) &&
             ! _BRTxPeerListHasPeer(manager->txRequests, tx[i]->txHash, peer)) {
             txHashes[hashCount++] = tx[i]->txHash;
             _BRTxPeerListAddPeer(&manager->txRequests, tx[i]->txHash, peer);
         }
     }
+    
+    free(tx);
 
     if (hashCount > 0) {
         BRPeerSendGetdata(peer, txHashes, hashCount, NULL, 0);
@@ -531,6 +665,8 @@ static void _BRPeerManagerRequestUnrelayedTx(BRPeerManager *manager, BRPeer *pee
         }
     }
     else peer->flags |= PEER_FLAG_SYNCED;
+    
+    free(txHashes);
 }
 
 static void _BRPeerManagerPublishPendingTx(BRPeerManager *manager, BRPeer *peer)
@@ -608,7 +744,7 @@ static void _BRPeerManagerLoadMempools(BRPeerManager *manager)
         info->peer = peer;
         info->manager = manager;
         
-        if (peer != manager->downloadPeer || manager->fpRate > BLOOM_REDUCED_FALSEPOSITIVE_RATE*5.0) {
+        if (peer != manager->downloadPeer || manager->fpRate > manager->filterFpRate*5.0) {
             _BRPeerManagerLoadBloomFilter(manager, peer);
             _BRPeerManagerPublishPendingTx(manager, peer);
             BRPeerSendPing(peer, info, _loadBloomFilterDone); // load mempool after updating bloomfilter
@@ -824,6 +960,8 @@ static void _peerDisconnected(void *info, int error)
             if (BRPeerEq(&manager->peers[i - 1], peer)) array_rm(manager->peers, i - 1);
         }
         
+        if (array_count(manager->failedPeers) >= MAX_FAILED_PEERS) array_rm(manager->failedPeers, 0);
+        array_add(manager->failedPeers, *peer);
         manager->connectFailureCount++;
         
         // if it's a timeout and there's pending tx publish callbacks, the tx publish timed out
@@ -924,6 +1062,7 @@ static void _peerRelayedTx(void *info, BRTransaction *tx)
     void (*txCallback)(void *, int) = NULL;
     int isWalletTx = 0, hasPendingCallbacks = 0;
     size_t relayCount = 0;
+    UInt256 txHash = tx->txHash;
     
     pthread_mutex_lock(&manager->lock);
     peer_log(peer, "relayed tx: %s", u256hex(tx->txHash));
@@ -944,23 +1083,31 @@ static void _peerRelayedTx(void *info, BRTransaction *tx)
         BRPeerScheduleDisconnect(peer, -1); // cancel publish tx timeout
     }
 
-    if (manager->syncStartHeight == 0 || BRWalletContainsTransaction(manager->wallet, tx)) {
-        isWalletTx = BRWalletRegisterTransaction(manager->wallet, tx);
-        if (isWalletTx) tx = BRWalletTransactionForHash(manager->wallet, tx->txHash);
+    if (manager->syncStartHeight == 0 || _BRPeerManagerContainsTx(manager, tx)) {
+        isWalletTx = _BRPeerManagerRegisterTx(manager, tx);
+        if (isWalletTx) tx = _BRPeerManagerTransactionForHash(manager, tx->txHash);
     }
     else {
         BRTransactionFree(tx);
         tx = NULL;
     }
     
+    _BRPeerManagerCountFilterTx(manager, txHash, isWalletTx);
+    
     if (tx && isWalletTx) {
         // reschedule sync timeout
         if (manager->syncStartHeight > 0 && peer == manager->downloadPeer) {
             BRPeerScheduleDisconnect(peer, PROTOCOL_TIMEOUT);
         }
         
-        if (BRWalletAmountSentByTx(manager->wallet, tx) > 0 && BRWalletTransactionIsValid(manager->wallet, tx)) {
-            _BRPeerManagerAddTxToPublishList(manager, tx, NULL, NULL); // add valid send tx to mempool
+        for (size_t i = 0; i < array_count(manager->wallets); i++) {
+            BRWallet *wallet = manager->wallets[i];
+            BRTransaction *t = BRWalletTransactionForHash(wallet, tx->txHash);
+            
+            if (t && BRWalletAmountSentByTx(wallet, t) > 0 && BRWalletTransactionIsValid(wallet, t)) {
+                _BRPeerManagerAddTxToPublishList(manager, t, NULL, NULL); // add valid send tx to mempool
+                break;
+            }
         }
 
         // keep track of how many peers have or relay a tx, this indicates how likely the tx is to confirm
@@ -969,14 +1116,15 @@ static void _peerRelayedTx(void *info, BRTransaction *tx)
         
         _BRTxPeerListRemovePeer(manager->txRequests, tx->txHash, peer);
         
-        if (manager->bloomFilter != NULL) { // check if bloom filter is already being updated
+        // check each wallet, unless the bloom filter is already being updated
+        for (size_t w = 0; manager->bloomFilter != NULL && w < array_count(manager->wallets); w++) {
             BRAddress addrs[SEQUENCE_GAP_LIMIT_EXTERNAL + SEQUENCE_GAP_LIMIT_INTERNAL];
             UInt160 hash;
 
             // the transaction likely consumed one or more wallet addresses, so check that at least the next <gap limit>
             // unused addresses are still matched by the bloom filter
-            BRWalletUnusedAddrs(manager->wallet, addrs, SEQUENCE_GAP_LIMIT_EXTERNAL, 0);
-            BRWalletUnusedAddrs(manager->wallet, addrs + SEQUENCE_GAP_LIMIT_EXTERNAL, SEQUENCE_GAP_LIMIT_INTERNAL, 1);
+            BRWalletUnusedAddrs(manager->wallets[w], addrs, SEQUENCE_GAP_LIMIT_EXTERNAL, 0);
+            BRWalletUnusedAddrs(manager->wallets[w], addrs + SEQUENCE_GAP_LIMIT_EXTERNAL, SEQUENCE_GAP_LIMIT_INTERNAL, 1);
 
             for (size_t i = 0; i < SEQUENCE_GAP_LIMIT_EXTERNAL + SEQUENCE_GAP_LIMIT_INTERNAL; i++) {
                 if (! BRAddressHash160(&hash, addrs[i].s) ||
@@ -991,7 +1139,7 @@ static void _peerRelayedTx(void *info, BRTransaction *tx)
     
     // set timestamp when tx is verified
     if (tx && relayCount >= manager->maxConnectCount && tx->blockHeight == TX_UNCONFIRMED && tx->timestamp == 0) {
-        BRWalletUpdateTransactions(manager->wallet, &tx->txHash, 1, TX_UNCONFIRMED, (uint32_t)time(NULL));
+        _BRPeerManagerUpdateTransactions(manager, &tx->txHash, 1, TX_UNCONFIRMED, (uint32_t)time(NULL));
     }
     
     pthread_mutex_unlock(&manager->lock);
@@ -1008,7 +1156,7 @@ static void _peerHasTx(void *info, UInt256 txHash)
     size_t relayCount = 0;
     
     pthread_mutex_lock(&manager->lock);
-    tx = BRWalletTransactionForHash(manager->wallet, txHash);
+    tx = _BRPeerManagerTransactionForHash(manager, txHash);
     peer_log(peer, "has tx: %s", u256hex(txHash));
 
     for (size_t i = array_count(manager->publishedTx); i > 0; i--) { // see if tx is in list of published tx
@@ -1028,8 +1176,8 @@ static void _peerHasTx(void *info, UInt256 txHash)
     }
 
     if (tx) {
-        isWalletTx = BRWalletRegisterTransaction(manager->wallet, tx);
-        if (isWalletTx) tx = BRWalletTransactionForHash(manager->wallet, tx->txHash);
+        isWalletTx = _BRPeerManagerRegisterTx(manager, tx);
+        if (isWalletTx) tx = _BRPeerManagerTransactionForHash(manager, tx->txHash);
 
         // reschedule sync timeout
         if (manager->syncStartHeight > 0 && peer == manager->downloadPeer && isWalletTx) {
@@ -1042,7 +1190,7 @@ static void _peerHasTx(void *info, UInt256 txHash)
 
         // set timestamp when tx is verified
         if (relayCount >= manager->maxConnectCount && tx && tx->blockHeight == TX_UNCONFIRMED && tx->timestamp == 0) {
-            BRWalletUpdateTransactions(manager->wallet, &txHash, 1, TX_UNCONFIRMED, (uint32_t)time(NULL));
+            _BRPeerManagerUpdateTransactions(manager, &txHash, 1, TX_UNCONFIRMED, (uint32_t)time(NULL));
         }
 
         _BRTxPeerListRemovePeer(manager->txRequests, txHash, peer);
@@ -1057,22 +1205,28 @@ static void _peerRejectedTx(void *info, UInt256 txHash, uint8_t code)
     BRPeer *peer = ((BRPeerCallbackInfo *)info)->peer;
     BRPeerManager *manager = ((BRPeerCallbackInfo *)info)->manager;
     BRTransaction *tx, *t;
+    int isSend = 0;
 
     pthread_mutex_lock(&manager->lock);
     peer_log(peer, "rejected tx: %s", u256hex(txHash));
-    tx = BRWalletTransactionForHash(manager->wallet, txHash);
+    tx = _BRPeerManagerTransactionForHash(manager, txHash);
     _BRTxPeerListRemovePeer(manager->txRequests, txHash, peer);
 
     if (tx) {
         if (_BRTxPeerListRemovePeer(manager->txRelays, txHash, peer) && tx->blockHeight == TX_UNCONFIRMED) {
             // set timestamp 0 to mark tx as unverified
-            BRWalletUpdateTransactions(manager->wallet, &txHash, 1, TX_UNCONFIRMED, 0);
+            _BRPeerManagerUpdateTransactions(manager, &txHash, 1, TX_UNCONFIRMED, 0);
+        }
+
+        for (size_t i = 0; ! isSend && i < array_count(manager->wallets); i++) {
+            t = BRWalletTransactionForHash(manager->wallets[i], txHash);
+            isSend = (t && BRWalletAmountSentByTx(manager->wallets[i], t) > 0);
         }
 
         // if we get rejected for any reason other than double-spend, the peer is likely misconfigured
-        if (code != REJECT_SPENT && BRWalletAmountSentByTx(manager->wallet, tx) > 0) {
+        if (code != REJECT_SPENT && isSend) {
             for (size_t i = 0; i < tx->inCount; i++) { // check that all inputs are confirmed before dropping peer
-                t = BRWalletTransactionForHash(manager->wallet, tx->inputs[i].txHash);
+                t = _BRPeerManagerTransactionForHash(manager, tx->inputs[i].txHash);
                 if (! t || t->blockHeight != TX_UNCONFIRMED) continue;
                 tx = NULL;
                 break;
@@ -1160,10 +1314,14 @@ static void _peerRelayedBlock(void *info, BRMerkleBlock *block)
         block->height = prev->height + 1;
     }
     
+    for (i = 0; i < txCount; i++) {
+        _BRPeerManagerCountFilterTx(manager, txHashes[i], _BRPeerManagerTransactionForHash(manager, txHashes[i]) != NULL);
+    }
+    
     // track the observed bloom filter false positive rate using a low pass filter to smooth out variance
     if (peer == manager->downloadPeer && block->totalTx > 0) {
         for (i = 0; i < txCount; i++) { // wallet tx are not false-positives
-            if (! BRWalletTransactionForHash(manager->wallet, txHashes[i])) fpCount++;
+            if (! _BRPeerManagerTransactionForHash(manager, txHashes[i])) fpCount++;
         }
         
         // moving average number of tx-per-block
@@ -1175,13 +1333,13 @@ static void _peerRelayedBlock(void *info, BRMerkleBlock *block)
         
         // false positive rate sanity check
         if (BRPeerConnectStatus(peer) == BRPeerStatusConnected &&
-            manager->fpRate > BLOOM_DEFAULT_FALSEPOSITIVE_RATE*10.0) {
+            manager->fpRate > manager->filterFpRate*manager->filterRebuildFactor*10.0) {
             peer_log(peer, "bloom filter false positive rate %f too high after %"PRIu32" blocks, disconnecting...",
                      manager->fpRate, manager->lastBlock->height + 1 - manager->filterUpdateHeight);
             BRPeerDisconnect(peer);
         }
-        else if (manager->lastBlock->height + 500 < BRPeerLastBlock(peer) &&
-                 manager->fpRate > BLOOM_REDUCED_FALSEPOSITIVE_RATE*10.0) {
+        else if ((manager->lastBlock->height + 500 < BRPeerLastBlock(peer) || manager->syncStartHeight == 0) &&
+                 manager->fpRate > manager->filterFpRate*manager->filterRebuildFactor) {
             _BRPeerManagerUpdateFilter(manager); // rebuild bloom filter when it starts to degrade
         }
     }
@@ -1238,7 +1396,7 @@ static void _peerRelayedBlock(void *info, BRMerkleBlock *block)
         
         BRSetAdd(manager->blocks, block);
         manager->lastBlock = block;
-        if (txCount > 0) BRWalletUpdateTransactions(manager->wallet, txHashes, txCount, block->height, txTime);
+        if (txCount > 0) _BRPeerManagerUpdateTransactions(manager, txHashes, txCount, block->height, txTime);
         if (manager->downloadPeer) BRPeerSetCurrentBlockHeight(manager->downloadPeer, block->height);
             
         if (block->height < manager->estimatedHeight && peer == manager->downloadPeer) {
@@ -1264,7 +1422,7 @@ static void _peerRelayedBlock(void *info, BRMerkleBlock *block)
         while (b && b->height > block->height) b = BRSetGet(manager->blocks, &b->prevBlock); // is block in main chain?
         
         if (BRMerkleBlockEq(b, block)) { // if it's not on a fork, set block heights for its transactions
-            if (txCount > 0) BRWalletUpdateTransactions(manager->wallet, txHashes, txCount, block->height, txTime);
+            if (txCount > 0) _BRPeerManagerUpdateTransactions(manager, txHashes, txCount, block->height, txTime);
             if (block->height == manager->lastBlock->height) manager->lastBlock = block;
         }
         
@@ -1304,7 +1462,9 @@ static void _peerRelayedBlock(void *info, BRMerkleBlock *block)
             
             peer_log(peer, "reorganizing chain from height %"PRIu32", new height is %"PRIu32, b->height, block->height);
         
-            BRWalletSetTxUnconfirmedAfter(manager->wallet, b->height); // mark tx after the join point as unconfirmed
+            for (i = 0; i < array_count(manager->wallets); i++) { // mark tx after the join point as unconfirmed
+                BRWalletSetTxUnconfirmedAfter(manager->wallets[i], b->height);
+            }
 
             b = block;
         
@@ -1322,7 +1482,7 @@ static void _peerRelayedBlock(void *info, BRMerkleBlock *block)
                 count = BRMerkleBlockTxHashes(b, txHashes, count);
                 b = BRSetGet(manager->blocks, &b->prevBlock);
                 if (b) timestamp = timestamp/2 + b->timestamp/2;
-                if (count > 0) BRWalletUpdateTransactions(manager->wallet, txHashes, count, height, timestamp);
+                if (count > 0) _BRPeerManagerUpdateTransactions(manager, txHashes, count, height, timestamp);
             }
         
             manager->lastBlock = block;
@@ -1397,10 +1557,12 @@ static void _peerSetFeePerKb(void *info, uint64_t feePerKb)
         if (BRPeerFeePerKb(p) > maxFeePerKb) secondFeePerKb = maxFeePerKb, maxFeePerKb = BRPeerFeePerKb(p);
     }
     
-    if (secondFeePerKb*3/2 > DEFAULT_FEE_PER_KB && secondFeePerKb*3/2 <= MAX_FEE_PER_KB &&
-        secondFeePerKb*3/2 > BRWalletFeePerKb(manager->wallet)) {
-        peer_log(peer, "increasing feePerKb to %"PRIu64" based on feefilter messages from peers", secondFeePerKb*3/2);
-        BRWalletSetFeePerKb(manager->wallet, secondFeePerKb*3/2);
+    for (size_t i = 0; i < array_count(manager->wallets); i++) {
+        if (secondFeePerKb*3/2 > DEFAULT_FEE_PER_KB && secondFeePerKb*3/2 <= MAX_FEE_PER_KB &&
+            secondFeePerKb*3/2 > BRWalletFeePerKb(manager->wallets[i])) {
+            peer_log(peer, "increasing feePerKb to %"PRIu64" based on feefilter messages from peers", secondFeePerKb*3/2);
+            BRWalletSetFeePerKb(manager->wallets[i], secondFeePerKb*3/2);
+        }
     }
 
     pthread_mutex_unlock(&manager->lock);
@@ -1430,8 +1592,14 @@ static BRTransaction *_peerRequestedTx(void *info, UInt256 txHash)
     }
 
     _BRTxPeerListAddPeer(&manager->txRelays, txHash, peer);
-    if (pubTx.tx) BRWalletRegisterTransaction(manager->wallet, pubTx.tx);
-    if (pubTx.tx && ! BRWalletTransactionIsValid(manager->wallet, pubTx.tx)) error = EINVAL;
+    if (pubTx.tx) _BRPeerManagerRegisterTx(manager, pubTx.tx);
+    
+    for (size_t i = 0; pubTx.tx && ! error && i < array_count(manager->wallets); i++) {
+        BRTransaction *t = BRWalletTransactionForHash(manager->wallets[i], pubTx.tx->txHash);
+        
+        if (t && ! BRWalletTransactionIsValid(manager->wallets[i], t)) error = EINVAL;
+    }
+
     pthread_mutex_unlock(&manager->lock);
     if (pubTx.callback) pubTx.callback(pubTx.info, error);
     return pubTx.tx;
@@ -1474,8 +1642,12 @@ BRPeerManager *BRPeerManagerNew(const BRChainParams *params, BRWallet *wallet, u
     assert(peers != NULL || peersCount == 0);
     manager->params = params;
     manager->wallet = wallet;
+    array_new(manager->wallets, 1);
+    array_add(manager->wallets, wallet);
     manager->earliestKeyTime = earliestKeyTime;
     manager->averageTxPerBlock = 1400;
+    manager->filterFpRate = BLOOM_REDUCED_FALSEPOSITIVE_RATE;
+    manager->filterRebuildFactor = 10.0;
     manager->maxConnectCount = PEER_MAX_CONNECTIONS;
     array_new(manager->peers, peersCount);
     if (peers) array_add_array(manager->peers, peers, peersCount);
@@ -1484,6 +1656,7 @@ BRPeerManager *BRPeerManagerNew(const BRChainParams *params, BRWallet *wallet, u
     manager->blocks = BRSetNew(BRMerkleBlockHash, BRMerkleBlockEq, blocksCount);
     manager->orphans = BRSetNew(_BRPrevBlockHash, _BRPrevBlockEq, blocksCount); // orphans are indexed by prevBlock
     manager->checkpoints = BRSetNew(_BRBlockHeightHash, _BRBlockHeightEq, 100); // checkpoints are indexed by height
+    manager->filterTxHashes = BRSetNew(_BRTxHashHash, _BRTxHashEq, 100);
 
     for (size_t i = 0; i < manager->params->checkpointsCount; i++) {
         block = BRMerkleBlockNew();
@@ -1515,6 +1688,7 @@ BRPeerManager *BRPeerManagerNew(const BRChainParams *params, BRWallet *wallet, u
         block = BRSetGet(manager->orphans, &orphan);
     }
     
+    array_new(manager->failedPeers, 10);
     array_new(manager->txRelays, 10);
     array_new(manager->txRequests, 10);
     array_new(manager->publishedTx, 10);
@@ -1568,6 +1742,120 @@ void BRPeerManagerSetFixedPeer(BRPeerManager *manager, UInt128 address, uint16_t
     pthread_mutex_unlock(&manager->lock);
 }
 
+// adds wallet to the wallets served by manager, sharing its peer connections and chain (wallet is not freed by
+// BRPeerManagerFree(), and must outlive manager or be removed first)
+void BRPeerManagerAddWallet(BRPeerManager *manager, BRWallet *wallet, uint32_t earliestKeyTime)
+{
+    assert(manager != NULL);
+    assert(wallet != NULL);
+    pthread_mutex_lock(&manager->lock);
+    
+    for (size_t i = array_count(manager->wallets); i > 0; i--) {
+        if (manager->wallets[i - 1] != wallet) continue;
+        wallet = NULL;
+        break;
+    }
+    
+    if (wallet) {
+        array_add(manager->wallets, wallet);
+        if (earliestKeyTime < manager->earliestKeyTime) manager->earliestKeyTime = earliestKeyTime;
+        if (manager->bloomFilter) BRBloomFilterFree(manager->bloomFilter);
+        manager->bloomFilter = NULL; // reset bloom filter so it's recreated with the new wallet's addresses
+        _BRPeerManagerUpdateFilter(manager);
+    }
+    
+    pthread_mutex_unlock(&manager->lock);
+}
+
+// removes a wallet added with BRPeerManagerAddWallet(), after which it may be freed
+void BRPeerManagerRemoveWallet(BRPeerManager *manager, BRWallet *wallet)
+{
+    BRTransaction *tx, *t;
+    size_t i, j;
+    
+    assert(manager != NULL);
+    assert(wallet != NULL);
+    assert(wallet != manager->wallet);
+    pthread_mutex_lock(&manager->lock);
+    
+    for (i = array_count(manager->wallets); i > 1 && manager->wallets[i - 1] != wallet; i--);
+    
+    if (i > 1) {
+        array_rm(manager->wallets, i - 1);
+        
+        // published tx owned by wallet are replaced by another wallet's tx, or by a copy freed by manager
+        for (i = array_count(manager->publishedTx); i > 0; i--) {
+            tx = manager->publishedTx[i - 1].tx;
+            if (! tx || tx != BRWalletTransactionForHash(wallet, tx->txHash)) continue;
+            for (j = 0, t = NULL; ! t && j < array_count(manager->wallets); j++) {
+                t = BRWalletTransactionForHash(manager->wallets[j], tx->txHash);
+            }
+            
+            manager->publishedTx[i - 1].tx = (t) ? t : BRTransactionCopy(tx);
+        }
+        
+        if (manager->bloomFilter) BRBloomFilterFree(manager->bloomFilter);
+        manager->bloomFilter = NULL; // reset bloom filter so it no longer matches the wallet's addresses
+        _BRPeerManagerUpdateFilter(manager);
+    }
+    
+    pthread_mutex_unlock(&manager->lock);
+}
+
+// number of wallets served by manager, including the one it was created with
+size_t BRPeerManagerWalletCount(BRPeerManager *manager)
+{
+    size_t count;
+    
+    assert(manager != NULL);
+    pthread_mutex_lock(&manager->lock);
+    count = array_count(manager->wallets);
+    pthread_mutex_unlock(&manager->lock);
+    return count;
+}
+
+// sets the false positive rate bloom filters are built for, the multiple of it the observed rate may drift to before the
+// filter is rebuilt, and the filter tweak, or 0 for a tweak that differs per peer
+void BRPeerManagerSetFilterPolicy(BRPeerManager *manager, double fpRate, double rebuildFactor, uint32_t tweak)
+{
+    assert(manager != NULL);
+    assert(fpRate > 0.0 && fpRate < 1.0);
+    assert(rebuildFactor > 1.0);
+    pthread_mutex_lock(&manager->lock);
+    
+    if (fpRate != manager->filterFpRate || tweak != manager->filterTweak) {
+        manager->filterFpRate = fpRate;
+        manager->filterTweak = tweak;
+        if (manager->bloomFilter) BRBloomFilterFree(manager->bloomFilter);
+        manager->bloomFilter = NULL; // reset bloom filter so it's recreated with the new policy
+        _BRPeerManagerUpdateFilter(manager);
+    }
+    
+    manager->filterRebuildFactor = rebuildFactor;
+    pthread_mutex_unlock(&manager->lock);
+}
+
+// the bloom filter policy, the current filter, and counts of the transactions it has matched
+BRPeerManagerFilterStats BRPeerManagerFilterStatistics(BRPeerManager *manager)
+{
+    BRPeerManagerFilterStats stats;
+    
+    assert(manager != NULL);
+    pthread_mutex_lock(&manager->lock);
+    stats.fpRate = manager->filterFpRate;
+    stats.rebuildFactor = manager->filterRebuildFactor;
+    stats.tweak = manager->filterTweak;
+    stats.observedFpRate = manager->fpRate;
+    stats.length = (manager->bloomFilter) ? manager->bloomFilter->length : 0;
+    stats.hashFuncs = (manager->bloomFilter) ? manager->bloomFilter->hashFuncs : 0;
+    stats.elemCount = (manager->bloomFilter) ? manager->bloomFilter->elemCount : 0;
+    stats.loadCount = manager->filterLoadCount;
+    stats.txCount = manager->filterTxCount;
+    stats.walletTxCount = manager->filterWalletTxCount;
+    pthread_mutex_unlock(&manager->lock);
+    return stats;
+}
+
 // current connect status
 BRPeerStatus BRPeerManagerConnectStatus(BRPeerManager *manager)
 {
@@ -1894,6 +2182,57 @@ size_t BRPeerManagerPeerCount(BRPeerManager *manager)
     return count;
 }
 
+// writes currently connected peers to peers, along with each peer's ping time (seconds) to pingTimes and last block
+// height to lastBlocks (either may be NULL)
+// returns the number of peers written, or total number connected if peers is NULL
+size_t BRPeerManagerConnectedPeers(BRPeerManager *manager, BRPeer peers[], double pingTimes[], uint32_t lastBlocks[],
+                                   size_t peersCount)
+{
+    size_t count = 0;
+    
+    assert(manager != NULL);
+    pthread_mutex_lock(&manager->lock);
+    
+    for (size_t i = 0; i < array_count(manager->connectedPeers); i++) {
+        BRPeer *peer = manager->connectedPeers[i];
+        
+        if (BRPeerConnectStatus(peer) != BRPeerStatusConnected) continue;
+        
+        if (peers) {
+            if (count >= peersCount) break;
+            peers[count] = *peer;
+            if (pingTimes) pingTimes[count] = BRPeerPingTime(peer);
+            if (lastBlocks) lastBlocks[count] = BRPeerLastBlock(peer);
+        }
+        
+        count++;
+    }
+    
+    pthread_mutex_unlock(&manager->lock);
+    return count;
+}
+
+// writes to peers, oldest first, the peers that have disconnected with a network error (as opposed to a protocol error)
+// since the last call, and forgets those written
+// returns the number of peers written, or the total number failed if peers is NULL
+size_t BRPeerManagerFailedPeers(BRPeerManager *manager, BRPeer peers[], size_t peersCount)
+{
+    size_t count;
+    
+    assert(manager != NULL);
+    pthread_mutex_lock(&manager->lock);
+    count = array_count(manager->failedPeers);
+    
+    if (peers) {
+        if (count > peersCount) count = peersCount;
+        for (size_t i = 0; i < count; i++) peers[i] = manager->failedPeers[i];
+        array_rm_range(manager->failedPeers, 0, count);
+    }
+    
+    pthread_mutex_unlock(&manager->lock);
+    return count;
+}
+
 // description of the peer most recently used to sync blockchain data
 const char *BRPeerManagerDownloadPeerName(BRPeerManager *manager)
 {
@@ -2011,11 +2350,14 @@ void BRPeerManagerFree(BRPeerManager *manager)
     array_free(manager->peers);
     for (size_t i = array_count(manager->connectedPeers); i > 0; i--) BRPeerFree(manager->connectedPeers[i - 1]);
     array_free(manager->connectedPeers);
+    array_free(manager->failedPeers);
     BRSetApply(manager->blocks, NULL, _setApplyFreeBlock);
     BRSetFree(manager->blocks);
     BRSetApply(manager->orphans, NULL, _setApplyFreeBlock);
     BRSetFree(manager->orphans);
     BRSetFree(manager->checkpoints);
+    BRSetApply(manager->filterTxHashes, NULL, _setApplyFree);
+    BRSetFree(manager->filterTxHashes);
     for (size_t i = array_count(manager->txRelays); i > 0; i--) array_free(manager->txRelays[i - 1].peers);
     array_free(manager->txRelays);
     for (size_t i = array_count(manager->txRequests); i > 0; i--) array_free(manager->txRequests[i - 1].peers);
@@ -2023,14 +2365,29 @@ void BRPeerManagerFree(BRPeerManager *manager)
 
     for (size_t i = array_count(manager->publishedTx); i > 0; i--) {
         tx = manager->publishedTx[i - 1].tx;
-        if (tx && tx != BRWalletTransactionForHash(manager->wallet, tx->txHash)) BRTransactionFree(tx);
+        if (tx && ! _BRPeerManagerOwnsTx(manager, tx)) BRTransactionFree(tx);
     }
 
     if (manager->bloomFilter) BRBloomFilterFree(manager->bloomFilter);
 
+    array_free(manager->wallets);
     array_free(manager->publishedTx);
     array_free(manager->publishedTxHashes);
     pthread_mutex_unlock(&manager->lock);
     pthread_mutex_destroy(&manager->lock);
     free(manager);
 }
+
+void BRPeerManagerRelayedTxTest(BRPeerManager *manager, BRPeer *peer, BRTransaction *tx)
+{
+    BRPeerCallbackInfo info = { peer, manager, UINT256_ZERO };
+    
+    _peerRelayedTx(&info, tx);
+}
+
+void BRPeerManagerRelayedBlockTest(BRPeerManager *manager, BRPeer *peer, BRMerkleBlock *block)
+{
+    BRPeerCallbackInfo info = { peer, manager, UINT256_ZERO };
+    
+    _peerRelayedBlock(&info, block);
+}
@@ -69,6 +69,37 @@ void BRPeerManagerSetCallbacks(BRPeerManager *manager, void *info,
 // set address to UINT128_ZERO to revert to default behavior
 void BRPeerManagerSetFixedPeer(BRPeerManager *manager, UInt128 address, uint16_t port);
 
+// adds wallet to the wallets served by manager, which share its peer connections, chain and bloom filter; each wallet
+// is notified through its own callbacks (transactions received before wallet was added require a rescan)
+void BRPeerManagerAddWallet(BRPeerManager *manager, BRWallet *wallet, uint32_t earliestKeyTime);
+
+// removes a wallet added with BRPeerManagerAddWallet() (the wallet given to BRPeerManagerNew() can't be removed)
+void BRPeerManagerRemoveWallet(BRPeerManager *manager, BRWallet *wallet);
+
+// number of wallets served by manager, including the one given to BRPeerManagerNew()
+size_t BRPeerManagerWalletCount(BRPeerManager *manager);
+
+typedef struct {
+    double fpRate; // false positive rate bloom filters are built for
+    double rebuildFactor; // the filter is rebuilt when the observed rate exceeds fpRate*rebuildFactor
+    uint32_t tweak; // 0 if the tweak differs per peer
+    double observedFpRate; // low pass filtered false positive rate of downloaded blocks
+    size_t length; // current filter size in bytes, or 0 if a filter update is pending
+    uint32_t hashFuncs;
+    size_t elemCount; // elements the current filter was sized for
+    uint32_t loadCount; // number of filters built and loaded to peers
+    uint64_t txCount; // distinct transactions matched by the current filter, in blocks or relayed by peers
+    uint64_t walletTxCount; // matched transactions that belong to a wallet
+} BRPeerManagerFilterStats;
+
+// sets the false positive rate bloom filters are built for (default BLOOM_REDUCED_FALSEPOSITIVE_RATE), the multiple of
+// it the observed rate may drift to before the filter is rebuilt (default 10), and the filter tweak, or 0 for a tweak
+// that differs per peer (the default); a new rate or tweak rebuilds the filter
+void BRPeerManagerSetFilterPolicy(BRPeerManager *manager, double fpRate, double rebuildFactor, uint32_t tweak);
+
+// the bloom filter policy, the current filter, and counts of the transactions it has matched
+BRPeerManagerFilterStats BRPeerManagerFilterStatistics(BRPeerManager *manager);
+
 // current connect status
 BRPeerStatus BRPeerManagerConnectStatus(BRPeerManager *manager);
 
@@ -105,6 +136,17 @@ double BRPeerManagerSyncProgress(BRPeerManager *manager, uint32_t startHeight);
 // returns the number of currently connected peers
 size_t BRPeerManagerPeerCount(BRPeerManager *manager);
 
+// writes currently connected peers to peers, along with each peer's ping time (seconds) to pingTimes and last block
+// height to lastBlocks (either may be NULL)
+// returns the number of peers written, or total number connected if peers is NULL
+size_t BRPeerManagerConnectedPeers(BRPeerManager *manager, BRPeer peers[], double pingTimes[], uint32_t lastBlocks[],
+                                   size_t peersCount);
+
+// writes to peers, oldest first, the peers that have disconnected with a network error (as opposed to a protocol error)
+// since the last call, and forgets those written
+// returns the number of peers written, or the total number failed if peers is NULL
+size_t BRPeerManagerFailedPeers(BRPeerManager *manager, BRPeer peers[], size_t peersCount);
+
 // description of the peer most recently used to sync blockchain data
 const char *BRPeerManagerDownloadPeerName(BRPeerManager *manager);
 
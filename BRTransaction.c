@@ -639,69 +639,132 @@ int BRTransactionIsSigned(const BRTransaction *tx)
 // returns true if tx is signed
 int BRTransactionSign(BRTransaction *tx, int forkId, BRKey keys[], size_t keysCount)
 {
-    UInt160 pkh[keysCount];
-    size_t i, j;
+    return BRTransactionSignParallel(tx, forkId, keys, keysCount, NULL, NULL);
+}
+
+typedef struct {
+    BRTransaction *tx;
+    int forkId;
+    BRKey *keys;
+    UInt160 *pkh;
+    struct {
+        size_t input;
+        size_t key;
+        int type; // 0: pay-to-pubkey, 1: pay-to-pubkey-hash, 2: pay-to-witness-pubkey-hash
+        uint8_t sig[73];
+        size_t sigLen;
+    } *signings;
+} _BRTransactionSignContext;
+
+static void _BRTransactionSignKeyHash(void *context, size_t index)
+{
+    _BRTransactionSignContext *ctx = context;
+    
+    ctx->pkh[index] = BRKeyHash160(&ctx->keys[index]); // also computes the key's pubKey
+}
+
+static void _BRTransactionSignInput(void *context, size_t index)
+{
+    _BRTransactionSignContext *ctx = context;
+    BRTransaction *tx = ctx->tx;
+    size_t i = ctx->signings[index].input;
+    int hashType = ctx->forkId | SIGHASH_ALL;
+    UInt256 md = UINT256_ZERO;
+    
+    if (ctx->signings[index].type == 2) { // pay-to-witness-pubkey-hash
+        uint8_t data[_BRTransactionWitnessData(tx, NULL, 0, i, hashType)];
+        size_t dataLen = _BRTransactionWitnessData(tx, data, sizeof(data), i, hashType);
+        
+        BRSHA256_2(&md, data, dataLen);
+    }
+    else {
+        uint8_t data[_BRTransactionData(tx, NULL, 0, i, hashType)];
+        size_t dataLen = _BRTransactionData(tx, data, sizeof(data), i, hashType);
+        
+        BRSHA256_2(&md, data, dataLen);
+    }
+    
+    ctx->signings[index].sigLen = BRKeySign(&ctx->keys[ctx->signings[index].key], ctx->signings[index].sig,
+                                            sizeof(ctx->signings[index].sig) - 1, md);
+    ctx->signings[index].sig[ctx->signings[index].sigLen++] = hashType;
+}
+
+// like BRTransactionSign(), but the key hashes, input signature hashes and signatures are computed by
+// parallelFor(parallelInfo, count, context, function), which may call function() concurrently; tx is not modified
+// until parallelFor() returns - a NULL parallelFor computes them serially
+int BRTransactionSignParallel(BRTransaction *tx, int forkId, BRKey keys[], size_t keysCount,
+                              void *parallelInfo, BRParallelFor parallelFor)
+{
+    _BRTransactionSignContext ctx;
+    size_t i, j, count = 0;
     
     assert(tx != NULL);
     assert(keys != NULL || keysCount == 0);
     
-    for (i = 0; tx && i < keysCount; i++) {
-        pkh[i] = BRKeyHash160(&keys[i]);
-    }
+    ctx.tx = tx;
+    ctx.forkId = forkId;
+    ctx.keys = keys;
+    ctx.pkh = (keysCount > 0) ? malloc(keysCount*sizeof(*ctx.pkh)) : NULL;
+    ctx.signings = (tx && tx->inCount > 0) ? malloc(tx->inCount*sizeof(*ctx.signings)) : NULL;
+    assert(ctx.pkh != NULL || keysCount == 0);
+    assert(ctx.signings != NULL || ! tx || tx->inCount == 0);
+    
+    if (parallelFor) parallelFor(parallelInfo, keysCount, &ctx, _BRTransactionSignKeyHash);
+    else for (i = 0; i < keysCount; i++) _BRTransactionSignKeyHash(&ctx, i);
     
     for (i = 0; tx && i < tx->inCount; i++) {
         BRTxInput *input = &tx->inputs[i];
         const uint8_t *hash = BRScriptPKH(input->script, input->scriptLen);
         
         j = 0;
-        while (j < keysCount && (! hash || ! UInt160Eq(pkh[j], UInt160Get(hash)))) j++;
+        while (j < keysCount && (! hash || ! UInt160Eq(ctx.pkh[j], UInt160Get(hash)))) j++;
         if (j >= keysCount) continue;
         
         const uint8_t *elems[BRScriptElements(NULL, 0, input->script, input->scriptLen)];
         size_t elemsCount = BRScriptElements(elems, sizeof(elems)/sizeof(*elems), input->script, input->scriptLen);
-        uint8_t pubKey[BRKeyPubKey(&keys[j], NULL, 0)];
-        size_t pkLen = BRKeyPubKey(&keys[j], pubKey, sizeof(pubKey));
-        uint8_t sig[73], script[1 + sizeof(sig) + 1 + sizeof(pubKey)];
-        size_t sigLen, scriptLen;
-        UInt256 md = UINT256_ZERO;
+        
+        ctx.signings[count].input = i;
+        ctx.signings[count].key = j;
         
         if (elemsCount == 2 && *elems[0] == OP_0 && *elems[1] == 20) { // pay-to-witness-pubkey-hash
-            uint8_t data[_BRTransactionWitnessData(tx, NULL, 0, i, forkId | SIGHASH_ALL)];
-            size_t dataLen = _BRTransactionWitnessData(tx, data, sizeof(data), i, forkId | SIGHASH_ALL);
-            
-            BRSHA256_2(&md, data, dataLen);
-            sigLen = BRKeySign(&keys[j], sig, sizeof(sig) - 1, md);
-            sig[sigLen++] = forkId | SIGHASH_ALL;
-            scriptLen = BRScriptPushData(script, sizeof(script), sig, sigLen);
-            scriptLen += BRScriptPushData(&script[scriptLen], sizeof(script) - scriptLen, pubKey, pkLen);
-            BRTxInputSetSignature(input, script, 0);
-            BRTxInputSetWitness(input, script, scriptLen);
+            ctx.signings[count].type = 2;
         }
         else if (elemsCount >= 2 && *elems[elemsCount - 2] == OP_EQUALVERIFY) { // pay-to-pubkey-hash
-            uint8_t data[_BRTransactionData(tx, NULL, 0, i, forkId | SIGHASH_ALL)];
-            size_t dataLen = _BRTransactionData(tx, data, sizeof(data), i, forkId | SIGHASH_ALL);
-            
-            BRSHA256_2(&md, data, dataLen);
-            sigLen = BRKeySign(&keys[j], sig, sizeof(sig) - 1, md);
-            sig[sigLen++] = forkId | SIGHASH_ALL;
-            scriptLen = BRScriptPushData(script, sizeof(script), sig, sigLen);
+            ctx.signings[count].type = 1;
+        }
+        else ctx.signings[count].type = 0; // pay-to-pubkey
+        
+        count++;
+    }
+    
+    if (parallelFor) parallelFor(parallelInfo, count, &ctx, _BRTransactionSignInput);
+    else for (i = 0; i < count; i++) _BRTransactionSignInput(&ctx, i);
+    
+    for (i = 0; i < count; i++) {
+        BRTxInput *input = &tx->inputs[ctx.signings[i].input];
+        BRKey *key = &keys[ctx.signings[i].key];
+        uint8_t pubKey[BRKeyPubKey(key, NULL, 0)];
+        size_t pkLen = BRKeyPubKey(key, pubKey, sizeof(pubKey));
+        uint8_t script[1 + sizeof(ctx.signings[i].sig) + 1 + sizeof(pubKey)];
+        size_t scriptLen = BRScriptPushData(script, sizeof(script), ctx.signings[i].sig, ctx.signings[i].sigLen);
+        
+        if (ctx.signings[i].type != 0) {
             scriptLen += BRScriptPushData(&script[scriptLen], sizeof(script) - scriptLen, pubKey, pkLen);
-            BRTxInputSetSignature(input, script, scriptLen);
-            BRTxInputSetWitness(input, script, 0);
         }
-        else { // pay-to-pubkey
-            uint8_t data[_BRTransactionData(tx, NULL, 0, i, forkId | SIGHASH_ALL)];
-            size_t dataLen = _BRTransactionData(tx, data, sizeof(data), i, forkId | SIGHASH_ALL);
-
-            BRSHA256_2(&md, data, dataLen);
-            sigLen = BRKeySign(&keys[j], sig, sizeof(sig) - 1, md);
-            sig[sigLen++] = forkId | SIGHASH_ALL;
-            scriptLen = BRScriptPushData(script, sizeof(script), sig, sigLen);
+        
+        if (ctx.signings[i].type == 2) { // pay-to-witness-pubkey-hash
+            BRTxInputSetSignature(input, script, 0);
+            BRTxInputSetWitness(input, script, scriptLen);
+        }
+        else {
             BRTxInputSetSignature(input, script, scriptLen);
             BRTxInputSetWitness(input, script, 0);
         }
     }
     
+    if (ctx.signings) free(ctx.signings);
+    if (ctx.pkh) free(ctx.pkh);
+    
     if (tx && BRTransactionIsSigned(tx)) {
         uint8_t data[BRTransactionSerialize(tx, NULL, 0)];
         size_t len = BRTransactionSerialize(tx, data, sizeof(data));
@@ -134,6 +134,16 @@ int BRTransactionIsSigned(const BRTransaction *tx);
 // returns true if tx is signed
 int BRTransactionSign(BRTransaction *tx, int forkId, BRKey keys[], size_t keysCount);
 
+// calls function(context, index) for each index in [0, count), possibly concurrently, and returns once all are done
+typedef void (*BRParallelFor)(void *parallelInfo, size_t count, void *context,
+                              void (*function)(void *context, size_t index));
+
+// like BRTransactionSign(), but the key hashes, input signature hashes and signatures are computed by
+// parallelFor(parallelInfo, count, context, function), which may call function() concurrently; tx is not modified
+// until parallelFor() returns - a NULL parallelFor computes them serially
+int BRTransactionSignParallel(BRTransaction *tx, int forkId, BRKey keys[], size_t keysCount,
+                              void *parallelInfo, BRParallelFor parallelFor);
+
 // true if tx meets IsStandard() rules: https://bitcoin.org/en/developer-guide#standard-transactions
 int BRTransactionIsStandard(const BRTransaction *tx);
 
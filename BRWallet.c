@@ -69,6 +69,8 @@ inline static size_t _txChainIndex(const BRTransaction *tx, const UInt160 *chain
 struct BRWalletStruct {
     uint64_t balance, totalSent, totalReceived, feePerKb, *balanceHist;
     uint32_t blockHeight;
+    BRCoinSelection coinSelection;
+    size_t utxoTarget;
     BRUTXO *utxos;
     BRTransaction **transactions;
     BRMasterPubKey masterPubKey;
@@ -430,6 +432,41 @@ size_t BRWalletUTXOs(BRWallet *wallet, BRUTXO *utxos, size_t utxosCount)
     return utxosCount;
 }
 
+// writes up to utxosCount unspent outputs, starting with the offset'th, to utxos, along with each output's amount to
+// amounts and, if scripts is not NULL, a malloc()ed copy of its script to scripts and scriptLens (free when done)
+// returns the number of outputs written
+size_t BRWalletUTXOOutputs(BRWallet *wallet, size_t offset, BRUTXO utxos[], uint64_t amounts[], uint8_t *scripts[],
+                           size_t scriptLens[], size_t utxosCount)
+{
+    BRTransaction *tx;
+    BRTxOutput *o;
+    
+    assert(wallet != NULL);
+    assert(utxos != NULL || utxosCount == 0);
+    assert(amounts != NULL || utxosCount == 0);
+    assert(scripts == NULL || scriptLens != NULL);
+    pthread_mutex_lock(&wallet->lock);
+    if (offset > array_count(wallet->utxos)) offset = array_count(wallet->utxos);
+    if (array_count(wallet->utxos) - offset < utxosCount) utxosCount = array_count(wallet->utxos) - offset;
+    
+    for (size_t i = 0; i < utxosCount; i++) {
+        utxos[i] = wallet->utxos[offset + i];
+        tx = BRSetGet(wallet->allTx, &utxos[i].hash);
+        o = &tx->outputs[utxos[i].n];
+        amounts[i] = o->amount;
+        
+        if (scripts) {
+            scripts[i] = malloc(o->scriptLen);
+            assert(scripts[i] != NULL || o->scriptLen == 0);
+            if (o->scriptLen > 0) memcpy(scripts[i], o->script, o->scriptLen);
+            scriptLens[i] = o->scriptLen;
+        }
+    }
+    
+    pthread_mutex_unlock(&wallet->lock);
+    return utxosCount;
+}
+
 // writes transactions registered in the wallet, sorted by date, oldest first, to the given transactions array
 // returns the number of transactions written, or total number available if transactions is NULL
 size_t BRWalletTransactions(BRWallet *wallet, BRTransaction *transactions[], size_t txCount)
@@ -467,6 +504,54 @@ size_t BRWalletTxUnconfirmedBefore(BRWallet *wallet, BRTransaction *transactions
     return txCount;
 }
 
+// index of the first of wallet->transactions, which are sorted by block height, with a block height at or above
+// blockHeight; wallet->lock must be held
+static size_t _BRWalletTxHeightIndex(BRWallet *wallet, uint32_t blockHeight)
+{
+    size_t lo = 0, hi = array_count(wallet->transactions), mid;
+    
+    while (lo < hi) {
+        mid = lo + (hi - lo)/2;
+        if (wallet->transactions[mid]->blockHeight < blockHeight) lo = mid + 1;
+        else hi = mid;
+    }
+    
+    return lo;
+}
+
+// writes transactions registered in the wallet with block heights in [startHeight, endHeight) and timestamps in
+// [startTime, endTime), sorted by date, newest first, and skipping the first offset of them, to the transactions array
+// returns the number of transactions written, or total number in the ranges if transactions is NULL
+size_t BRWalletTxInRange(BRWallet *wallet, BRTransaction *transactions[], size_t txCount, size_t offset,
+                         uint32_t startHeight, uint32_t endHeight, uint32_t startTime, uint32_t endTime)
+{
+    size_t i, lo, hi, n = 0;
+    int allTimes = (startTime == 0 && endTime == UINT32_MAX);
+    BRTransaction *tx;
+    
+    assert(wallet != NULL);
+    pthread_mutex_lock(&wallet->lock);
+    lo = _BRWalletTxHeightIndex(wallet, startHeight);
+    hi = (endHeight > startHeight) ? _BRWalletTxHeightIndex(wallet, endHeight) : lo;
+    
+    if (allTimes) { // every transaction in [lo, hi) is in the ranges, so skip offset of them directly
+        if (! transactions) n = hi - lo, lo = hi;
+        i = (hi - lo > offset) ? hi - offset : lo;
+    }
+    else i = hi;
+    
+    for (; i > lo && (! transactions || n < txCount); i--) {
+        tx = wallet->transactions[i - 1];
+        if (tx->timestamp < startTime || tx->timestamp >= endTime) continue;
+        if (transactions && ! allTimes && offset > 0) offset--;
+        else if (transactions) transactions[n++] = tx;
+        else n++;
+    }
+    
+    pthread_mutex_unlock(&wallet->lock);
+    return n;
+}
+
 // total amount spent from the wallet (exluding change)
 uint64_t BRWalletTotalSent(BRWallet *wallet)
 {
@@ -511,6 +596,27 @@ void BRWalletSetFeePerKb(BRWallet *wallet, uint64_t feePerKb)
     pthread_mutex_unlock(&wallet->lock);
 }
 
+// coin selection to use when creating a transaction; utxoTarget only applies to BRCoinSelectionConsolidate
+BRCoinSelection BRWalletCoinSelection(BRWallet *wallet)
+{
+    BRCoinSelection selection;
+    
+    assert(wallet != NULL);
+    pthread_mutex_lock(&wallet->lock);
+    selection = wallet->coinSelection;
+    pthread_mutex_unlock(&wallet->lock);
+    return selection;
+}
+
+void BRWalletSetCoinSelection(BRWallet *wallet, BRCoinSelection selection, size_t utxoTarget)
+{
+    assert(wallet != NULL);
+    pthread_mutex_lock(&wallet->lock);
+    wallet->coinSelection = selection;
+    wallet->utxoTarget = utxoTarget;
+    pthread_mutex_unlock(&wallet->lock);
+}
+
 // returns the first unused external address (bech32 pay-to-witness-pubkey-hash)
 BRAddress BRWalletReceiveAddress(BRWallet *wallet)
 {
@@ -588,6 +694,192 @@ int BRWalletAddressIsUsed(BRWallet *wallet, const char *addr)
     return r;
 }
 
+// for each pkhs[i], sets contained[i] to true if it is the hash160 of an address previously generated by
+// BRWalletUnusedAddrs(), and used[i] to true if that address was previously used in any wallet transaction
+// either of contained or used may be NULL
+void BRWalletContainsHash160s(BRWallet *wallet, const UInt160 pkhs[], size_t pkhsCount, uint8_t contained[],
+                              uint8_t used[])
+{
+    assert(wallet != NULL);
+    assert(pkhs != NULL || pkhsCount == 0);
+    pthread_mutex_lock(&wallet->lock);
+    
+    for (size_t i = 0; pkhs && i < pkhsCount; i++) {
+        if (contained) contained[i] = (BRSetContains(wallet->allPKH, &pkhs[i])) ? 1 : 0;
+        if (used) used[i] = (BRSetContains(wallet->usedPKH, &pkhs[i])) ? 1 : 0;
+    }
+    
+    pthread_mutex_unlock(&wallet->lock);
+}
+
+#define BNB_MAX_TRIES 100000 // branch-and-bound search limit, as in bitcoind
+
+typedef struct {
+    uint64_t amount;
+    size_t weight; // estimated input weight, as in BRTransactionVSize(), or 0 if the UTXO's tx is missing
+    size_t i; // index in wallet->utxos
+} _BRCoin;
+
+// outputs below this amount are uneconomical due to fees at feePerKb
+inline static uint64_t _BRMinOutputAmount(uint64_t feePerKb)
+{
+    uint64_t amount = (TX_MIN_OUTPUT_AMOUNT*feePerKb + MIN_FEE_PER_KB - 1)/MIN_FEE_PER_KB;
+    
+    return (amount > TX_MIN_OUTPUT_AMOUNT) ? amount : TX_MIN_OUTPUT_AMOUNT;
+}
+
+// writes a coin for each of wallet->utxos to coins, in wallet order; wallet->lock must be held
+static void _BRWalletCoins(BRWallet *wallet, _BRCoin coins[])
+{
+    BRTransaction *tx;
+    BRUTXO *o;
+    uint8_t *script;
+    
+    for (size_t i = 0; i < array_count(wallet->utxos); i++) {
+        o = &wallet->utxos[i];
+        tx = BRSetGet(wallet->allTx, o);
+        script = (tx && o->n < tx->outCount) ? tx->outputs[o->n].script : NULL;
+        coins[i].amount = (tx && o->n < tx->outCount) ? tx->outputs[o->n].amount : 0;
+        coins[i].weight = (! tx || o->n >= tx->outCount) ? 0 :
+                          (script && tx->outputs[o->n].scriptLen > 0 && script[0] == OP_0) ? TX_INPUT_SIZE + 1 :
+                          TX_INPUT_SIZE*4;
+        coins[i].i = i;
+    }
+}
+
+// fee for weight, at feePerKb of vsize
+inline static uint64_t _BRCoinFee(uint64_t feePerKb, size_t weight)
+{
+    return feePerKb*weight/4000;
+}
+
+static int _BRCoinCompareLargestFirst(const void *a, const void *b)
+{
+    const _BRCoin *x = a, *y = b;
+    
+    if (x->amount != y->amount) return (x->amount < y->amount) ? 1 : -1;
+    return (x->i < y->i) ? -1 : (x->i > y->i) ? 1 : 0; // wallet order among equal amounts
+}
+
+static int _BRCoinCompareSmallestFirst(const void *a, const void *b)
+{
+    return _BRCoinCompareLargestFirst(b, a);
+}
+
+// depth-first search over coins, largest first, for the set whose total covers amount plus the fee for baseSize bytes
+// and the set's inputs with the least left over, and no more than window; sets selected[i] for each coin in the set
+// and returns the set's size, or returns 0 if no set was found
+static size_t _BRCoinBranchAndBound(const _BRCoin coins[], size_t count, uint64_t amount, uint64_t feePerKb,
+                                    size_t baseSize, uint64_t window, uint8_t selected[])
+{
+    uint64_t *remaining = malloc((count + 1)*sizeof(*remaining)), total = 0, required, best = UINT64_MAX;
+    uint8_t *current = calloc(count + 1, sizeof(*current));
+    size_t i, depth = 0, n = 0, bestN = 0, weight = baseSize*4 + 2, tries;
+    int backtrack;
+    
+    assert(remaining != NULL);
+    assert(current != NULL);
+    remaining[count] = 0;
+    for (i = count; i > 0; i--) remaining[i - 1] = remaining[i] + coins[i - 1].amount;
+    memset(selected, 0, count);
+    
+    for (tries = 0; tries < BNB_MAX_TRIES && best > 0; tries++) {
+        required = amount + _txFee(feePerKb, (weight + 3)/4);
+        backtrack = 0;
+        
+        if (total > required + window) backtrack = 1; // overshot
+        else if (total >= required) { // a match; keep looking for less left over
+            if (total - required < best) best = total - required, bestN = n, memcpy(selected, current, count);
+            backtrack = 1;
+        }
+        else if (depth == count || total + remaining[depth] < required) backtrack = 1; // can't reach required
+        
+        if (backtrack) { // exclude the most recently included coin
+            while (depth > 0 && ! current[depth - 1]) depth--;
+            if (depth == 0) break; // exhausted
+            current[depth - 1] = 0;
+            total -= coins[depth - 1].amount;
+            weight -= coins[depth - 1].weight;
+            n--;
+        }
+        else { // include the next coin
+            current[depth] = 1;
+            total += coins[depth].amount;
+            weight += coins[depth].weight;
+            depth++;
+            n++;
+        }
+    }
+    
+    free(current);
+    free(remaining);
+    return bestN;
+}
+
+// writes the wallet->utxos indexes to order, in the order to try them for selection, and returns how many leading
+// entries must all be spent (consolidation), setting *exactCount if the leading entries exactly cover the amount
+// (branch-and-bound); walletCoins are from _BRWalletCoins(), and wallet->lock must be held
+static size_t _BRWalletCoinOrder(BRWallet *wallet, const _BRCoin walletCoins[], uint64_t feePerKb, uint64_t amount,
+                                 size_t baseSize, uint64_t minAmount, size_t order[], size_t *exactCount)
+{
+    size_t i, j, k = 0, count = array_count(wallet->utxos), minCount = 0;
+    uint64_t window;
+    _BRCoin *coins;
+    uint8_t *selected;
+
+    *exactCount = 0;
+    
+    if (wallet->coinSelection == BRCoinSelectionOldestFirst || count == 0) {
+        for (i = 0; i < count; i++) order[i] = i;
+        return 0;
+    }
+    
+    coins = malloc(count*sizeof(*coins));
+    assert(coins != NULL);
+    memcpy(coins, walletCoins, count*sizeof(*coins));
+    qsort(coins, count, sizeof(*coins), _BRCoinCompareLargestFirst);
+    
+    if (wallet->coinSelection == BRCoinSelectionBranchAndBound) {
+        // any remainder up to the cost of a change output and of later spending it is left as fee
+        window = _txFee(feePerKb, TX_OUTPUT_SIZE + TX_INPUT_SIZE);
+        if (window > minAmount) window = minAmount;
+        
+        // only coins worth more than the fee to spend them
+        for (i = 0, j = 0; i < count; i++) {
+            if (coins[i].amount > _BRCoinFee(feePerKb, coins[i].weight)) coins[j++] = coins[i];
+            else order[count - ++k] = coins[i].i; // the rest go last
+        }
+        
+        selected = calloc(j + 1, sizeof(*selected));
+        assert(selected != NULL);
+        *exactCount = _BRCoinBranchAndBound(coins, j, amount, feePerKb, baseSize, window, selected);
+        
+        for (i = 0, k = 0; i < j; i++) if (selected[i]) order[k++] = coins[i].i; // the match, then the rest
+        for (i = 0; i < j; i++) if (! selected[i]) order[k++] = coins[i].i;
+        free(selected);
+    }
+    else if (wallet->coinSelection == BRCoinSelectionConsolidate && count > wallet->utxoTarget) {
+        // the smallest coins worth more than the fee to spend them, leaving half of TX_MAX_SIZE for the rest
+        for (i = 0, j = 0; i < count; i++) {
+            if (coins[i].amount > _BRCoinFee(feePerKb, coins[i].weight)) j = i + 1;
+        }
+        
+        minCount = count - wallet->utxoTarget + 1; // with a change output, leaves utxoTarget
+        if (minCount > j) minCount = j;
+        if (minCount > TX_MAX_SIZE/2/TX_INPUT_SIZE) minCount = TX_MAX_SIZE/2/TX_INPUT_SIZE;
+        qsort(&coins[j - minCount], minCount, sizeof(*coins), _BRCoinCompareSmallestFirst);
+        
+        for (i = j - minCount; i < j; i++) order[k++] = coins[i].i;
+        for (i = 0; i < count; i++) if (i < j - minCount || i >= j) order[k++] = coins[i].i;
+    }
+    else { // largest-first, or consolidation with at most utxoTarget UTXOs
+        for (i = 0; i < count; i++) order[k++] = coins[i].i;
+    }
+    
+    free(coins);
+    return minCount;
+}
+
 // returns an unsigned transaction that sends the specified amount from the wallet to the given address
 // result must be freed by calling BRTransactionFree()
 BRTransaction *BRWalletCreateTransaction(BRWallet *wallet, uint64_t amount, const char *addr)
@@ -608,7 +900,8 @@ BRTransaction *BRWalletCreateTxForOutputs(BRWallet *wallet, const BRTxOutput out
 {
     BRTransaction *tx, *transaction = BRTransactionNew();
     uint64_t feeAmount, amount = 0, balance = 0, minAmount;
-    size_t i, j, cpfpSize = 0;
+    size_t i, j, k, cpfpSize = 0, minCount, exactCount, *order;
+    _BRCoin *coins;
     BRUTXO *o;
     BRAddress addr = BR_ADDRESS_NONE;
     
@@ -624,13 +917,21 @@ BRTransaction *BRWalletCreateTxForOutputs(BRWallet *wallet, const BRTxOutput out
     minAmount = BRWalletMinOutputAmount(wallet);
     pthread_mutex_lock(&wallet->lock);
     feeAmount = _txFee(wallet->feePerKb, BRTransactionVSize(transaction) + TX_OUTPUT_SIZE);
+    order = malloc((array_count(wallet->utxos) + 1)*sizeof(*order));
+    coins = malloc((array_count(wallet->utxos) + 1)*sizeof(*coins));
+    assert(order != NULL);
+    assert(coins != NULL);
+    _BRWalletCoins(wallet, coins);
+    minCount = _BRWalletCoinOrder(wallet, coins, wallet->feePerKb, amount,
+                                  BRTransactionVSize(transaction) + TX_OUTPUT_SIZE, minAmount, order, &exactCount);
+    free(coins);
     
     // TODO: use up all UTXOs for all used addresses to avoid leaving funds in addresses whose public key is revealed
     // TODO: avoid combining addresses in a single transaction when possible to reduce information leakage
     // TODO: use up UTXOs received from any of the output scripts that this transaction sends funds to, to mitigate an
     //       attacker double spending and requesting a refund
-    for (i = 0; i < array_count(wallet->utxos); i++) {
-        o = &wallet->utxos[i];
+    for (k = 0; k < array_count(wallet->utxos); k++) {
+        o = &wallet->utxos[order[k]];
         tx = BRSetGet(wallet->allTx, o);
         if (! tx || o->n >= tx->outCount) continue;
         BRTransactionAddInput(transaction, tx->txHash, o->n, tx->outputs[o->n].amount,
@@ -672,13 +973,17 @@ BRTransaction *BRWalletCreateTxForOutputs(BRWallet *wallet, const BRTxOutput out
         // fee amount after adding a change output
         feeAmount = _txFee(wallet->feePerKb, BRTransactionVSize(transaction) + TX_OUTPUT_SIZE + cpfpSize);
 
-        // increase fee to round off remaining wallet balance to nearest 100 satoshi
-        if (wallet->balance > amount + feeAmount) feeAmount += (wallet->balance - (amount + feeAmount)) % 100;
+        // increase fee to round off remaining wallet balance to nearest 100 satoshi (an exact match has no change)
+        if (exactCount == 0 && wallet->balance > amount + feeAmount) {
+            feeAmount += (wallet->balance - (amount + feeAmount)) % 100;
+        }
         
-        if (balance == amount + feeAmount || balance >= amount + feeAmount + minAmount) break;
+        if (k + 1 == exactCount && balance >= amount + feeAmount) break; // exact match, any remainder is fee
+        if (k + 1 >= minCount && (balance == amount + feeAmount || balance >= amount + feeAmount + minAmount)) break;
     }
     
     pthread_mutex_unlock(&wallet->lock);
+    free(order);
     
     if (transaction && (outCount < 1 || balance < amount + feeAmount)) { // no outputs/insufficient funds
         BRTransactionFree(transaction);
@@ -700,9 +1005,17 @@ BRTransaction *BRWalletCreateTxForOutputs(BRWallet *wallet, const BRTxOutput out
 // seed is the master private key (wallet seed) corresponding to the master public key given when the wallet was created
 // returns true if all inputs were signed, or false if there was an error or not all inputs were able to be signed
 int BRWalletSignTransaction(BRWallet *wallet, BRTransaction *tx, const void *seed, size_t seedLen)
+{
+    return BRWalletSignTransactionParallel(wallet, tx, seed, seedLen, NULL, NULL);
+}
+
+// like BRWalletSignTransaction(), but each needed private key is derived once and inputs are signed with
+// BRTransactionSignParallel() using parallelFor
+int BRWalletSignTransactionParallel(BRWallet *wallet, BRTransaction *tx, const void *seed, size_t seedLen,
+                                    void *parallelInfo, BRParallelFor parallelFor)
 {
     uint32_t j, internalIdx[tx->inCount], externalIdx[tx->inCount];
-    size_t i, internalCount = 0, externalCount = 0;
+    size_t i, k, internalCount = 0, externalCount = 0;
     int forkId, r = 0;
     
     assert(wallet != NULL);
@@ -714,11 +1027,15 @@ int BRWalletSignTransaction(BRWallet *wallet, BRTransaction *tx, const void *see
         const uint8_t *pkh = BRScriptPKH(tx->inputs[i].script, tx->inputs[i].scriptLen);
         
         for (j = (uint32_t)array_count(wallet->internalChain); pkh && j > 0; j--) {
-            if (UInt160Eq(UInt160Get(pkh), wallet->internalChain[j - 1])) internalIdx[internalCount++] = j - 1;
+            if (! UInt160Eq(UInt160Get(pkh), wallet->internalChain[j - 1])) continue;
+            for (k = 0; k < internalCount && internalIdx[k] != j - 1; k++);
+            if (k == internalCount) internalIdx[internalCount++] = j - 1;
         }
 
         for (j = (uint32_t)array_count(wallet->externalChain); pkh && j > 0; j--) {
-            if (UInt160Eq(UInt160Get(pkh), wallet->externalChain[j - 1])) externalIdx[externalCount++] = j - 1;
+            if (! UInt160Eq(UInt160Get(pkh), wallet->externalChain[j - 1])) continue;
+            for (k = 0; k < externalCount && externalIdx[k] != j - 1; k++);
+            if (k == externalCount) externalIdx[externalCount++] = j - 1;
         }
     }
 
@@ -731,7 +1048,7 @@ int BRWalletSignTransaction(BRWallet *wallet, BRTransaction *tx, const void *see
         BRBIP32PrivKeyList(&keys[internalCount], externalCount, seed, seedLen, SEQUENCE_EXTERNAL_CHAIN, externalIdx);
         // TODO: XXX wipe seed callback
         seed = NULL;
-        if (tx) r = BRTransactionSign(tx, forkId, keys, internalCount + externalCount);
+        if (tx) r = BRTransactionSignParallel(tx, forkId, keys, internalCount + externalCount, parallelInfo, parallelFor);
         for (i = 0; i < internalCount + externalCount; i++) BRKeyClean(&keys[i]);
     }
     else r = -1; // user canceled authentication
@@ -1127,6 +1444,52 @@ uint64_t BRWalletBalanceAfterTx(BRWallet *wallet, const BRTransaction *tx)
     return balance;
 }
 
+// writes up to pointsCount points of the wallet's balance history over transactions with timestamps in
+// [startTime, endTime): the range is split into intervalCount equal intervals, and for each interval with transactions
+// the latest timestamp, the block height and the balance after its last transaction (in wallet order) are written
+// sets *startBalance, if not NULL, to the balance before the first transaction at or after startTime
+// either of timestamps or blockHeights may be NULL; returns the number of points written
+size_t BRWalletBalanceHistory(BRWallet *wallet, uint32_t startTime, uint32_t endTime, size_t intervalCount,
+                              uint32_t timestamps[], uint32_t blockHeights[], uint64_t balances[], size_t pointsCount,
+                              uint64_t *startBalance)
+{
+    size_t i, first, count = 0, interval, lastInterval = 0;
+    BRTransaction *tx;
+    
+    assert(wallet != NULL);
+    assert(balances != NULL || pointsCount == 0);
+    pthread_mutex_lock(&wallet->lock);
+    
+    for (first = 0; first < array_count(wallet->transactions); first++) {
+        if (wallet->transactions[first]->timestamp >= startTime) break;
+    }
+    
+    if (startBalance) *startBalance = (first > 0) ? wallet->balanceHist[first - 1] : 0;
+    
+    for (i = first; intervalCount > 0 && endTime > startTime && i < array_count(wallet->transactions); i++) {
+        tx = wallet->transactions[i];
+        if (tx->timestamp >= endTime) continue;
+        interval = (tx->timestamp < startTime) ? 0 :
+                   (size_t)((uint64_t)(tx->timestamp - startTime)*intervalCount/(endTime - startTime));
+        
+        if (count == 0 || interval > lastInterval) { // the first transaction in a new interval
+            if (count == pointsCount) break;
+            if (timestamps) timestamps[count] = tx->timestamp;
+            lastInterval = interval;
+            count++;
+        }
+        else if (timestamps && tx->timestamp > timestamps[count - 1]) { // out of order timestamps stay in the latest
+            timestamps[count - 1] = tx->timestamp;
+        }
+        
+        if (blockHeights) blockHeights[count - 1] = tx->blockHeight;
+        balances[count - 1] = wallet->balanceHist[i];
+    }
+    
+    pthread_mutex_unlock(&wallet->lock);
+    return count;
+}
+
 // fee that will be added for a transaction of the given size in bytes
 uint64_t BRWalletFeeForTxSize(BRWallet *wallet, size_t size)
 {
@@ -1163,6 +1526,83 @@ uint64_t BRWalletFeeForTxAmount(BRWallet *wallet, uint64_t amount)
     return fee;
 }
 
+// estimated vsize, as in BRTransactionVSize(), of an unsigned transaction with inCount inputs, witCount of them P2WPKH,
+// and outCount outputs totaling outSize bytes
+inline static size_t _BRTxVSize(size_t inCount, size_t witCount, size_t outCount, size_t outSize)
+{
+    size_t size = 8 + BRVarIntSize(inCount) + BRVarIntSize(outCount) + outSize + (inCount - witCount)*TX_INPUT_SIZE,
+           witSize = (witCount > 0) ? witCount*TX_INPUT_SIZE + 2 + inCount : 0;
+    
+    return (size*4 + witSize + 3)/4;
+}
+
+// for each amounts[i], writes to fees[i], sizes[i] and inCounts[i] the fee, vsize and input count of the transaction
+// BRWalletCreateTransaction() would create to send that amount to a P2PKH address at feePerKbs[i] (or at the wallet's
+// fee-per-kb if feePerKbs is NULL), or zeros if it would create none; no transactions are created
+// either of sizes or inCounts may be NULL
+void BRWalletFeeQuotes(BRWallet *wallet, const uint64_t amounts[], const uint64_t feePerKbs[], size_t count,
+                       uint64_t fees[], size_t sizes[], size_t inCounts[])
+{
+    size_t i, k, n, witCount, minCount, exactCount, size = 0, utxosCount, *order,
+           changeSize = sizeof(uint64_t) + 1 + ((wallet->forkId != 0) ? 25 : 22); // as BRWalletUnusedAddrs() scripts
+    uint64_t amount, feePerKb, feeAmount, balance, minAmount;
+    _BRCoin *coins, *c;
+    
+    assert(wallet != NULL);
+    assert(amounts != NULL || count == 0);
+    assert(fees != NULL || count == 0);
+    pthread_mutex_lock(&wallet->lock);
+    utxosCount = array_count(wallet->utxos);
+    order = malloc((utxosCount + 1)*sizeof(*order));
+    coins = malloc((utxosCount + 1)*sizeof(*coins));
+    assert(order != NULL);
+    assert(coins != NULL);
+    _BRWalletCoins(wallet, coins);
+    
+    for (i = 0; i < count; i++) { // as in BRWalletCreateTxForOutputs(), but sizing rather than building the tx
+        amount = amounts[i];
+        feePerKb = (feePerKbs) ? feePerKbs[i] : wallet->feePerKb;
+        minAmount = _BRMinOutputAmount(feePerKb);
+        feeAmount = _txFee(feePerKb, _BRTxVSize(0, 0, 1, TX_OUTPUT_SIZE) + TX_OUTPUT_SIZE);
+        minCount = _BRWalletCoinOrder(wallet, coins, feePerKb, amount, _BRTxVSize(0, 0, 1, TX_OUTPUT_SIZE) +
+                                      TX_OUTPUT_SIZE, minAmount, order, &exactCount);
+        balance = n = witCount = 0;
+        
+        for (k = 0; k < utxosCount; k++) {
+            c = &coins[order[k]];
+            if (c->weight == 0) continue;
+            n++;
+            if (c->weight != TX_INPUT_SIZE*4) witCount++;
+            size = _BRTxVSize(n, witCount, 1, TX_OUTPUT_SIZE);
+            if (size + TX_OUTPUT_SIZE > TX_MAX_SIZE) break; // too large to quote, balance is short of amount + fee
+            balance += c->amount;
+            feeAmount = _txFee(feePerKb, size + TX_OUTPUT_SIZE);
+            
+            if (exactCount == 0 && wallet->balance > amount + feeAmount) {
+                feeAmount += (wallet->balance - (amount + feeAmount)) % 100;
+            }
+            
+            if (k + 1 == exactCount && balance >= amount + feeAmount) break;
+            if (k + 1 >= minCount && (balance == amount + feeAmount || balance >= amount + feeAmount + minAmount)) break;
+        }
+        
+        if (amount == 0 || balance < amount + feeAmount || size + TX_OUTPUT_SIZE > TX_MAX_SIZE) {
+            fees[i] = 0, size = 0, n = 0; // insufficient funds, or too large for one transaction
+        }
+        else if (balance - (amount + feeAmount) > minAmount) { // with a change output
+            fees[i] = feeAmount, size = _BRTxVSize(n, witCount, 2, TX_OUTPUT_SIZE + changeSize);
+        }
+        else fees[i] = balance - amount; // any remainder is fee
+        
+        if (sizes) sizes[i] = size;
+        if (inCounts) inCounts[i] = n;
+    }
+    
+    pthread_mutex_unlock(&wallet->lock);
+    free(coins);
+    free(order);
+}
+
 // outputs below this amount are uneconomical due to fees (TX_MIN_OUTPUT_AMOUNT is the absolute minimum output amount)
 uint64_t BRWalletMinOutputAmount(BRWallet *wallet)
 {
@@ -1170,9 +1610,9 @@ uint64_t BRWalletMinOutputAmount(BRWallet *wallet)
     
     assert(wallet != NULL);
     pthread_mutex_lock(&wallet->lock);
-    amount = (TX_MIN_OUTPUT_AMOUNT*wallet->feePerKb + MIN_FEE_PER_KB - 1)/MIN_FEE_PER_KB;
+    amount = _BRMinOutputAmount(wallet->feePerKb);
     pthread_mutex_unlock(&wallet->lock);
-    return (amount > TX_MIN_OUTPUT_AMOUNT) ? amount : TX_MIN_OUTPUT_AMOUNT;
+    return amount;
 }
 
 // maximum amount that can be sent from the wallet to a single address after fees
@@ -100,6 +100,12 @@ int BRWalletContainsAddress(BRWallet *wallet, const char *addr);
 // true if the address was previously used as an input or output in any wallet transaction
 int BRWalletAddressIsUsed(BRWallet *wallet, const char *addr);
 
+// for each pkhs[i], sets contained[i] to true if it is the hash160 of an address previously generated by
+// BRWalletUnusedAddrs(), and used[i] to true if that address was previously used in any wallet transaction
+// either of contained or used may be NULL
+void BRWalletContainsHash160s(BRWallet *wallet, const UInt160 pkhs[], size_t pkhsCount, uint8_t contained[],
+                              uint8_t used[]);
+
 // writes transactions registered in the wallet, sorted by date, oldest first, to the given transactions array
 // returns the number of transactions written, or total number available if transactions is NULL
 size_t BRWalletTransactions(BRWallet *wallet, BRTransaction *transactions[], size_t txCount);
@@ -109,6 +115,12 @@ size_t BRWalletTransactions(BRWallet *wallet, BRTransaction *transactions[], siz
 size_t BRWalletTxUnconfirmedBefore(BRWallet *wallet, BRTransaction *transactions[], size_t txCount,
                                    uint32_t blockHeight);
 
+// writes transactions registered in the wallet with block heights in [startHeight, endHeight) and timestamps in
+// [startTime, endTime), sorted by date, newest first, and skipping the first offset of them, to the transactions array
+// returns the number of transactions written, or total number in the ranges if transactions is NULL
+size_t BRWalletTxInRange(BRWallet *wallet, BRTransaction *transactions[], size_t txCount, size_t offset,
+                         uint32_t startHeight, uint32_t endHeight, uint32_t startTime, uint32_t endTime);
+
 // current wallet balance, not including transactions known to be invalid
 uint64_t BRWalletBalance(BRWallet *wallet);
 
@@ -121,10 +133,27 @@ uint64_t BRWalletTotalReceived(BRWallet *wallet);
 // writes unspent outputs to utxos and returns the number of outputs written, or number available if utxos is NULL
 size_t BRWalletUTXOs(BRWallet *wallet, BRUTXO utxos[], size_t utxosCount);
 
+// writes up to utxosCount unspent outputs, starting with the offset'th, to utxos, along with each output's amount to
+// amounts and, if scripts is not NULL, a malloc()ed copy of its script to scripts and scriptLens (free when done)
+// returns the number of outputs written
+size_t BRWalletUTXOOutputs(BRWallet *wallet, size_t offset, BRUTXO utxos[], uint64_t amounts[], uint8_t *scripts[],
+                           size_t scriptLens[], size_t utxosCount);
+
 // fee-per-kb of transaction size to use when creating a transaction
 uint64_t BRWalletFeePerKb(BRWallet *wallet);
 void BRWalletSetFeePerKb(BRWallet *wallet, uint64_t feePerKb);
 
+typedef enum {
+    BRCoinSelectionOldestFirst = 0, // spend UTXOs in wallet order (the default)
+    BRCoinSelectionLargestFirst,    // spend the largest UTXOs first, for the fewest inputs
+    BRCoinSelectionBranchAndBound,  // spend a UTXO set that needs no change output if one is found, else largest-first
+    BRCoinSelectionConsolidate      // also spend the smallest UTXOs, toward leaving utxoTarget UTXOs, then largest-first
+} BRCoinSelection;
+
+// coin selection to use when creating a transaction; utxoTarget only applies to BRCoinSelectionConsolidate
+BRCoinSelection BRWalletCoinSelection(BRWallet *wallet);
+void BRWalletSetCoinSelection(BRWallet *wallet, BRCoinSelection selection, size_t utxoTarget);
+
 // returns an unsigned transaction that sends the specified amount from the wallet to the given address
 // result must be freed using BRTransactionFree()
 BRTransaction *BRWalletCreateTransaction(BRWallet *wallet, uint64_t amount, const char *addr);
@@ -138,6 +167,11 @@ BRTransaction *BRWalletCreateTxForOutputs(BRWallet *wallet, const BRTxOutput out
 // returns true if all inputs were signed, or false if there was an error or not all inputs were able to be signed
 int BRWalletSignTransaction(BRWallet *wallet, BRTransaction *tx, const void *seed, size_t seedLen);
 
+// like BRWalletSignTransaction(), but each needed private key is derived once and inputs are signed with
+// BRTransactionSignParallel() using parallelFor
+int BRWalletSignTransactionParallel(BRWallet *wallet, BRTransaction *tx, const void *seed, size_t seedLen,
+                                    void *parallelInfo, BRParallelFor parallelFor);
+
 // true if the given transaction is associated with the wallet (even if it hasn't been registered)
 int BRWalletContainsTransaction(BRWallet *wallet, const BRTransaction *tx);
 
@@ -179,12 +213,28 @@ uint64_t BRWalletFeeForTx(BRWallet *wallet, const BRTransaction *tx);
 // historical wallet balance after the given transaction, or current balance if transaction is not registered in wallet
 uint64_t BRWalletBalanceAfterTx(BRWallet *wallet, const BRTransaction *tx);
 
+// writes up to pointsCount points of the wallet's balance history over transactions with timestamps in
+// [startTime, endTime): the range is split into intervalCount equal intervals, and for each interval with transactions
+// the latest timestamp, the block height and the balance after its last transaction (in wallet order) are written
+// sets *startBalance, if not NULL, to the balance before the first transaction at or after startTime
+// either of timestamps or blockHeights may be NULL; returns the number of points written
+size_t BRWalletBalanceHistory(BRWallet *wallet, uint32_t startTime, uint32_t endTime, size_t intervalCount,
+                              uint32_t timestamps[], uint32_t blockHeights[], uint64_t balances[], size_t pointsCount,
+                              uint64_t *startBalance);
+
 // fee that will be added for a transaction of the given size in bytes
 uint64_t BRWalletFeeForTxSize(BRWallet *wallet, size_t size);
 
 // fee that will be added for a transaction of the given amount
 uint64_t BRWalletFeeForTxAmount(BRWallet *wallet, uint64_t amount);
 
+// for each amounts[i], writes to fees[i], sizes[i] and inCounts[i] the fee, vsize and input count of the transaction
+// BRWalletCreateTransaction() would create to send that amount to a P2PKH address at feePerKbs[i] (or at the wallet's
+// fee-per-kb if feePerKbs is NULL), or zeros if it would create none; no transactions are created
+// either of sizes or inCounts may be NULL
+void BRWalletFeeQuotes(BRWallet *wallet, const uint64_t amounts[], const uint64_t feePerKbs[], size_t count,
+                       uint64_t fees[], size_t sizes[], size_t inCounts[]);
+
 // outputs below this amount are uneconomical due to fees (TX_MIN_OUTPUT_AMOUNT is the absolute minimum output amount)
 uint64_t BRWalletMinOutputAmount(BRWallet *wallet);
 
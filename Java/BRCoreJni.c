@@ -21,7 +21,9 @@
 
 #include <jni.h>
 #include <BRTransaction.h>
+#include <stdlib.h>
 #include <assert.h>
+#include <pthread.h>
 #include "BRCoreJni.h"
 
 static JavaVM *jvm = NULL;
@@ -87,4 +89,109 @@ transactionOutputCopy (BRTxOutput *target,
     BRTxOutputSetScript(target, source->script, source->scriptLen);
 }
 
+extern jlongArray
+bitSetWords (JNIEnv *env,
+             const uint8_t *flags,
+             size_t count) {
+    size_t wordCount = (count + 63) / 64;
+    jlong *words = calloc (wordCount + 1, sizeof (jlong));
+    for (size_t index = 0; index < count; index++)
+        if (flags[index])
+            words[index / 64] |= ((jlong) 1) << (index % 64);
+
+    jlongArray result = (*env)->NewLongArray (env, (jsize) wordCount);
+    (*env)->SetLongArrayRegion (env, result, 0, (jsize) wordCount, words);
+
+    free (words);
+    return result;
+}
+
+
+
+//
+// Parallel
+//
+
+// Below this many items per thread, the thread isn't worth starting.
+#define PARALLEL_MINIMUM_PER_THREAD  (4)
+
+// Indices are handed out in chunks; about this many chunks per thread.
+#define PARALLEL_CHUNKS_PER_THREAD   (8)
+
+#define PARALLEL_MAXIMUM_THREADS     (64)
+
+typedef struct {
+    pthread_mutex_t lock;
+    size_t next;
+    size_t count;
+    size_t chunk;
+    void *context;
+    BRCoreParallelFunction function;
+} BRCoreParallelState;
+
+static void *
+parallelWorker (void *info) {
+    BRCoreParallelState *state = (BRCoreParallelState *) info;
+
+    while (1) {
+        pthread_mutex_lock(&state->lock);
+        size_t start = state->next;
+        size_t end = start + state->chunk < state->count ? start + state->chunk : state->count;
+        state->next = end;
+        pthread_mutex_unlock(&state->lock);
+
+        if (start >= end) break;
+
+        for (size_t index = start; index < end; index++)
+            state->function (state->context, index);
+    }
+    return NULL;
+}
+
+extern void
+parallelFor (size_t count,
+             int threadCount,
+             void *context,
+             BRCoreParallelFunction function) {
+    if (threadCount > PARALLEL_MAXIMUM_THREADS) threadCount = PARALLEL_MAXIMUM_THREADS;
+    if ((size_t) threadCount > count / PARALLEL_MINIMUM_PER_THREAD)
+        threadCount = (int) (count / PARALLEL_MINIMUM_PER_THREAD);
+
+    if (threadCount <= 1) {
+        for (size_t index = 0; index < count; index++)
+            function (context, index);
+        return;
+    }
+
+    BRCoreParallelState state;
+    pthread_mutex_init(&state.lock, NULL);
+    state.next = 0;
+    state.count = count;
+    state.chunk = count / ((size_t) threadCount * PARALLEL_CHUNKS_PER_THREAD);
+    if (0 == state.chunk) state.chunk = 1;
+    state.context = context;
+    state.function = function;
+
+    pthread_t threads[PARALLEL_MAXIMUM_THREADS];
+    int started = 0;
 
+    for (int i = 1; i < threadCount; i++)
+        if (0 == pthread_create(&threads[started], NULL, parallelWorker, &state))
+            started++;
+
+    // The calling thread works too; if no thread started it does everything.
+    parallelWorker(&state);
+
+    for (int i = 0; i < started; i++)
+        pthread_join(threads[i], NULL);
+
+    pthread_mutex_destroy(&state.lock);
+}
+
+extern void
+parallelForThreadCount (void *threadCount,
+                        size_t count,
+                        void *context,
+                        BRCoreParallelFunction function) {
+    parallelFor (count, (int) *(jint *) threadCount, context, function);
+}
@@ -58,4 +58,61 @@ extern void
 transactionOutputCopy (BRTxOutput *target,
                        const BRTxOutput *source);
 
+/**
+ * Pack `count` flags as the long[] words of java.util.BitSet.valueOf() - bit `i` is set if
+ * `flags[i]` is nonzero.
+ */
+extern jlongArray
+bitSetWords (JNIEnv *env,
+             const uint8_t *flags,
+             size_t count);
+
+//
+// Seed
+//
+typedef struct BRCoreSeedStruct BRCoreSeed;
+
+/**
+ * Copy the seed held by `seedObject` (a BRCoreSeed) into `result` unless the seed has been
+ * evicted, has expired or has been disposed.
+ *
+ * @param env
+ * @param seedObject
+ * @param result
+ * @return true if copied
+ */
+extern int
+seedCopy (JNIEnv *env, jobject seedObject, UInt512 *result);
+
+//
+// Parallel
+//
+typedef void (*BRCoreParallelFunction) (void *context, size_t index);
+
+/**
+ * Call `function(context, index)` for each index in [0, count), spread across up to
+ * `threadCount` threads - the calling thread being one of them.  Returns once every index is
+ * done.  The function runs on native threads, not attached to the JVM; it must not use JNI.
+ *
+ * @param count
+ * @param threadCount
+ * @param context
+ * @param function
+ */
+extern void
+parallelFor (size_t count,
+             int threadCount,
+             void *context,
+             BRCoreParallelFunction function);
+
+/**
+ * A BRParallelFor (see BRTransaction.h) over parallelFor() - `threadCount` points to the
+ * jint thread count.
+ */
+extern void
+parallelForThreadCount (void *threadCount,
+                        size_t count,
+                        void *context,
+                        BRCoreParallelFunction function);
+
 #endif //COREJNI_BRCOREJVM_H
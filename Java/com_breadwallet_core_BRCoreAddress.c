@@ -102,6 +102,62 @@ Java_com_breadwallet_core_BRCoreAddress_stringify
     return (*env)->NewStringUTF (env, address->s);
 }
 
+/*
+ * Class:     com_breadwallet_core_BRCoreAddress
+ * Method:    stringifyHash160s
+ * Signature: ([B)[Ljava/lang/String;
+ */
+JNIEXPORT jobjectArray JNICALL Java_com_breadwallet_core_BRCoreAddress_stringifyHash160s
+        (JNIEnv *env, jclass thisClass, jbyteArray hash160sByteArray) {
+    size_t count = (size_t) (*env)->GetArrayLength (env, hash160sByteArray) / sizeof (UInt160);
+    const uint8_t *hash160s = (const uint8_t *) (*env)->GetByteArrayElements (env, hash160sByteArray, 0);
+
+    jclass stringClass = (*env)->FindClass (env, "java/lang/String");
+    jobjectArray result = (*env)->NewObjectArray (env, (jsize) count, stringClass, NULL);
+
+    for (size_t index = 0; index < count; index++) {
+        BRAddress address = BR_ADDRESS_NONE;
+        BRAddressFromHash160 (address.s, sizeof (address.s), &hash160s[index * sizeof (UInt160)]);
+
+        jstring addressString = (*env)->NewStringUTF (env, address.s);
+        (*env)->SetObjectArrayElement (env, result, (jsize) index, addressString);
+        (*env)->DeleteLocalRef (env, addressString);
+    }
+
+    (*env)->ReleaseByteArrayElements (env, hash160sByteArray, (jbyte *) hash160s, JNI_ABORT);
+    return result;
+}
+
+/*
+ * Class:     com_breadwallet_core_BRCoreAddress
+ * Method:    hash160sOfAddresses
+ * Signature: ([Ljava/lang/String;)[B
+ */
+JNIEXPORT jbyteArray JNICALL Java_com_breadwallet_core_BRCoreAddress_hash160sOfAddresses
+        (JNIEnv *env, jclass thisClass, jobjectArray addressesArray) {
+    size_t count = (size_t) (*env)->GetArrayLength (env, addressesArray);
+    UInt160 *hash160s = calloc (count + 1, sizeof (UInt160));
+
+    for (size_t index = 0; index < count; index++) {
+        jstring addressString = (*env)->GetObjectArrayElement (env, addressesArray, (jsize) index);
+        if (NULL == addressString) continue;
+
+        const char *address = (*env)->GetStringUTFChars (env, addressString, NULL);
+        if (!BRAddressHash160 (&hash160s[index], address))
+            hash160s[index] = UINT160_ZERO;
+
+        (*env)->ReleaseStringUTFChars (env, addressString, address);
+        (*env)->DeleteLocalRef (env, addressString);
+    }
+
+    jbyteArray result = (*env)->NewByteArray (env, (jsize) (count * sizeof (UInt160)));
+    (*env)->SetByteArrayRegion (env, result, 0, (jsize) (count * sizeof (UInt160)),
+                                (const jbyte *) hash160s);
+
+    free (hash160s);
+    return result;
+}
+
 /*
  * Class:     com_breadwallet_core_BRCoreAddress
  * Method:    isValid
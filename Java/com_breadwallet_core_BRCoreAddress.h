@@ -39,6 +39,22 @@ JNIEXPORT jlong JNICALL Java_com_breadwallet_core_BRCoreAddress_createCoreAddres
 JNIEXPORT jstring JNICALL Java_com_breadwallet_core_BRCoreAddress_stringify
   (JNIEnv *, jobject);
 
+/*
+ * Class:     com_breadwallet_core_BRCoreAddress
+ * Method:    stringifyHash160s
+ * Signature: ([B)[Ljava/lang/String;
+ */
+JNIEXPORT jobjectArray JNICALL Java_com_breadwallet_core_BRCoreAddress_stringifyHash160s
+  (JNIEnv *, jclass, jbyteArray);
+
+/*
+ * Class:     com_breadwallet_core_BRCoreAddress
+ * Method:    hash160sOfAddresses
+ * Signature: ([Ljava/lang/String;)[B
+ */
+JNIEXPORT jbyteArray JNICALL Java_com_breadwallet_core_BRCoreAddress_hash160sOfAddresses
+  (JNIEnv *, jclass, jobjectArray);
+
 /*
  * Class:     com_breadwallet_core_BRCoreAddress
  * Method:    isValid
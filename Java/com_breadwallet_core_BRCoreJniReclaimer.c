@@ -0,0 +1,111 @@
+//  Created by Ed Gamble on 1/23/2018
+//  Copyright (c) 2018 breadwallet LLC.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files (the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions:
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+
+
+#include "BRCoreJni.h"
+#include "com_breadwallet_core_BRCoreJniReclaimer.h"
+
+// Distinct classes in one batch; there are only a handful of BRCoreJniReference subclasses
+#define RECLAIM_CLASS_CACHE_SIZE 16
+
+typedef struct {
+    jclass referenceClass;
+    jobject shell;
+    jfieldID addressField;
+    jmethodID disposeMethod;
+} ReclaimClassEntry;
+
+/*
+ * Class:     com_breadwallet_core_BRCoreJniReclaimer
+ * Method:    disposeNativeReferences
+ * Signature: ([Ljava/lang/Class;[JI)V
+ */
+JNIEXPORT void JNICALL
+Java_com_breadwallet_core_BRCoreJniReclaimer_disposeNativeReferences
+        (JNIEnv *env, jclass thisClass, jobjectArray classesArray, jlongArray addressesArray, jint count) {
+    ReclaimClassEntry entries[RECLAIM_CLASS_CACHE_SIZE];
+    size_t entriesCount = 0;
+    jthrowable firstException = NULL;
+
+    jlong *addresses = (*env)->GetLongArrayElements (env, addressesArray, 0);
+    if (NULL == addresses) return; // OutOfMemoryError pending
+
+    for (jint index = 0; index < count; index++) {
+        if (0 == addresses[index]) continue;
+
+        jclass referenceClass = (*env)->GetObjectArrayElement (env, classesArray, index);
+        ReclaimClassEntry *entry = NULL;
+
+        for (size_t i = 0; NULL == entry && i < entriesCount; i++)
+            if ((*env)->IsSameObject (env, referenceClass, entries[i].referenceClass))
+                entry = &entries[i];
+
+        if (NULL != entry) (*env)->DeleteLocalRef (env, referenceClass);
+        else {
+            // Recycle the last entry once the cache is full
+            if (entriesCount == RECLAIM_CLASS_CACHE_SIZE) {
+                entry = &entries[--entriesCount];
+                if (NULL != entry->shell) (*env)->DeleteLocalRef (env, entry->shell);
+                (*env)->DeleteLocalRef (env, entry->referenceClass);
+            }
+            entry = &entries[entriesCount++];
+
+            // The original Java objects are gone (or about to be).  Allocate one uninitialized
+            // shell per class - no constructor runs, so the shell is not itself registered for
+            // reclamation - and, for each address, let the class' own disposeNative() free the
+            // Core memory through it.  A class without a shell (NoSuch{Field,Method}Error or
+            // OutOfMemoryError) stays cached, so its other addresses are skipped.
+            entry->referenceClass = referenceClass;
+            entry->shell = NULL;
+            entry->addressField = (*env)->GetFieldID (env, referenceClass, "jniReferenceAddress", "J");
+            entry->disposeMethod = (NULL == entry->addressField ? NULL
+                                    : (*env)->GetMethodID (env, referenceClass, "disposeNative", "()V"));
+            if (NULL != entry->disposeMethod)
+                entry->shell = (*env)->AllocObject (env, referenceClass);
+        }
+
+        if (NULL != entry->shell) {
+            (*env)->SetLongField (env, entry->shell, entry->addressField, addresses[index]);
+            (*env)->CallVoidMethod (env, entry->shell, entry->disposeMethod);
+        }
+
+        // Keep the first exception, rethrown once every other address has been tried
+        if ((*env)->ExceptionCheck (env)) {
+            jthrowable exception = (*env)->ExceptionOccurred (env);
+            (*env)->ExceptionClear (env);
+            if (NULL == firstException) firstException = exception;
+            else (*env)->DeleteLocalRef (env, exception);
+        }
+        else if (NULL != entry->shell)
+            addresses[index] = 0; // disposed
+    }
+
+    for (size_t i = 0; i < entriesCount; i++) {
+        if (NULL != entries[i].shell) (*env)->DeleteLocalRef (env, entries[i].shell);
+        (*env)->DeleteLocalRef (env, entries[i].referenceClass);
+    }
+
+    // Copy back the zeroed addresses of those disposed
+    (*env)->ReleaseLongArrayElements (env, addressesArray, addresses, 0);
+
+    if (NULL != firstException)
+        (*env)->Throw (env, firstException);
+}
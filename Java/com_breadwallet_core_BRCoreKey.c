@@ -760,3 +760,162 @@ Java_com_breadwallet_core_BRCoreKey_verify
                        ? JNI_TRUE
                        : JNI_FALSE);
 }
+
+typedef struct {
+    const uint8_t *pubKeys;
+    const jint *pubKeyOffsets;
+    const uint8_t *digests;
+    const uint8_t *signatures;
+    const jint *signatureOffsets;
+    uint8_t *results;
+} BRCoreKeyVerifyBatch;
+
+static void
+verifyBatchItem (void *context, size_t index) {
+    BRCoreKeyVerifyBatch *batch = (BRCoreKeyVerifyBatch *) context;
+
+    size_t pubKeyLen = (size_t) (batch->pubKeyOffsets[index + 1] - batch->pubKeyOffsets[index]);
+    size_t signatureLen = (size_t) (batch->signatureOffsets[index + 1] - batch->signatureOffsets[index]);
+
+    BRKey key;
+    batch->results[index] = (uint8_t) ((33 == pubKeyLen || 65 == pubKeyLen)
+                                       && signatureLen > 0
+                                       && BRKeySetPubKey(&key, &batch->pubKeys[batch->pubKeyOffsets[index]], pubKeyLen)
+                                       && BRKeyVerify(&key,
+                                                      UInt256Get(&batch->digests[32 * index]),
+                                                      &batch->signatures[batch->signatureOffsets[index]],
+                                                      signatureLen));
+}
+
+/*
+ * Class:     com_breadwallet_core_BRCoreKey
+ * Method:    jniVerifyBatch
+ * Signature: ([B[I[B[B[II)[J
+ */
+JNIEXPORT jlongArray JNICALL Java_com_breadwallet_core_BRCoreKey_jniVerifyBatch
+        (JNIEnv *env, jclass thisClass,
+         jbyteArray pubKeysByteArray,
+         jintArray pubKeyOffsetsArray,
+         jbyteArray digestsByteArray,
+         jbyteArray signaturesByteArray,
+         jintArray signatureOffsetsArray,
+         jint threadCount) {
+    size_t count = (size_t) (*env)->GetArrayLength(env, pubKeyOffsetsArray) - 1;
+
+    BRCoreKeyVerifyBatch batch;
+    batch.pubKeys = (const uint8_t *) (*env)->GetByteArrayElements(env, pubKeysByteArray, 0);
+    batch.pubKeyOffsets = (*env)->GetIntArrayElements(env, pubKeyOffsetsArray, 0);
+    batch.digests = (const uint8_t *) (*env)->GetByteArrayElements(env, digestsByteArray, 0);
+    batch.signatures = (const uint8_t *) (*env)->GetByteArrayElements(env, signaturesByteArray, 0);
+    batch.signatureOffsets = (*env)->GetIntArrayElements(env, signatureOffsetsArray, 0);
+    batch.results = calloc (count + 1, sizeof (uint8_t));
+
+    parallelFor (count, threadCount, &batch, verifyBatchItem);
+
+    jlongArray result = bitSetWords (env, batch.results, count);
+
+    free (batch.results);
+    (*env)->ReleaseIntArrayElements(env, signatureOffsetsArray, (jint *) batch.signatureOffsets, JNI_ABORT);
+    (*env)->ReleaseByteArrayElements(env, signaturesByteArray, (jbyte *) batch.signatures, JNI_ABORT);
+    (*env)->ReleaseByteArrayElements(env, digestsByteArray, (jbyte *) batch.digests, JNI_ABORT);
+    (*env)->ReleaseIntArrayElements(env, pubKeyOffsetsArray, (jint *) batch.pubKeyOffsets, JNI_ABORT);
+    (*env)->ReleaseByteArrayElements(env, pubKeysByteArray, (jbyte *) batch.pubKeys, JNI_ABORT);
+
+    return result;
+}
+
+typedef struct {
+    BRKey *key;
+    const uint8_t *digests;
+    const uint8_t *signatures;
+    uint8_t *results;
+    size_t resultSize;
+    int compressed;
+} BRCoreKeyCompactBatch;
+
+static void
+compactSignBatchItem (void *context, size_t index) {
+    BRCoreKeyCompactBatch *batch = (BRCoreKeyCompactBatch *) context;
+
+    BRKeyCompactSign(batch->key, &batch->results[65 * index], 65,
+                     UInt256Get(&batch->digests[32 * index]));
+}
+
+static void
+compactRecoverBatchItem (void *context, size_t index) {
+    BRCoreKeyCompactBatch *batch = (BRCoreKeyCompactBatch *) context;
+
+    // The header byte selects the recovered format; rewrite it to the requested one.
+    uint8_t signature[65];
+    memcpy (signature, &batch->signatures[65 * index], 65);
+    if (signature[0] < 27 || signature[0] >= 35) return;
+    signature[0] = (uint8_t) (27 + (signature[0] - 27) % 4 + (batch->compressed ? 4 : 0));
+
+    BRKey key;
+    if (BRKeyRecoverPubKey(&key, UInt256Get(&batch->digests[32 * index]), signature, 65))
+        BRKeyPubKey(&key, &batch->results[batch->resultSize * index], batch->resultSize);
+}
+
+/*
+ * Class:     com_breadwallet_core_BRCoreKey
+ * Method:    jniCompactSignBatch
+ * Signature: ([BI)[B
+ */
+JNIEXPORT jbyteArray JNICALL Java_com_breadwallet_core_BRCoreKey_jniCompactSignBatch
+        (JNIEnv *env, jobject thisObject,
+         jbyteArray digestsByteArray,
+         jint threadCount) {
+    size_t count = (size_t) (*env)->GetArrayLength(env, digestsByteArray) / 32;
+
+    BRCoreKeyCompactBatch batch;
+    batch.key = (BRKey *) getJNIReference(env, thisObject);
+    batch.digests = (const uint8_t *) (*env)->GetByteArrayElements(env, digestsByteArray, 0);
+    batch.signatures = NULL;
+    batch.resultSize = 65;
+    batch.results = calloc (count * batch.resultSize + 1, sizeof (uint8_t));
+
+    parallelFor (count, threadCount, &batch, compactSignBatchItem);
+
+    jbyteArray result = (*env)->NewByteArray (env, (jsize) (count * batch.resultSize));
+    (*env)->SetByteArrayRegion (env, result, 0, (jsize) (count * batch.resultSize),
+                                (const jbyte *) batch.results);
+
+    free (batch.results);
+    (*env)->ReleaseByteArrayElements(env, digestsByteArray, (jbyte *) batch.digests, JNI_ABORT);
+
+    return result;
+}
+
+/*
+ * Class:     com_breadwallet_core_BRCoreKey
+ * Method:    jniCompactRecoverBatch
+ * Signature: ([B[BZI)[B
+ */
+JNIEXPORT jbyteArray JNICALL Java_com_breadwallet_core_BRCoreKey_jniCompactRecoverBatch
+        (JNIEnv *env, jclass thisClass,
+         jbyteArray digestsByteArray,
+         jbyteArray signaturesByteArray,
+         jboolean compressed,
+         jint threadCount) {
+    size_t count = (size_t) (*env)->GetArrayLength(env, digestsByteArray) / 32;
+
+    BRCoreKeyCompactBatch batch;
+    batch.key = NULL;
+    batch.digests = (const uint8_t *) (*env)->GetByteArrayElements(env, digestsByteArray, 0);
+    batch.signatures = (const uint8_t *) (*env)->GetByteArrayElements(env, signaturesByteArray, 0);
+    batch.compressed = JNI_TRUE == compressed;
+    batch.resultSize = batch.compressed ? 33 : 65;
+    batch.results = calloc (count * batch.resultSize + 1, sizeof (uint8_t));
+
+    parallelFor (count, threadCount, &batch, compactRecoverBatchItem);
+
+    jbyteArray result = (*env)->NewByteArray (env, (jsize) (count * batch.resultSize));
+    (*env)->SetByteArrayRegion (env, result, 0, (jsize) (count * batch.resultSize),
+                                (const jbyte *) batch.results);
+
+    free (batch.results);
+    (*env)->ReleaseByteArrayElements(env, signaturesByteArray, (jbyte *) batch.signatures, JNI_ABORT);
+    (*env)->ReleaseByteArrayElements(env, digestsByteArray, (jbyte *) batch.digests, JNI_ABORT);
+
+    return result;
+}
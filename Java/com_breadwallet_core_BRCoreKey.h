@@ -239,6 +239,30 @@ JNIEXPORT jbyteArray JNICALL Java_com_breadwallet_core_BRCoreKey_sign
 JNIEXPORT jboolean JNICALL Java_com_breadwallet_core_BRCoreKey_verify
   (JNIEnv *, jobject, jbyteArray, jbyteArray);
 
+/*
+ * Class:     com_breadwallet_core_BRCoreKey
+ * Method:    jniVerifyBatch
+ * Signature: ([B[I[B[B[II)[J
+ */
+JNIEXPORT jlongArray JNICALL Java_com_breadwallet_core_BRCoreKey_jniVerifyBatch
+  (JNIEnv *, jclass, jbyteArray, jintArray, jbyteArray, jbyteArray, jintArray, jint);
+
+/*
+ * Class:     com_breadwallet_core_BRCoreKey
+ * Method:    jniCompactSignBatch
+ * Signature: ([BI)[B
+ */
+JNIEXPORT jbyteArray JNICALL Java_com_breadwallet_core_BRCoreKey_jniCompactSignBatch
+  (JNIEnv *, jobject, jbyteArray, jint);
+
+/*
+ * Class:     com_breadwallet_core_BRCoreKey
+ * Method:    jniCompactRecoverBatch
+ * Signature: ([B[BZI)[B
+ */
+JNIEXPORT jbyteArray JNICALL Java_com_breadwallet_core_BRCoreKey_jniCompactRecoverBatch
+  (JNIEnv *, jclass, jbyteArray, jbyteArray, jboolean, jint);
+
 #ifdef __cplusplus
 }
 #endif
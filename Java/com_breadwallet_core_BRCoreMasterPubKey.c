@@ -26,6 +26,7 @@
 #include <assert.h>
 #include "BRBIP39Mnemonic.h"
 #include "BRBIP32Sequence.h"
+#include "BRCrypto.h"
 #include "BRCoreJni.h"
 #include "com_breadwallet_core_BRCoreMasterPubKey.h"
 
@@ -82,6 +83,67 @@ Java_com_breadwallet_core_BRCoreMasterPubKey_createPubKey
     return (jlong) key;
 }
 
+// Indices per parallel work item; each item derives N(m/0H/chain) once.
+#define DERIVE_BLOCK_SIZE   (256)
+
+typedef struct {
+    BRMasterPubKey mpk;
+    uint32_t chain;
+    uint32_t startIndex;
+    size_t count;
+    uint8_t *hash160s;
+} BRCoreMasterPubKeyDerivation;
+
+static void
+deriveHash160sBlock (void *context, size_t block) {
+    BRCoreMasterPubKeyDerivation *derivation = (BRCoreMasterPubKeyDerivation *) context;
+
+    size_t start = block * DERIVE_BLOCK_SIZE;
+    size_t count = derivation->count - start < DERIVE_BLOCK_SIZE
+                   ? derivation->count - start
+                   : DERIVE_BLOCK_SIZE;
+
+    BRECPoint pubKeys[DERIVE_BLOCK_SIZE];
+    BRBIP32PubKeyList ((uint8_t *) pubKeys, count, derivation->mpk, derivation->chain,
+                       derivation->startIndex + (uint32_t) start);
+
+    for (size_t index = 0; index < count; index++)
+        BRHash160 (&derivation->hash160s[(start + index) * sizeof (UInt160)],
+                   pubKeys[index].p, sizeof (pubKeys[index].p));
+}
+
+/*
+ * Class:     com_breadwallet_core_BRCoreMasterPubKey
+ * Method:    jniDeriveHash160s
+ * Signature: (IIII)[B
+ */
+JNIEXPORT jbyteArray JNICALL
+Java_com_breadwallet_core_BRCoreMasterPubKey_jniDeriveHash160s
+        (JNIEnv *env, jobject thisObject,
+         jint chain,
+         jint startIndex,
+         jint count,
+         jint threadCount) {
+    BRMasterPubKey *mpk = (BRMasterPubKey *) getJNIReference (env, thisObject);
+
+    BRCoreMasterPubKeyDerivation derivation;
+    derivation.mpk = *mpk;
+    derivation.chain = (uint32_t) chain;
+    derivation.startIndex = (uint32_t) startIndex;
+    derivation.count = (size_t) count;
+    derivation.hash160s = calloc (derivation.count * sizeof (UInt160) + 1, sizeof (uint8_t));
+
+    parallelFor ((derivation.count + DERIVE_BLOCK_SIZE - 1) / DERIVE_BLOCK_SIZE, threadCount,
+                 &derivation, deriveHash160sBlock);
+
+    jbyteArray result = (*env)->NewByteArray (env, (jsize) (derivation.count * sizeof (UInt160)));
+    (*env)->SetByteArrayRegion (env, result, 0, (jsize) (derivation.count * sizeof (UInt160)),
+                                (const jbyte *) derivation.hash160s);
+
+    free (derivation.hash160s);
+    return result;
+}
+
 JNIEXPORT jlong JNICALL
 Java_com_breadwallet_core_BRCoreMasterPubKey_createJniCoreMasterPubKeyFromPhrase
         (JNIEnv *env, jclass thisClass,
@@ -31,6 +31,14 @@ JNIEXPORT jbyteArray JNICALL Java_com_breadwallet_core_BRCoreMasterPubKey_getPub
 JNIEXPORT jlong JNICALL Java_com_breadwallet_core_BRCoreMasterPubKey_createPubKey
   (JNIEnv *, jobject);
 
+/*
+ * Class:     com_breadwallet_core_BRCoreMasterPubKey
+ * Method:    jniDeriveHash160s
+ * Signature: (IIII)[B
+ */
+JNIEXPORT jbyteArray JNICALL Java_com_breadwallet_core_BRCoreMasterPubKey_jniDeriveHash160s
+  (JNIEnv *, jobject, jint, jint, jint, jint);
+
 /*
  * Class:     com_breadwallet_core_BRCoreMasterPubKey
  * Method:    createJniCoreMasterPubKeyFromPhrase
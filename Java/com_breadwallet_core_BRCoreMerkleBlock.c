@@ -41,7 +41,9 @@ Java_com_breadwallet_core_BRCoreMerkleBlock_createJniCoreMerkleBlock
 
     assert (NULL != blockBytes);
     BRMerkleBlock *block = BRMerkleBlockParse((const uint8_t *) blockBytes, (size_t) blockLength);
-    assert (NULL != block);
+    (*env)->ReleaseByteArrayElements(env, blockArray, blockBytes, JNI_ABORT);
+    if (NULL == block) return (jlong) NULL;
+
     if (blockHeight != -1)
         block->height = (uint32_t) blockHeight;
 
@@ -61,6 +63,30 @@ JNIEXPORT jlong JNICALL Java_com_breadwallet_core_BRCoreMerkleBlock_createJniCor
     return (jlong) block;
 }
 
+/*
+ * Class:     com_breadwallet_core_BRCoreMerkleBlock
+ * Method:    createJniCoreMerkleBlockFromBuffer
+ * Signature: (Ljava/nio/ByteBuffer;III)J
+ */
+JNIEXPORT jlong JNICALL
+Java_com_breadwallet_core_BRCoreMerkleBlock_createJniCoreMerkleBlockFromBuffer
+        (JNIEnv *env, jclass thisClass,
+         jobject bufferObject,
+         jint offset,
+         jint length,
+         jint blockHeight) {
+    const uint8_t *bufferBytes = (const uint8_t *) (*env)->GetDirectBufferAddress (env, bufferObject);
+    if (NULL == bufferBytes) return (jlong) NULL;
+
+    BRMerkleBlock *block = BRMerkleBlockParse(&bufferBytes[offset], (size_t) length);
+    if (NULL == block) return (jlong) NULL;
+
+    if (blockHeight != -1)
+        block->height = (uint32_t) blockHeight;
+
+    return (jlong) block;
+}
+
 
 /*
  * Class:     com_breadwallet_core_BRCoreMerkleBlock
@@ -207,6 +233,35 @@ JNIEXPORT jbyteArray JNICALL Java_com_breadwallet_core_BRCoreMerkleBlock_seriali
 }
 
 
+/*
+ * Class:     com_breadwallet_core_BRCoreMerkleBlock
+ * Method:    getSerializedSize
+ * Signature: ()J
+ */
+JNIEXPORT jlong JNICALL Java_com_breadwallet_core_BRCoreMerkleBlock_getSerializedSize
+        (JNIEnv *env, jobject thisObject) {
+    BRMerkleBlock *block = (BRMerkleBlock *) getJNIReference(env, thisObject);
+    return (jlong) BRMerkleBlockSerialize(block, NULL, 0);
+}
+
+/*
+ * Class:     com_breadwallet_core_BRCoreMerkleBlock
+ * Method:    jniSerializeToBuffer
+ * Signature: (Ljava/nio/ByteBuffer;II)I
+ */
+JNIEXPORT jint JNICALL Java_com_breadwallet_core_BRCoreMerkleBlock_jniSerializeToBuffer
+        (JNIEnv *env, jobject thisObject, jobject bufferObject, jint offset, jint length) {
+    BRMerkleBlock *block = (BRMerkleBlock *) getJNIReference(env, thisObject);
+    uint8_t *bufferBytes = (uint8_t *) (*env)->GetDirectBufferAddress (env, bufferObject);
+    assert (NULL != bufferBytes);
+
+    size_t blockSize = BRMerkleBlockSerialize(block, NULL, 0);
+    if (blockSize <= (size_t) length)
+        BRMerkleBlockSerialize(block, &bufferBytes[offset], blockSize);
+
+    return (jint) blockSize;
+}
+
 /*
  * Class:     com_breadwallet_core_BRCoreMerkleBlock
  * Method:    isValid
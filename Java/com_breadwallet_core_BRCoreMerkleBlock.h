@@ -23,6 +23,14 @@ JNIEXPORT jlong JNICALL Java_com_breadwallet_core_BRCoreMerkleBlock_createJniCor
 JNIEXPORT jlong JNICALL Java_com_breadwallet_core_BRCoreMerkleBlock_createJniCoreMerkleBlockEmpty
   (JNIEnv *, jclass);
 
+/*
+ * Class:     com_breadwallet_core_BRCoreMerkleBlock
+ * Method:    createJniCoreMerkleBlockFromBuffer
+ * Signature: (Ljava/nio/ByteBuffer;III)J
+ */
+JNIEXPORT jlong JNICALL Java_com_breadwallet_core_BRCoreMerkleBlock_createJniCoreMerkleBlockFromBuffer
+  (JNIEnv *, jclass, jobject, jint, jint, jint);
+
 /*
  * Class:     com_breadwallet_core_BRCoreMerkleBlock
  * Method:    getBlockHash
@@ -103,6 +111,22 @@ JNIEXPORT jlong JNICALL Java_com_breadwallet_core_BRCoreMerkleBlock_getHeight
 JNIEXPORT jbyteArray JNICALL Java_com_breadwallet_core_BRCoreMerkleBlock_serialize
   (JNIEnv *, jobject);
 
+/*
+ * Class:     com_breadwallet_core_BRCoreMerkleBlock
+ * Method:    getSerializedSize
+ * Signature: ()J
+ */
+JNIEXPORT jlong JNICALL Java_com_breadwallet_core_BRCoreMerkleBlock_getSerializedSize
+  (JNIEnv *, jobject);
+
+/*
+ * Class:     com_breadwallet_core_BRCoreMerkleBlock
+ * Method:    jniSerializeToBuffer
+ * Signature: (Ljava/nio/ByteBuffer;II)I
+ */
+JNIEXPORT jint JNICALL Java_com_breadwallet_core_BRCoreMerkleBlock_jniSerializeToBuffer
+  (JNIEnv *, jobject, jobject, jint, jint);
+
 /*
  * Class:     com_breadwallet_core_BRCoreMerkleBlock
  * Method:    isValid
@@ -62,6 +62,9 @@ static jmethodID blockConstructor;
 static jclass peerClass;
 static jmethodID peerConstructor;
 
+static jclass connectedPeerClass;
+static jmethodID connectedPeerConstructor;
+
 /*
  * Class:     com_breadwallet_core_BRCorePeerManager
  * Method:    getConnectStatusValue
@@ -130,6 +133,77 @@ Java_com_breadwallet_core_BRCorePeerManager_getCurrentPeerName
     return (*env)->NewStringUTF (env, BRPeerManagerDownloadPeerName(peerManager));
 }
 
+/*
+ * Class:     com_breadwallet_core_BRCorePeerManager
+ * Method:    getWalletCount
+ * Signature: ()I
+ */
+JNIEXPORT jint JNICALL
+Java_com_breadwallet_core_BRCorePeerManager_getWalletCount
+        (JNIEnv *env, jobject thisObject) {
+    BRPeerManager *peerManager = (BRPeerManager *) getJNIReference(env, thisObject);
+    return (jint) BRPeerManagerWalletCount(peerManager);
+}
+
+/*
+ * Class:     com_breadwallet_core_BRCorePeerManager
+ * Method:    jniAddWallet
+ * Signature: (Lcom/breadwallet/core/BRCoreWallet;J)V
+ */
+JNIEXPORT void JNICALL
+Java_com_breadwallet_core_BRCorePeerManager_jniAddWallet
+        (JNIEnv *env, jobject thisObject, jobject objWallet, jlong earliestKeyTime) {
+    BRPeerManager *peerManager = (BRPeerManager *) getJNIReference(env, thisObject);
+    BRWallet *wallet = (BRWallet *) getJNIReference(env, objWallet);
+    BRPeerManagerAddWallet(peerManager, wallet, (uint32_t) earliestKeyTime);
+}
+
+/*
+ * Class:     com_breadwallet_core_BRCorePeerManager
+ * Method:    jniRemoveWallet
+ * Signature: (Lcom/breadwallet/core/BRCoreWallet;)V
+ */
+JNIEXPORT void JNICALL
+Java_com_breadwallet_core_BRCorePeerManager_jniRemoveWallet
+        (JNIEnv *env, jobject thisObject, jobject objWallet) {
+    BRPeerManager *peerManager = (BRPeerManager *) getJNIReference(env, thisObject);
+    BRWallet *wallet = (BRWallet *) getJNIReference(env, objWallet);
+    BRPeerManagerRemoveWallet(peerManager, wallet);
+}
+
+/*
+ * Class:     com_breadwallet_core_BRCorePeerManager
+ * Method:    jniSetFilterPolicy
+ * Signature: (DDJ)V
+ */
+JNIEXPORT void JNICALL
+Java_com_breadwallet_core_BRCorePeerManager_jniSetFilterPolicy
+        (JNIEnv *env, jobject thisObject, jdouble fpRate, jdouble rebuildFactor, jlong tweak) {
+    BRPeerManager *peerManager = (BRPeerManager *) getJNIReference(env, thisObject);
+    BRPeerManagerSetFilterPolicy(peerManager, fpRate, rebuildFactor, (uint32_t) tweak);
+}
+
+/*
+ * Class:     com_breadwallet_core_BRCorePeerManager
+ * Method:    jniGetFilterStats
+ * Signature: ([D[J)V
+ */
+JNIEXPORT void JNICALL
+Java_com_breadwallet_core_BRCorePeerManager_jniGetFilterStats
+        (JNIEnv *env, jobject thisObject, jdoubleArray ratesArray, jlongArray countsArray) {
+    BRPeerManager *peerManager = (BRPeerManager *) getJNIReference(env, thisObject);
+    BRPeerManagerFilterStats stats = BRPeerManagerFilterStatistics(peerManager);
+
+    jdouble rates[] = { stats.fpRate, stats.rebuildFactor, stats.observedFpRate };
+    jlong counts[] = {
+            stats.tweak, (jlong) stats.length, stats.hashFuncs, (jlong) stats.elemCount,
+            stats.loadCount, (jlong) stats.txCount, (jlong) stats.walletTxCount
+    };
+
+    (*env)->SetDoubleArrayRegion (env, ratesArray, 0, 3, rates);
+    (*env)->SetLongArrayRegion (env, countsArray, 0, 7, counts);
+}
+
 /*
  * Class:     com_breadwallet_core_BRCorePeerManager
  * Method:    jniDisconnect
@@ -236,6 +310,81 @@ JNIEXPORT jint JNICALL
     return BRPeerManagerPeerCount (peerManager);
 }
 
+/*
+ * Class:     com_breadwallet_core_BRCorePeerManager
+ * Method:    getConnectedPeers
+ * Signature: ()[Lcom/breadwallet/core/BRCorePeerManager$ConnectedPeer;
+ */
+JNIEXPORT jobjectArray JNICALL
+Java_com_breadwallet_core_BRCorePeerManager_getConnectedPeers
+        (JNIEnv *env, jobject thisObject) {
+    BRPeerManager *peerManager = (BRPeerManager *) getJNIReference(env, thisObject);
+
+    size_t peersCount = BRPeerManagerConnectedPeers (peerManager, NULL, NULL, NULL, 0);
+    BRPeer   *peers      = (BRPeer *)   calloc (peersCount, sizeof (BRPeer));
+    double   *pingTimes  = (double *)   calloc (peersCount, sizeof (double));
+    uint32_t *lastBlocks = (uint32_t *) calloc (peersCount, sizeof (uint32_t));
+    peersCount = BRPeerManagerConnectedPeers (peerManager, peers, pingTimes, lastBlocks, peersCount);
+
+    jobjectArray connectedPeerArray = (*env)->NewObjectArray (env, peersCount, connectedPeerClass, 0);
+
+    for (int index = 0; index < peersCount; index++) {
+        BRPeer *peer = (BRPeer *) malloc (sizeof (BRPeer));
+        *peer = peers[index];
+
+        jobject peerObject =
+                (*env)->NewObject (env, peerClass, peerConstructor, (jlong) peer);
+
+        jobject connectedPeerObject =
+                (*env)->NewObject (env, connectedPeerClass, connectedPeerConstructor,
+                                   peerObject,
+                                   (jdouble) pingTimes[index],
+                                   (jlong) lastBlocks[index]);
+
+        (*env)->SetObjectArrayElement (env, connectedPeerArray, index, connectedPeerObject);
+        (*env)->DeleteLocalRef (env, connectedPeerObject);
+        (*env)->DeleteLocalRef (env, peerObject);
+    }
+
+    free (lastBlocks);
+    free (pingTimes);
+    free (peers);
+
+    return connectedPeerArray;
+}
+
+/*
+ * Class:     com_breadwallet_core_BRCorePeerManager
+ * Method:    getFailedPeers
+ * Signature: ()[Lcom/breadwallet/core/BRCorePeer;
+ */
+JNIEXPORT jobjectArray JNICALL
+Java_com_breadwallet_core_BRCorePeerManager_getFailedPeers
+        (JNIEnv *env, jobject thisObject) {
+    BRPeerManager *peerManager = (BRPeerManager *) getJNIReference(env, thisObject);
+
+    size_t peersCount = BRPeerManagerFailedPeers (peerManager, NULL, 0);
+    BRPeer *peers = (BRPeer *) calloc (peersCount, sizeof (BRPeer));
+    peersCount = BRPeerManagerFailedPeers (peerManager, peers, peersCount);
+
+    jobjectArray peerArray = (*env)->NewObjectArray (env, peersCount, peerClass, 0);
+
+    for (int index = 0; index < peersCount; index++) {
+        BRPeer *peer = (BRPeer *) malloc (sizeof (BRPeer));
+        *peer = peers[index];
+
+        jobject peerObject =
+                (*env)->NewObject (env, peerClass, peerConstructor, (jlong) peer);
+
+        (*env)->SetObjectArrayElement (env, peerArray, index, peerObject);
+        (*env)->DeleteLocalRef (env, peerObject);
+    }
+
+    free (peers);
+
+    return peerArray;
+}
+
 /*
  * Class:     com_breadwallet_core_BRCorePeerManager
  * Method:    getDownloadPeerName
@@ -472,6 +621,14 @@ JNIEXPORT void JNICALL Java_com_breadwallet_core_BRCorePeerManager_initializeNat
 
     peerConstructor = (*env)->GetMethodID(env, peerClass, "<init>", "(J)V");
     assert (NULL != peerConstructor);
+
+    connectedPeerClass = (*env)->FindClass(env, "com/breadwallet/core/BRCorePeerManager$ConnectedPeer");
+    assert (NULL != connectedPeerClass);
+    connectedPeerClass = (*env)->NewGlobalRef (env, connectedPeerClass);
+
+    connectedPeerConstructor = (*env)->GetMethodID(env, connectedPeerClass, "<init>",
+                                                   "(Lcom/breadwallet/core/BRCorePeer;DJ)V");
+    assert (NULL != connectedPeerConstructor);
 }
 
 //
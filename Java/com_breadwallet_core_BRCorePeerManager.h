@@ -39,6 +39,46 @@ JNIEXPORT jboolean JNICALL Java_com_breadwallet_core_BRCorePeerManager_jniUseFix
 JNIEXPORT jstring JNICALL Java_com_breadwallet_core_BRCorePeerManager_getCurrentPeerName
   (JNIEnv *, jobject);
 
+/*
+ * Class:     com_breadwallet_core_BRCorePeerManager
+ * Method:    getWalletCount
+ * Signature: ()I
+ */
+JNIEXPORT jint JNICALL Java_com_breadwallet_core_BRCorePeerManager_getWalletCount
+  (JNIEnv *, jobject);
+
+/*
+ * Class:     com_breadwallet_core_BRCorePeerManager
+ * Method:    jniAddWallet
+ * Signature: (Lcom/breadwallet/core/BRCoreWallet;J)V
+ */
+JNIEXPORT void JNICALL Java_com_breadwallet_core_BRCorePeerManager_jniAddWallet
+  (JNIEnv *, jobject, jobject, jlong);
+
+/*
+ * Class:     com_breadwallet_core_BRCorePeerManager
+ * Method:    jniRemoveWallet
+ * Signature: (Lcom/breadwallet/core/BRCoreWallet;)V
+ */
+JNIEXPORT void JNICALL Java_com_breadwallet_core_BRCorePeerManager_jniRemoveWallet
+  (JNIEnv *, jobject, jobject);
+
+/*
+ * Class:     com_breadwallet_core_BRCorePeerManager
+ * Method:    jniSetFilterPolicy
+ * Signature: (DDJ)V
+ */
+JNIEXPORT void JNICALL Java_com_breadwallet_core_BRCorePeerManager_jniSetFilterPolicy
+  (JNIEnv *, jobject, jdouble, jdouble, jlong);
+
+/*
+ * Class:     com_breadwallet_core_BRCorePeerManager
+ * Method:    jniGetFilterStats
+ * Signature: ([D[J)V
+ */
+JNIEXPORT void JNICALL Java_com_breadwallet_core_BRCorePeerManager_jniGetFilterStats
+  (JNIEnv *, jobject, jdoubleArray, jlongArray);
+
 /*
  * Class:     com_breadwallet_core_BRCorePeerManager
  * Method:    disconnect
@@ -111,6 +151,22 @@ JNIEXPORT jdouble JNICALL Java_com_breadwallet_core_BRCorePeerManager_getSyncPro
 JNIEXPORT jint JNICALL Java_com_breadwallet_core_BRCorePeerManager_getPeerCount
   (JNIEnv *, jobject);
 
+/*
+ * Class:     com_breadwallet_core_BRCorePeerManager
+ * Method:    getConnectedPeers
+ * Signature: ()[Lcom/breadwallet/core/BRCorePeerManager$ConnectedPeer;
+ */
+JNIEXPORT jobjectArray JNICALL Java_com_breadwallet_core_BRCorePeerManager_getConnectedPeers
+  (JNIEnv *, jobject);
+
+/*
+ * Class:     com_breadwallet_core_BRCorePeerManager
+ * Method:    getFailedPeers
+ * Signature: ()[Lcom/breadwallet/core/BRCorePeer;
+ */
+JNIEXPORT jobjectArray JNICALL Java_com_breadwallet_core_BRCorePeerManager_getFailedPeers
+  (JNIEnv *, jobject);
+
 /*
  * Class:     com_breadwallet_core_BRCorePeerManager
  * Method:    getDownloadPeerName
@@ -0,0 +1,178 @@
+//  Created by Ed Gamble on 1/23/2018
+//  Copyright (c) 2018 breadwallet LLC.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files (the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions:
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+
+
+#include <stdlib.h>
+#include <string.h>
+#include <assert.h>
+#include <pthread.h>
+#include <unistd.h>
+#include <sys/mman.h>
+#include <sys/time.h>
+#include "BRBIP39Mnemonic.h"
+#include "BRCrypto.h"
+#include "BRCoreJni.h"
+#include "com_breadwallet_core_BRCoreSeed.h"
+
+struct BRCoreSeedStruct {
+    UInt512 seed;
+    int64_t expiration; // milliseconds since the epoch
+    int valid;
+};
+
+//
+// Guards the contents and the lifetime of every seed.  A seed is found from its Java object only
+// with seedsLock held, and disposeNative() clears the object's reference under it before
+// freeing - so the evictor, or a signing thread, never uses a seed freed by another thread.
+//
+static pthread_mutex_t seedsLock = PTHREAD_MUTEX_INITIALIZER;
+
+// Whole pages, so that munlock() of one seed never unlocks another's.
+static size_t
+seedAllocationSize () {
+    size_t pageSize = (size_t) sysconf (_SC_PAGESIZE);
+    return (sizeof (BRCoreSeed) + pageSize - 1) / pageSize * pageSize;
+}
+
+static int64_t
+seedCurrentTime () {
+    struct timeval tv;
+    gettimeofday (&tv, NULL);
+    return (int64_t) tv.tv_sec * 1000 + tv.tv_usec / 1000;
+}
+
+// Call with seedsLock held
+static BRCoreSeed *
+seedFromObject (JNIEnv *env, jobject seedObject) {
+    return NULL == seedObject ? NULL : (BRCoreSeed *) getJNIReference (env, seedObject);
+}
+
+// Call with seedsLock held
+static int
+seedCheckValid (BRCoreSeed *seed) {
+    if (seed->valid && seedCurrentTime() >= seed->expiration) {
+        mem_clean (&seed->seed, sizeof (seed->seed));
+        seed->valid = 0;
+    }
+    return seed->valid;
+}
+
+extern int
+seedCopy (JNIEnv *env, jobject seedObject, UInt512 *result) {
+    pthread_mutex_lock (&seedsLock);
+    BRCoreSeed *seed = seedFromObject (env, seedObject);
+    int valid = NULL != seed && seedCheckValid (seed);
+    if (valid) *result = seed->seed;
+    pthread_mutex_unlock (&seedsLock);
+
+    return valid;
+}
+
+/*
+ * Class:     com_breadwallet_core_BRCoreSeed
+ * Method:    isValid
+ * Signature: ()Z
+ */
+JNIEXPORT jboolean JNICALL Java_com_breadwallet_core_BRCoreSeed_isValid
+        (JNIEnv *env, jobject thisObject) {
+    pthread_mutex_lock (&seedsLock);
+    BRCoreSeed *seed = seedFromObject (env, thisObject);
+    int valid = NULL != seed && seedCheckValid (seed);
+    pthread_mutex_unlock (&seedsLock);
+
+    return (jboolean) (valid ? JNI_TRUE : JNI_FALSE);
+}
+
+/*
+ * Class:     com_breadwallet_core_BRCoreSeed
+ * Method:    evict
+ * Signature: ()V
+ */
+JNIEXPORT void JNICALL Java_com_breadwallet_core_BRCoreSeed_evict
+        (JNIEnv *env, jobject thisObject) {
+    pthread_mutex_lock (&seedsLock);
+    BRCoreSeed *seed = seedFromObject (env, thisObject);
+    if (NULL != seed) {
+        mem_clean (&seed->seed, sizeof (seed->seed));
+        seed->valid = 0;
+    }
+    pthread_mutex_unlock (&seedsLock);
+}
+
+/*
+ * Class:     com_breadwallet_core_BRCoreSeed
+ * Method:    createJniCoreSeed
+ * Signature: ([BJ)J
+ */
+JNIEXPORT jlong JNICALL Java_com_breadwallet_core_BRCoreSeed_createJniCoreSeed
+        (JNIEnv *env, jclass thisClass,
+         jbyteArray phraseByteArray,
+         jlong lifetimeMillis) {
+    void *memory = NULL;
+    int error = posix_memalign (&memory, (size_t) sysconf (_SC_PAGESIZE), seedAllocationSize());
+    assert (0 == error && NULL != memory);
+
+    // Keep the seed out of swap, if permitted.
+    BRCoreSeed *seed = (BRCoreSeed *) memory;
+    memset (seed, 0, seedAllocationSize());
+    mlock (seed, seedAllocationSize());
+
+    // Convert phraseByteArray to a char* phrase
+    size_t phraseLen = (size_t) (*env)->GetArrayLength(env, phraseByteArray);
+    jbyte *phraseBytes = (*env)->GetByteArrayElements(env, phraseByteArray, 0);
+
+    char phrase [1 + phraseLen];
+    memcpy (phrase, phraseBytes, phraseLen);
+    phrase[phraseLen] = '\0';
+    (*env)->ReleaseByteArrayElements(env, phraseByteArray, phraseBytes, JNI_ABORT);
+
+    // Convert phrase to its BIP38 512 bit seed.
+    BRBIP39DeriveKey (&seed->seed, phrase, NULL);
+    mem_clean (phrase, sizeof (phrase));
+
+    seed->expiration = seedCurrentTime() + lifetimeMillis;
+    seed->valid = 1;
+
+    return (jlong) seed;
+}
+
+/*
+ * Class:     com_breadwallet_core_BRCoreSeed
+ * Method:    disposeNative
+ * Signature: ()V
+ */
+JNIEXPORT void JNICALL Java_com_breadwallet_core_BRCoreSeed_disposeNative
+        (JNIEnv *env, jobject thisObject) {
+    pthread_mutex_lock (&seedsLock);
+    BRCoreSeed *seed = seedFromObject (env, thisObject);
+    if (NULL != seed) {
+        // Mark disposed; any later lookup, from any thread, finds no seed.
+        jclass thisClass = (*env)->GetObjectClass (env, thisObject);
+        jfieldID addressField = (*env)->GetFieldID (env, thisClass, "jniReferenceAddress", "J");
+        (*env)->SetLongField (env, thisObject, addressField, (jlong) 0);
+        (*env)->DeleteLocalRef (env, thisClass);
+
+        mem_clean (seed, sizeof (BRCoreSeed));
+        munlock (seed, seedAllocationSize());
+        free (seed);
+    }
+    pthread_mutex_unlock (&seedsLock);
+}
@@ -201,6 +201,35 @@ JNIEXPORT jbyteArray JNICALL Java_com_breadwallet_core_BRCoreTransaction_seriali
     return byteArray;
 }
 
+/*
+ * Class:     com_breadwallet_core_BRCoreTransaction
+ * Method:    getSerializedSize
+ * Signature: ()J
+ */
+JNIEXPORT jlong JNICALL Java_com_breadwallet_core_BRCoreTransaction_getSerializedSize
+        (JNIEnv *env, jobject thisObject) {
+    BRTransaction *transaction = (BRTransaction *) getJNIReference (env, thisObject);
+    return (jlong) BRTransactionSerialize(transaction, NULL, 0);
+}
+
+/*
+ * Class:     com_breadwallet_core_BRCoreTransaction
+ * Method:    jniSerializeToBuffer
+ * Signature: (Ljava/nio/ByteBuffer;II)I
+ */
+JNIEXPORT jint JNICALL Java_com_breadwallet_core_BRCoreTransaction_jniSerializeToBuffer
+        (JNIEnv *env, jobject thisObject, jobject bufferObject, jint offset, jint length) {
+    BRTransaction *transaction = (BRTransaction *) getJNIReference (env, thisObject);
+    uint8_t *bufferBytes = (uint8_t *) (*env)->GetDirectBufferAddress (env, bufferObject);
+    assert (NULL != bufferBytes);
+
+    size_t transactionSize = BRTransactionSerialize(transaction, NULL, 0);
+    if (transactionSize <= (size_t) length)
+        BRTransactionSerialize(transaction, &bufferBytes[offset], transactionSize);
+
+    return (jint) transactionSize;
+}
+
 /*
  * Class:     com_breadwallet_core_BRCoreTransaction
  * Method:    addInput
@@ -303,10 +332,37 @@ Java_com_breadwallet_core_BRCoreTransaction_sign
     }
     BRTransactionSign(transaction, forkId, keys, keyCount);
 
-    if (NULL == keys) free (keys);
+    if (NULL != keys) free (keys);
     return;
 }
 
+/*
+ * Class:     com_breadwallet_core_BRCoreTransaction
+ * Method:    jniSignParallel
+ * Signature: ([Lcom/breadwallet/core/BRCoreKey;II)V
+ */
+JNIEXPORT void JNICALL
+Java_com_breadwallet_core_BRCoreTransaction_jniSignParallel
+        (JNIEnv *env, jobject thisObject, jobjectArray keyObjectArray, jint forkId, jint threadCount) {
+    BRTransaction *transaction = (BRTransaction *) getJNIReference (env, thisObject);
+
+    size_t keyCount = (*env)->GetArrayLength (env, keyObjectArray);
+    BRKey *keys = (BRKey *) calloc (keyCount + 1, sizeof (BRKey));
+
+    for (int index = 0; index < keyCount; index++) {
+        jobject keyObject = (*env)->GetObjectArrayElement (env, keyObjectArray, index);
+        keys[index] = *(BRKey *) getJNIReference (env, keyObject);
+
+        (*env)->DeleteLocalRef (env, keyObject);
+    }
+    BRTransactionSignParallel(transaction, forkId, keys, keyCount,
+                              &threadCount, parallelForThreadCount);
+
+    for (int index = 0; index < keyCount; index++)
+        BRKeyClean (&keys[index]);
+    free (keys);
+}
+
 /*
  * Class:     com_breadwallet_core_BRCoreTransaction
  * Method:    isStandard
@@ -422,6 +478,31 @@ JNIEXPORT jlong JNICALL Java_com_breadwallet_core_BRCoreTransaction_createJniCor
     return (jlong) transaction; // may be NULL
 }
 
+/*
+ * Class:     com_breadwallet_core_BRCoreTransaction
+ * Method:    createJniCoreTransactionFromBuffer
+ * Signature: (Ljava/nio/ByteBuffer;IIJJ)J
+ */
+JNIEXPORT jlong JNICALL Java_com_breadwallet_core_BRCoreTransaction_createJniCoreTransactionFromBuffer
+        (JNIEnv *env, jclass thisClass,
+         jobject bufferObject,
+         jint offset,
+         jint length,
+         jlong blockHeight,
+         jlong timestamp) {
+    const uint8_t *bufferBytes = (const uint8_t *) (*env)->GetDirectBufferAddress (env, bufferObject);
+    if (NULL == bufferBytes) return (jlong) NULL;
+
+    BRTransaction *transaction = BRTransactionParse(&bufferBytes[offset], (size_t) length);
+    if (NULL == transaction)
+        return (jlong) NULL;
+
+    if (-1 != blockHeight) transaction->blockHeight = (uint32_t) blockHeight;
+    if (-1 != timestamp)   transaction->timestamp = (uint32_t) timestamp;
+
+    return (jlong) transaction;
+}
+
 /*
  * Class:     com_breadwallet_core_BRCoreTransaction
  * Method:    createJniCoreTransactionEmpty
@@ -89,6 +89,22 @@ JNIEXPORT void JNICALL Java_com_breadwallet_core_BRCoreTransaction_setTimestamp
 JNIEXPORT jbyteArray JNICALL Java_com_breadwallet_core_BRCoreTransaction_serialize
   (JNIEnv *, jobject);
 
+/*
+ * Class:     com_breadwallet_core_BRCoreTransaction
+ * Method:    getSerializedSize
+ * Signature: ()J
+ */
+JNIEXPORT jlong JNICALL Java_com_breadwallet_core_BRCoreTransaction_getSerializedSize
+  (JNIEnv *, jobject);
+
+/*
+ * Class:     com_breadwallet_core_BRCoreTransaction
+ * Method:    jniSerializeToBuffer
+ * Signature: (Ljava/nio/ByteBuffer;II)I
+ */
+JNIEXPORT jint JNICALL Java_com_breadwallet_core_BRCoreTransaction_jniSerializeToBuffer
+  (JNIEnv *, jobject, jobject, jint, jint);
+
 /*
  * Class:     com_breadwallet_core_BRCoreTransaction
  * Method:    addInput
@@ -145,6 +161,14 @@ JNIEXPORT jboolean JNICALL Java_com_breadwallet_core_BRCoreTransaction_isSigned
 JNIEXPORT void JNICALL Java_com_breadwallet_core_BRCoreTransaction_sign
   (JNIEnv *, jobject, jobjectArray, jint);
 
+/*
+ * Class:     com_breadwallet_core_BRCoreTransaction
+ * Method:    jniSignParallel
+ * Signature: ([Lcom/breadwallet/core/BRCoreKey;II)V
+ */
+JNIEXPORT void JNICALL Java_com_breadwallet_core_BRCoreTransaction_jniSignParallel
+  (JNIEnv *, jobject, jobjectArray, jint, jint);
+
 /*
  * Class:     com_breadwallet_core_BRCoreTransaction
  * Method:    isStandard
@@ -209,6 +233,14 @@ JNIEXPORT jlong JNICALL Java_com_breadwallet_core_BRCoreTransaction_createJniCor
 JNIEXPORT jlong JNICALL Java_com_breadwallet_core_BRCoreTransaction_createJniCoreTransactionEmpty
   (JNIEnv *, jclass);
 
+/*
+ * Class:     com_breadwallet_core_BRCoreTransaction
+ * Method:    createJniCoreTransactionFromBuffer
+ * Signature: (Ljava/nio/ByteBuffer;IIJJ)J
+ */
+JNIEXPORT jlong JNICALL Java_com_breadwallet_core_BRCoreTransaction_createJniCoreTransactionFromBuffer
+  (JNIEnv *, jclass, jobject, jint, jint, jlong, jlong);
+
 #ifdef __cplusplus
 }
 #endif
@@ -61,6 +61,17 @@ static jmethodID addressConstructor;
 static jclass transactionClass;
 static jmethodID transactionConstructor;
 
+static jclass transactionColumnsClass;
+static jmethodID transactionColumnsConstructor;
+
+static jclass utxoColumnsClass;
+static jmethodID utxoColumnsConstructor;
+
+static jclass balanceHistoryClass;
+static jmethodID balanceHistoryConstructor;
+
+static jclass batchListenerClass;
+
 
 /*
  * Class:     com_breadwallet_core_BRCoreWallet
@@ -210,6 +221,36 @@ Java_com_breadwallet_core_BRCoreWallet_addressIsUsed
     return (jboolean) BRWalletAddressIsUsed(wallet, (const char *) address);
 }
 
+/*
+ * Class:     com_breadwallet_core_BRCoreWallet
+ * Method:    jniContainsHash160s
+ * Signature: ([BZ)[J
+ */
+JNIEXPORT jlongArray JNICALL
+Java_com_breadwallet_core_BRCoreWallet_jniContainsHash160s
+        (JNIEnv *env, jobject thisObject,
+         jbyteArray hash160sByteArray,
+         jboolean used) {
+    BRWallet *wallet = (BRWallet *) getJNIReference (env, thisObject);
+
+    // Copy out, rather than pin, to get UInt160 alignment.
+    size_t count = (size_t) (*env)->GetArrayLength (env, hash160sByteArray) / sizeof (UInt160);
+    UInt160 *hash160s = calloc (count + 1, sizeof (UInt160));
+    (*env)->GetByteArrayRegion (env, hash160sByteArray, 0, (jsize) (count * sizeof (UInt160)),
+                                (jbyte *) hash160s);
+
+    uint8_t *flags = calloc (count + 1, sizeof (uint8_t));
+    BRWalletContainsHash160s (wallet, hash160s, count,
+                              JNI_TRUE == used ? NULL : flags,
+                              JNI_TRUE == used ? flags : NULL);
+
+    jlongArray result = bitSetWords (env, flags, count);
+
+    free (flags);
+    free (hash160s);
+    return result;
+}
+
 /*
  * Class:     com_breadwallet_core_BRCoreWallet
  * Method:    jniGetTransactions
@@ -273,6 +314,213 @@ Java_com_breadwallet_core_BRCoreWallet_getTransactionsConfirmedBefore
     return transactionArray;
 }
 
+//
+// Return `transactions` as a TransactionColumns
+//
+static jobject
+transactionColumnsCreate (JNIEnv *env, BRWallet *wallet,
+                          BRTransaction **transactions,
+                          size_t transactionCount) {
+    UInt256 *hashes   = (UInt256 *) calloc (transactionCount, sizeof (UInt256));
+    jint *heights     = (jint *)  calloc (transactionCount, sizeof (jint));
+    jint *timestamps  = (jint *)  calloc (transactionCount, sizeof (jint));
+    jlong *sent       = (jlong *) calloc (transactionCount, sizeof (jlong));
+    jlong *received   = (jlong *) calloc (transactionCount, sizeof (jlong));
+    jlong *fees       = (jlong *) calloc (transactionCount, sizeof (jlong));
+
+    for (size_t index = 0; index < transactionCount; index++) {
+        BRTransaction *transaction = transactions[index];
+
+        hashes[index]     = transaction->txHash;
+        heights[index]    = (jint) transaction->blockHeight;
+        timestamps[index] = (jint) transaction->timestamp;
+        sent[index]       = (jlong) BRWalletAmountSentByTx (wallet, transaction);
+        received[index]   = (jlong) BRWalletAmountReceivedFromTx (wallet, transaction);
+        fees[index]       = (jlong) BRWalletFeeForTx (wallet, transaction); // UINT64_MAX -> -1
+    }
+
+    jbyteArray hashesArray = (*env)->NewByteArray (env, (jsize) (transactionCount * sizeof (UInt256)));
+    (*env)->SetByteArrayRegion (env, hashesArray, 0, (jsize) (transactionCount * sizeof (UInt256)),
+                                (const jbyte *) hashes);
+
+    jintArray heightsArray = (*env)->NewIntArray (env, (jsize) transactionCount);
+    (*env)->SetIntArrayRegion (env, heightsArray, 0, (jsize) transactionCount, heights);
+
+    jintArray timestampsArray = (*env)->NewIntArray (env, (jsize) transactionCount);
+    (*env)->SetIntArrayRegion (env, timestampsArray, 0, (jsize) transactionCount, timestamps);
+
+    jlongArray sentArray = (*env)->NewLongArray (env, (jsize) transactionCount);
+    (*env)->SetLongArrayRegion (env, sentArray, 0, (jsize) transactionCount, sent);
+
+    jlongArray receivedArray = (*env)->NewLongArray (env, (jsize) transactionCount);
+    (*env)->SetLongArrayRegion (env, receivedArray, 0, (jsize) transactionCount, received);
+
+    jlongArray feesArray = (*env)->NewLongArray (env, (jsize) transactionCount);
+    (*env)->SetLongArrayRegion (env, feesArray, 0, (jsize) transactionCount, fees);
+
+    jobject columns = (*env)->NewObject (env, transactionColumnsClass, transactionColumnsConstructor,
+                                         (jint) transactionCount,
+                                         hashesArray, heightsArray, timestampsArray,
+                                         sentArray, receivedArray, feesArray);
+
+    free (fees); free (received); free (sent);
+    free (timestamps); free (heights); free (hashes);
+
+    return columns;
+}
+
+/*
+ * Class:     com_breadwallet_core_BRCoreWallet
+ * Method:    getTransactionColumns
+ * Signature: ()Lcom/breadwallet/core/BRCoreWallet$TransactionColumns;
+ */
+JNIEXPORT jobject JNICALL
+Java_com_breadwallet_core_BRCoreWallet_getTransactionColumns
+        (JNIEnv *env, jobject thisObject) {
+    BRWallet  *wallet  = (BRWallet  *) getJNIReference (env, thisObject);
+
+    size_t transactionCount = BRWalletTransactions (wallet, NULL, 0);
+    BRTransaction **transactions = (BRTransaction **) calloc (transactionCount, sizeof (BRTransaction *));
+    transactionCount = BRWalletTransactions (wallet, transactions, transactionCount);
+
+    jobject columns = transactionColumnsCreate (env, wallet, transactions, transactionCount);
+
+    if (NULL != transactions) free (transactions);
+    return columns;
+}
+
+/*
+ * Class:     com_breadwallet_core_BRCoreWallet
+ * Method:    jniGetTransactionColumnsInRange
+ * Signature: (JJJJII)Lcom/breadwallet/core/BRCoreWallet$TransactionColumns;
+ */
+JNIEXPORT jobject JNICALL
+Java_com_breadwallet_core_BRCoreWallet_jniGetTransactionColumnsInRange
+        (JNIEnv *env, jobject thisObject,
+         jlong startHeight,
+         jlong endHeight,
+         jlong startTime,
+         jlong endTime,
+         jint offset,
+         jint limit) {
+    BRWallet  *wallet  = (BRWallet  *) getJNIReference (env, thisObject);
+
+    // Don't allocate for more than there are; `limit` may be 'all'
+    size_t transactionCount = BRWalletTransactions (wallet, NULL, 0);
+    if ((size_t) limit < transactionCount) transactionCount = (size_t) limit;
+
+    BRTransaction **transactions = (BRTransaction **) calloc (transactionCount + 1, sizeof (BRTransaction *));
+    transactionCount = BRWalletTxInRange (wallet, transactions, transactionCount, (size_t) offset,
+                                          (uint32_t) (startHeight < UINT32_MAX ? startHeight : UINT32_MAX),
+                                          (uint32_t) (endHeight   < UINT32_MAX ? endHeight   : UINT32_MAX),
+                                          (uint32_t) (startTime   < UINT32_MAX ? startTime   : UINT32_MAX),
+                                          (uint32_t) (endTime     < UINT32_MAX ? endTime     : UINT32_MAX));
+
+    jobject columns = transactionColumnsCreate (env, wallet, transactions, transactionCount);
+
+    free (transactions);
+    return columns;
+}
+
+/*
+ * Class:     com_breadwallet_core_BRCoreWallet
+ * Method:    jniGetTransactionCountInRange
+ * Signature: (JJJJ)I
+ */
+JNIEXPORT jint JNICALL
+Java_com_breadwallet_core_BRCoreWallet_jniGetTransactionCountInRange
+        (JNIEnv *env, jobject thisObject,
+         jlong startHeight,
+         jlong endHeight,
+         jlong startTime,
+         jlong endTime) {
+    BRWallet  *wallet  = (BRWallet  *) getJNIReference (env, thisObject);
+    return (jint) BRWalletTxInRange (wallet, NULL, 0, 0,
+                                     (uint32_t) (startHeight < UINT32_MAX ? startHeight : UINT32_MAX),
+                                     (uint32_t) (endHeight   < UINT32_MAX ? endHeight   : UINT32_MAX),
+                                     (uint32_t) (startTime   < UINT32_MAX ? startTime   : UINT32_MAX),
+                                     (uint32_t) (endTime     < UINT32_MAX ? endTime     : UINT32_MAX));
+}
+
+/*
+ * Class:     com_breadwallet_core_BRCoreWallet
+ * Method:    getUTXOCount
+ * Signature: ()I
+ */
+JNIEXPORT jint JNICALL
+Java_com_breadwallet_core_BRCoreWallet_getUTXOCount
+        (JNIEnv *env, jobject thisObject) {
+    BRWallet *wallet = (BRWallet *) getJNIReference (env, thisObject);
+    return (jint) BRWalletUTXOs (wallet, NULL, 0);
+}
+
+/*
+ * Class:     com_breadwallet_core_BRCoreWallet
+ * Method:    jniGetUTXOColumns
+ * Signature: (II)Lcom/breadwallet/core/BRCoreWallet$UTXOColumns;
+ */
+JNIEXPORT jobject JNICALL
+Java_com_breadwallet_core_BRCoreWallet_jniGetUTXOColumns
+        (JNIEnv *env, jobject thisObject,
+         jint offset,
+         jint limit) {
+    BRWallet *wallet = (BRWallet *) getJNIReference (env, thisObject);
+
+    // Don't allocate for more than there are; `limit` may be 'all'
+    size_t utxoCount = BRWalletUTXOs (wallet, NULL, 0);
+    utxoCount = (size_t) offset < utxoCount ? utxoCount - (size_t) offset : 0;
+    if ((size_t) limit < utxoCount) utxoCount = (size_t) limit;
+
+    BRUTXO *utxos        = (BRUTXO *)   calloc (utxoCount + 1, sizeof (BRUTXO));
+    uint64_t *amounts    = (uint64_t *) calloc (utxoCount + 1, sizeof (uint64_t));
+    uint8_t **scripts    = (uint8_t **) calloc (utxoCount + 1, sizeof (uint8_t *));
+    size_t *scriptLens   = (size_t *)   calloc (utxoCount + 1, sizeof (size_t));
+
+    utxoCount = BRWalletUTXOOutputs (wallet, (size_t) offset, utxos, amounts, scripts, scriptLens,
+                                     utxoCount);
+
+    UInt256 *hashes      = (UInt256 *) calloc (utxoCount + 1, sizeof (UInt256));
+    jint *indices        = (jint *)    calloc (utxoCount + 1, sizeof (jint));
+    jint *scriptOffsets  = (jint *)    calloc (utxoCount + 1, sizeof (jint));
+
+    for (size_t index = 0; index < utxoCount; index++) {
+        hashes[index]  = utxos[index].hash;
+        indices[index] = (jint) utxos[index].n;
+        scriptOffsets[index + 1] = scriptOffsets[index] + (jint) scriptLens[index];
+    }
+
+    jbyteArray hashesArray = (*env)->NewByteArray (env, (jsize) (utxoCount * sizeof (UInt256)));
+    (*env)->SetByteArrayRegion (env, hashesArray, 0, (jsize) (utxoCount * sizeof (UInt256)),
+                                (const jbyte *) hashes);
+
+    jintArray indicesArray = (*env)->NewIntArray (env, (jsize) utxoCount);
+    (*env)->SetIntArrayRegion (env, indicesArray, 0, (jsize) utxoCount, indices);
+
+    // uint64_t amounts as jlong
+    jlongArray amountsArray = (*env)->NewLongArray (env, (jsize) utxoCount);
+    (*env)->SetLongArrayRegion (env, amountsArray, 0, (jsize) utxoCount, (const jlong *) amounts);
+
+    jbyteArray scriptsArray = (*env)->NewByteArray (env, scriptOffsets[utxoCount]);
+    for (size_t index = 0; index < utxoCount; index++) {
+        (*env)->SetByteArrayRegion (env, scriptsArray, scriptOffsets[index], (jsize) scriptLens[index],
+                                    (const jbyte *) scripts[index]);
+        free (scripts[index]);
+    }
+
+    jintArray scriptOffsetsArray = (*env)->NewIntArray (env, (jsize) (utxoCount + 1));
+    (*env)->SetIntArrayRegion (env, scriptOffsetsArray, 0, (jsize) (utxoCount + 1), scriptOffsets);
+
+    jobject columns = (*env)->NewObject (env, utxoColumnsClass, utxoColumnsConstructor,
+                                         (jint) utxoCount, offset,
+                                         hashesArray, indicesArray, amountsArray,
+                                         scriptsArray, scriptOffsetsArray);
+
+    free (scriptOffsets); free (indices); free (hashes);
+    free (scriptLens); free (scripts); free (amounts); free (utxos);
+
+    return columns;
+}
+
 /*
  * Class:     com_breadwallet_core_BRCoreWallet
  * Method:    getBalance
@@ -333,6 +581,30 @@ Java_com_breadwallet_core_BRCoreWallet_setFeePerKb
     BRWalletSetFeePerKb (wallet, feePerKb);
 }
 
+/*
+ * Class:     com_breadwallet_core_BRCoreWallet
+ * Method:    getCoinSelectionValue
+ * Signature: ()I
+ */
+JNIEXPORT jint JNICALL
+Java_com_breadwallet_core_BRCoreWallet_getCoinSelectionValue
+        (JNIEnv *env, jobject thisObject) {
+    BRWallet  *wallet  = (BRWallet  *) getJNIReference (env, thisObject);
+    return (jint) BRWalletCoinSelection (wallet);
+}
+
+/*
+ * Class:     com_breadwallet_core_BRCoreWallet
+ * Method:    jniSetCoinSelection
+ * Signature: (II)V
+ */
+JNIEXPORT void JNICALL
+Java_com_breadwallet_core_BRCoreWallet_jniSetCoinSelection
+        (JNIEnv *env, jobject thisObject, jint selection, jint utxoTarget) {
+    BRWallet  *wallet  = (BRWallet  *) getJNIReference (env, thisObject);
+    BRWalletSetCoinSelection (wallet, (BRCoinSelection) selection, (size_t) utxoTarget);
+}
+
 /*
  * Class:     com_breadwallet_core_BRCoreWallet
  * Method:    getMaxFeePerKb
@@ -403,6 +675,96 @@ JNIEXPORT jobject JNICALL Java_com_breadwallet_core_BRCoreWallet_createTransacti
            : (*env)->NewObject(env, transactionClass, transactionConstructor, (jlong) transaction);
 }
 
+static int
+amountCompare (const void *amount1, const void *amount2) {
+    uint64_t a1 = *(const uint64_t *) amount1, a2 = *(const uint64_t *) amount2;
+    return a1 < a2 ? -1 : (a1 > a2 ? 1 : 0);
+}
+
+//
+// True if `transaction` pays every one of `amounts`, with at most one more output (the change).
+// BRWalletCreateTxForOutputs() reduces or drops the last output when the transaction would be
+// too large; this catches that.
+//
+static int
+transactionPaysAmounts (const BRTransaction *transaction, const jlong *amounts, size_t count) {
+    size_t outCount = transaction->outCount, i = 0, j = 0;
+    if (outCount != count && outCount != count + 1) return 0;
+
+    uint64_t *requested = calloc (count + 1, sizeof (uint64_t));
+    uint64_t *paid      = calloc (outCount + 1, sizeof (uint64_t));
+    for (size_t index = 0; index < count; index++) requested[index] = (uint64_t) amounts[index];
+    for (size_t index = 0; index < outCount; index++) paid[index] = transaction->outputs[index].amount;
+
+    qsort (requested, count, sizeof (uint64_t), amountCompare);
+    qsort (paid, outCount, sizeof (uint64_t), amountCompare);
+
+    // Every requested amount is paid; at most one paid amount is extra
+    while (i < count && j < outCount && j - i <= outCount - count) {
+        if (requested[i] == paid[j]) i++;
+        else if (paid[j] > requested[i]) break;
+        j++;
+    }
+
+    free (paid);
+    free (requested);
+    return i == count;
+}
+
+/*
+ * Class:     com_breadwallet_core_BRCoreWallet
+ * Method:    jniCreateTransactionForPayouts
+ * Signature: ([Ljava/lang/String;[J)Lcom/breadwallet/core/BRCoreTransaction;
+ */
+JNIEXPORT jobject JNICALL
+Java_com_breadwallet_core_BRCoreWallet_jniCreateTransactionForPayouts
+        (JNIEnv *env, jobject thisObject,
+         jobjectArray addressesArray,
+         jlongArray amountsArray) {
+    BRWallet *wallet = (BRWallet *) getJNIReference(env, thisObject);
+
+    size_t count = (size_t) (*env)->GetArrayLength (env, addressesArray);
+    jlong *amounts = (*env)->GetLongArrayElements (env, amountsArray, 0);
+    BRTxOutput *outputs = (BRTxOutput *) calloc (count + 1, sizeof (BRTxOutput));
+    int valid = 1;
+
+    for (size_t index = 0; valid && index < count; index++) {
+        jstring addressString = (*env)->GetObjectArrayElement (env, addressesArray, (jsize) index);
+        if (NULL == addressString) { valid = 0; break; }
+
+        const char *address = (*env)->GetStringUTFChars (env, addressString, NULL);
+        size_t scriptLen = BRAddressScriptPubKey (NULL, 0, address);
+        valid = BRAddressIsValid (address) && scriptLen > 0;
+
+        if (valid) {
+            // Core copies each script into the transaction; these are ours to free.
+            outputs[index].amount = (uint64_t) amounts[index];
+            outputs[index].script = malloc (scriptLen);
+            outputs[index].scriptLen = BRAddressScriptPubKey (outputs[index].script, scriptLen, address);
+        }
+
+        (*env)->ReleaseStringUTFChars (env, addressString, address);
+        (*env)->DeleteLocalRef (env, addressString);
+    }
+
+    BRTransaction *transaction = valid && count > 0
+                                 ? BRWalletCreateTxForOutputs (wallet, outputs, count)
+                                 : NULL;
+
+    if (NULL != transaction && !transactionPaysAmounts (transaction, amounts, count)) {
+        BRTransactionFree (transaction);
+        transaction = NULL;
+    }
+
+    for (size_t index = 0; index < count; index++)
+        if (NULL != outputs[index].script) free (outputs[index].script);
+    free (outputs);
+    (*env)->ReleaseLongArrayElements (env, amountsArray, amounts, JNI_ABORT);
+
+    return NULL == transaction
+           ? NULL
+           : (*env)->NewObject(env, transactionClass, transactionConstructor, (jlong) transaction);
+}
 
 /*
  * Class:     com_breadwallet_core_BRCoreWallet
@@ -435,6 +797,67 @@ Java_com_breadwallet_core_BRCoreWallet_signTransaction
                        : JNI_FALSE);
 }
 
+/*
+ * Class:     com_breadwallet_core_BRCoreWallet
+ * Method:    jniSignTransactionParallel
+ * Signature: (Lcom/breadwallet/core/BRCoreTransaction;[BI)Z
+ */
+JNIEXPORT jboolean JNICALL
+Java_com_breadwallet_core_BRCoreWallet_jniSignTransactionParallel
+        (JNIEnv *env, jobject thisObject,
+         jobject transactionObject,
+         jbyteArray phraseByteArray,
+         jint threadCount) {
+    BRWallet *wallet = (BRWallet *) getJNIReference(env, thisObject);
+    BRTransaction *transaction = (BRTransaction *) getJNIReference(env, transactionObject);
+
+    // Convert phraseByteArray to a char* phrase
+    size_t phraseLen = (size_t) (*env)->GetArrayLength(env, phraseByteArray);
+    jbyte *phraseBytes = (*env)->GetByteArrayElements(env, phraseByteArray, 0);
+
+    char phrase [1 + phraseLen];
+    memcpy (phrase, phraseBytes, phraseLen);
+    phrase[phraseLen] = '\0';
+    (*env)->ReleaseByteArrayElements(env, phraseByteArray, phraseBytes, JNI_ABORT);
+
+    // Convert phrase to its BIP38 512 bit seed.
+    UInt512 seed;
+    BRBIP39DeriveKey (&seed, phrase, NULL);
+    mem_clean (phrase, sizeof (phrase));
+
+    // Sign with the seed
+    int result = BRWalletSignTransactionParallel(wallet, transaction, &seed, sizeof(seed),
+                                                 &threadCount, parallelForThreadCount);
+    mem_clean (&seed, sizeof (seed));
+
+    return (jboolean) (1 == result ? JNI_TRUE : JNI_FALSE);
+}
+
+/*
+ * Class:     com_breadwallet_core_BRCoreWallet
+ * Method:    jniSignTransactionWithSeed
+ * Signature: (Lcom/breadwallet/core/BRCoreTransaction;Lcom/breadwallet/core/BRCoreSeed;I)Z
+ */
+JNIEXPORT jboolean JNICALL
+Java_com_breadwallet_core_BRCoreWallet_jniSignTransactionWithSeed
+        (JNIEnv *env, jobject thisObject,
+         jobject transactionObject,
+         jobject seedObject,
+         jint threadCount) {
+    BRWallet *wallet = (BRWallet *) getJNIReference(env, thisObject);
+    BRTransaction *transaction = (BRTransaction *) getJNIReference(env, transactionObject);
+
+    UInt512 seed;
+    if (!seedCopy (env, seedObject, &seed))
+        return JNI_FALSE;
+
+    int result = BRWalletSignTransactionParallel(wallet, transaction, &seed, sizeof(seed),
+                                                 &threadCount, parallelForThreadCount);
+    mem_clean (&seed, sizeof (seed));
+
+    return (jboolean) (1 == result ? JNI_TRUE : JNI_FALSE);
+}
+
 /*
  * Class:     com_breadwallet_core_BRCoreWallet
  * Method:    containsTransaction
@@ -612,6 +1035,55 @@ Java_com_breadwallet_core_BRCoreWallet_getBalanceAfterTransaction
     return (jlong) BRWalletBalanceAfterTx (wallet, transaction);
 }
 
+/*
+ * Class:     com_breadwallet_core_BRCoreWallet
+ * Method:    jniGetBalanceHistory
+ * Signature: (JJI)Lcom/breadwallet/core/BRCoreWallet$BalanceHistory;
+ */
+JNIEXPORT jobject JNICALL
+Java_com_breadwallet_core_BRCoreWallet_jniGetBalanceHistory
+        (JNIEnv *env, jobject thisObject,
+         jlong startTime,
+         jlong endTime,
+         jint maxPoints) {
+    BRWallet *wallet = (BRWallet *) getJNIReference (env, thisObject);
+
+    // Timestamps are uint32_t
+    uint32_t start = startTime < UINT32_MAX ? (uint32_t) startTime : UINT32_MAX;
+    uint32_t end   = endTime   < UINT32_MAX ? (uint32_t) endTime   : UINT32_MAX;
+
+    // Every point has a transaction; don't allocate for more points than there are transactions
+    size_t pointsCount = BRWalletTransactions (wallet, NULL, 0);
+    if ((size_t) maxPoints < pointsCount) pointsCount = (size_t) maxPoints;
+
+    uint32_t *timestamps   = (uint32_t *) calloc (pointsCount + 1, sizeof (uint32_t));
+    uint32_t *blockHeights = (uint32_t *) calloc (pointsCount + 1, sizeof (uint32_t));
+    uint64_t *balances     = (uint64_t *) calloc (pointsCount + 1, sizeof (uint64_t));
+    uint64_t startBalance  = 0;
+
+    size_t count = BRWalletBalanceHistory (wallet, start, end, (size_t) maxPoints,
+                                           timestamps, blockHeights, balances, pointsCount,
+                                           &startBalance);
+
+    jintArray timestampsArray = (*env)->NewIntArray (env, (jsize) count);
+    (*env)->SetIntArrayRegion (env, timestampsArray, 0, (jsize) count, (const jint *) timestamps);
+
+    jintArray blockHeightsArray = (*env)->NewIntArray (env, (jsize) count);
+    (*env)->SetIntArrayRegion (env, blockHeightsArray, 0, (jsize) count, (const jint *) blockHeights);
+
+    // uint64_t balances as jlong
+    jlongArray balancesArray = (*env)->NewLongArray (env, (jsize) count);
+    (*env)->SetLongArrayRegion (env, balancesArray, 0, (jsize) count, (const jlong *) balances);
+
+    jobject history = (*env)->NewObject (env, balanceHistoryClass, balanceHistoryConstructor,
+                                         (jlong) startBalance, (jint) count,
+                                         timestampsArray, blockHeightsArray, balancesArray);
+
+    free (balances); free (blockHeights); free (timestamps);
+
+    return history;
+}
+
 /*
  * Class:     com_breadwallet_core_BRCoreWallet
  * Method:    getFeeForTransactionSize
@@ -636,6 +1108,61 @@ Java_com_breadwallet_core_BRCoreWallet_getFeeForTransactionAmount
     return (jlong) BRWalletFeeForTxAmount (wallet, (uint64_t) amount);
 }
 
+/*
+ * Class:     com_breadwallet_core_BRCoreWallet
+ * Method:    jniGetFeeQuotes
+ * Signature: ([J[J[J[I[I)V
+ */
+JNIEXPORT void JNICALL
+Java_com_breadwallet_core_BRCoreWallet_jniGetFeeQuotes
+        (JNIEnv *env, jobject thisObject,
+         jlongArray amountsArray,
+         jlongArray feePerKbsArray,
+         jlongArray feesArray,
+         jintArray sizesArray,
+         jintArray inputCountsArray) {
+    BRWallet *wallet = (BRWallet *) getJNIReference (env, thisObject);
+
+    size_t count = (size_t) (*env)->GetArrayLength (env, amountsArray);
+    uint64_t *amounts   = calloc (count + 1, sizeof (uint64_t));
+    uint64_t *feePerKbs = NULL == feePerKbsArray ? NULL : calloc (count + 1, sizeof (uint64_t));
+    uint64_t *fees      = calloc (count + 1, sizeof (uint64_t));
+    size_t *sizes       = calloc (count + 1, sizeof (size_t));
+    size_t *inCounts    = calloc (count + 1, sizeof (size_t));
+
+    jlong *values = (*env)->GetLongArrayElements (env, amountsArray, 0);
+    for (size_t index = 0; index < count; index++) amounts[index] = (uint64_t) values[index];
+    (*env)->ReleaseLongArrayElements (env, amountsArray, values, JNI_ABORT);
+
+    if (NULL != feePerKbs) {
+        values = (*env)->GetLongArrayElements (env, feePerKbsArray, 0);
+        for (size_t index = 0; index < count; index++) feePerKbs[index] = (uint64_t) values[index];
+        (*env)->ReleaseLongArrayElements (env, feePerKbsArray, values, JNI_ABORT);
+    }
+
+    BRWalletFeeQuotes (wallet, amounts, feePerKbs, count, fees, sizes, inCounts);
+
+    jlong *feeValues = (*env)->GetLongArrayElements (env, feesArray, 0);
+    jint *sizeValues = (*env)->GetIntArrayElements (env, sizesArray, 0);
+    jint *inCountValues = (*env)->GetIntArrayElements (env, inputCountsArray, 0);
+
+    for (size_t index = 0; index < count; index++) {
+        feeValues[index] = (jlong) fees[index];
+        sizeValues[index] = (jint) sizes[index];
+        inCountValues[index] = (jint) inCounts[index];
+    }
+
+    (*env)->ReleaseLongArrayElements (env, feesArray, feeValues, 0);
+    (*env)->ReleaseIntArrayElements (env, sizesArray, sizeValues, 0);
+    (*env)->ReleaseIntArrayElements (env, inputCountsArray, inCountValues, 0);
+
+    free (inCounts);
+    free (sizes);
+    free (fees);
+    if (NULL != feePerKbs) free (feePerKbs);
+    free (amounts);
+}
+
 /*
  * Class:     com_breadwallet_core_BRCoreWallet
  * Method:    getMinOutputAmount
@@ -695,6 +1222,34 @@ JNIEXPORT void JNICALL Java_com_breadwallet_core_BRCoreWallet_initializeNative
 
     transactionConstructor = (*env)->GetMethodID(env, transactionClass, "<init>", "(J)V");
     assert (NULL != transactionConstructor);
+
+    transactionColumnsClass = (*env)->FindClass (env, "com/breadwallet/core/BRCoreWallet$TransactionColumns");
+    assert (NULL != transactionColumnsClass);
+    transactionColumnsClass = (*env)->NewGlobalRef (env, transactionColumnsClass);
+
+    transactionColumnsConstructor = (*env)->GetMethodID(env, transactionColumnsClass, "<init>",
+                                                        "(I[B[I[I[J[J[J)V");
+    assert (NULL != transactionColumnsConstructor);
+
+    utxoColumnsClass = (*env)->FindClass (env, "com/breadwallet/core/BRCoreWallet$UTXOColumns");
+    assert (NULL != utxoColumnsClass);
+    utxoColumnsClass = (*env)->NewGlobalRef (env, utxoColumnsClass);
+
+    utxoColumnsConstructor = (*env)->GetMethodID(env, utxoColumnsClass, "<init>",
+                                                 "(II[B[I[J[B[I)V");
+    assert (NULL != utxoColumnsConstructor);
+
+    balanceHistoryClass = (*env)->FindClass (env, "com/breadwallet/core/BRCoreWallet$BalanceHistory");
+    assert (NULL != balanceHistoryClass);
+    balanceHistoryClass = (*env)->NewGlobalRef (env, balanceHistoryClass);
+
+    balanceHistoryConstructor = (*env)->GetMethodID(env, balanceHistoryClass, "<init>",
+                                                    "(JI[I[I[J)V");
+    assert (NULL != balanceHistoryConstructor);
+
+    batchListenerClass = (*env)->FindClass (env, "com/breadwallet/core/BRCoreWallet$BatchListener");
+    assert (NULL != batchListenerClass);
+    batchListenerClass = (*env)->NewGlobalRef (env, batchListenerClass);
 }
 
 //
@@ -771,6 +1326,27 @@ txUpdated(void *info, const UInt256 txHashes[], size_t count, uint32_t blockHeig
     jobject listener = (*env)->NewLocalRef (env, (jobject) info);
     if ((*env)->IsSameObject (env, listener, NULL)) return; // GC reclaimed
 
+    // A BatchListener gets all txHashes, packed, in one callback.
+    if ((*env)->IsInstanceOf (env, listener, batchListenerClass)) {
+        jmethodID batchMethod =
+                lookupListenerMethod(env, listener,
+                                     "onTxUpdated",
+                                     "([BII)V");
+        assert (NULL != batchMethod);
+
+        jbyteArray hashes = (*env)->NewByteArray (env, (jsize) (count * sizeof (UInt256)));
+        (*env)->SetByteArrayRegion (env, hashes, 0, (jsize) (count * sizeof (UInt256)),
+                                    (const jbyte *) txHashes);
+
+        (*env)->CallVoidMethod(env, listener, batchMethod,
+                               hashes,
+                               blockHeight,
+                               timestamp);
+        (*env)->DeleteLocalRef(env, hashes);
+        (*env)->DeleteLocalRef(env, listener);
+        return;
+    }
+
     // The onTxUpdated callback
     jmethodID listenerMethod =
             lookupListenerMethod(env, listener,
@@ -63,6 +63,14 @@ JNIEXPORT jboolean JNICALL Java_com_breadwallet_core_BRCoreWallet_containsAddres
 JNIEXPORT jboolean JNICALL Java_com_breadwallet_core_BRCoreWallet_addressIsUsed
   (JNIEnv *, jobject, jobject);
 
+/*
+ * Class:     com_breadwallet_core_BRCoreWallet
+ * Method:    jniContainsHash160s
+ * Signature: ([BZ)[J
+ */
+JNIEXPORT jlongArray JNICALL Java_com_breadwallet_core_BRCoreWallet_jniContainsHash160s
+  (JNIEnv *, jobject, jbyteArray, jboolean);
+
 /*
  * Class:     com_breadwallet_core_BRCoreWallet
  * Method:    jniGetTransactions
@@ -79,6 +87,46 @@ JNIEXPORT jobjectArray JNICALL Java_com_breadwallet_core_BRCoreWallet_jniGetTran
 JNIEXPORT jobjectArray JNICALL Java_com_breadwallet_core_BRCoreWallet_getTransactionsConfirmedBefore
   (JNIEnv *, jobject, jlong);
 
+/*
+ * Class:     com_breadwallet_core_BRCoreWallet
+ * Method:    getTransactionColumns
+ * Signature: ()Lcom/breadwallet/core/BRCoreWallet$TransactionColumns;
+ */
+JNIEXPORT jobject JNICALL Java_com_breadwallet_core_BRCoreWallet_getTransactionColumns
+  (JNIEnv *, jobject);
+
+/*
+ * Class:     com_breadwallet_core_BRCoreWallet
+ * Method:    jniGetTransactionColumnsInRange
+ * Signature: (JJJJII)Lcom/breadwallet/core/BRCoreWallet$TransactionColumns;
+ */
+JNIEXPORT jobject JNICALL Java_com_breadwallet_core_BRCoreWallet_jniGetTransactionColumnsInRange
+  (JNIEnv *, jobject, jlong, jlong, jlong, jlong, jint, jint);
+
+/*
+ * Class:     com_breadwallet_core_BRCoreWallet
+ * Method:    jniGetTransactionCountInRange
+ * Signature: (JJJJ)I
+ */
+JNIEXPORT jint JNICALL Java_com_breadwallet_core_BRCoreWallet_jniGetTransactionCountInRange
+  (JNIEnv *, jobject, jlong, jlong, jlong, jlong);
+
+/*
+ * Class:     com_breadwallet_core_BRCoreWallet
+ * Method:    getUTXOCount
+ * Signature: ()I
+ */
+JNIEXPORT jint JNICALL Java_com_breadwallet_core_BRCoreWallet_getUTXOCount
+  (JNIEnv *, jobject);
+
+/*
+ * Class:     com_breadwallet_core_BRCoreWallet
+ * Method:    jniGetUTXOColumns
+ * Signature: (II)Lcom/breadwallet/core/BRCoreWallet$UTXOColumns;
+ */
+JNIEXPORT jobject JNICALL Java_com_breadwallet_core_BRCoreWallet_jniGetUTXOColumns
+  (JNIEnv *, jobject, jint, jint);
+
 /*
  * Class:     com_breadwallet_core_BRCoreWallet
  * Method:    getBalance
@@ -119,6 +167,22 @@ JNIEXPORT jlong JNICALL Java_com_breadwallet_core_BRCoreWallet_getFeePerKb
 JNIEXPORT void JNICALL Java_com_breadwallet_core_BRCoreWallet_setFeePerKb
   (JNIEnv *, jobject, jlong);
 
+/*
+ * Class:     com_breadwallet_core_BRCoreWallet
+ * Method:    getCoinSelectionValue
+ * Signature: ()I
+ */
+JNIEXPORT jint JNICALL Java_com_breadwallet_core_BRCoreWallet_getCoinSelectionValue
+  (JNIEnv *, jobject);
+
+/*
+ * Class:     com_breadwallet_core_BRCoreWallet
+ * Method:    jniSetCoinSelection
+ * Signature: (II)V
+ */
+JNIEXPORT void JNICALL Java_com_breadwallet_core_BRCoreWallet_jniSetCoinSelection
+  (JNIEnv *, jobject, jint, jint);
+
 /*
  * Class:     com_breadwallet_core_BRCoreWallet
  * Method:    getMaxFeePerKb
@@ -151,6 +215,14 @@ JNIEXPORT jobject JNICALL Java_com_breadwallet_core_BRCoreWallet_createTransacti
 JNIEXPORT jobject JNICALL Java_com_breadwallet_core_BRCoreWallet_createTransactionForOutputs
   (JNIEnv *, jobject, jobjectArray);
 
+/*
+ * Class:     com_breadwallet_core_BRCoreWallet
+ * Method:    jniCreateTransactionForPayouts
+ * Signature: ([Ljava/lang/String;[J)Lcom/breadwallet/core/BRCoreTransaction;
+ */
+JNIEXPORT jobject JNICALL Java_com_breadwallet_core_BRCoreWallet_jniCreateTransactionForPayouts
+  (JNIEnv *, jobject, jobjectArray, jlongArray);
+
 /*
  * Class:     com_breadwallet_core_BRCoreWallet
  * Method:    signTransaction
@@ -159,6 +231,22 @@ JNIEXPORT jobject JNICALL Java_com_breadwallet_core_BRCoreWallet_createTransacti
 JNIEXPORT jboolean JNICALL Java_com_breadwallet_core_BRCoreWallet_signTransaction
   (JNIEnv *, jobject, jobject, jbyteArray);
 
+/*
+ * Class:     com_breadwallet_core_BRCoreWallet
+ * Method:    jniSignTransactionParallel
+ * Signature: (Lcom/breadwallet/core/BRCoreTransaction;[BI)Z
+ */
+JNIEXPORT jboolean JNICALL Java_com_breadwallet_core_BRCoreWallet_jniSignTransactionParallel
+  (JNIEnv *, jobject, jobject, jbyteArray, jint);
+
+/*
+ * Class:     com_breadwallet_core_BRCoreWallet
+ * Method:    jniSignTransactionWithSeed
+ * Signature: (Lcom/breadwallet/core/BRCoreTransaction;Lcom/breadwallet/core/BRCoreSeed;I)Z
+ */
+JNIEXPORT jboolean JNICALL Java_com_breadwallet_core_BRCoreWallet_jniSignTransactionWithSeed
+  (JNIEnv *, jobject, jobject, jobject, jint);
+
 /*
  * Class:     com_breadwallet_core_BRCoreWallet
  * Method:    containsTransaction
@@ -255,6 +343,14 @@ JNIEXPORT jlong JNICALL Java_com_breadwallet_core_BRCoreWallet_getTransactionAmo
 JNIEXPORT jlong JNICALL Java_com_breadwallet_core_BRCoreWallet_getBalanceAfterTransaction
   (JNIEnv *, jobject, jobject);
 
+/*
+ * Class:     com_breadwallet_core_BRCoreWallet
+ * Method:    jniGetBalanceHistory
+ * Signature: (JJI)Lcom/breadwallet/core/BRCoreWallet$BalanceHistory;
+ */
+JNIEXPORT jobject JNICALL Java_com_breadwallet_core_BRCoreWallet_jniGetBalanceHistory
+  (JNIEnv *, jobject, jlong, jlong, jint);
+
 /*
  * Class:     com_breadwallet_core_BRCoreWallet
  * Method:    getFeeForTransactionSize
@@ -271,6 +367,14 @@ JNIEXPORT jlong JNICALL Java_com_breadwallet_core_BRCoreWallet_getFeeForTransact
 JNIEXPORT jlong JNICALL Java_com_breadwallet_core_BRCoreWallet_getFeeForTransactionAmount
   (JNIEnv *, jobject, jlong);
 
+/*
+ * Class:     com_breadwallet_core_BRCoreWallet
+ * Method:    jniGetFeeQuotes
+ * Signature: ([J[J[J[I[I)V
+ */
+JNIEXPORT void JNICALL Java_com_breadwallet_core_BRCoreWallet_jniGetFeeQuotes
+  (JNIEnv *, jobject, jlongArray, jlongArray, jlongArray, jintArray, jintArray);
+
 /*
  * Class:     com_breadwallet_core_BRCoreWallet
  * Method:    getMinOutputAmount
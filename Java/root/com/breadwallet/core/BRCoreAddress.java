@@ -58,6 +58,24 @@ public class BRCoreAddress extends BRCoreJniReference {
 
     public native String stringify ();
 
+    /**
+     * The address strings for packed 20-byte hash160s, such as from
+     * BRCoreMasterPubKey.deriveHash160s()
+     *
+     * @param hash160s
+     * @return
+     */
+    public static native String[] stringifyHash160s (byte[] hash160s);
+
+    /**
+     * The packed 20-byte hash160s of `addresses`; the inverse of stringifyHash160s().  The
+     * hash160 of an invalid (or null) address is all zeros.
+     *
+     * @param addresses
+     * @return
+     */
+    public static native byte[] hash160sOfAddresses (String[] addresses);
+
     public native boolean isValid ();
 
     public native byte[] getPubKeyScript();
@@ -0,0 +1,150 @@
+/*
+ * BreadWallet
+ *
+ * Created by Ed Gamble <ed@breadwallet.com> on 1/22/18.
+ * Copyright (c) 2018 breadwallet LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.breadwallet.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A scope for BRCoreJniReference objects whose Core memory is freed all together, in one
+ * native call, when the arena is closed - rather than one-by-one as each object is GCed.
+ *
+ * Every BRCoreJniReference created on this thread while the arena is open (including those
+ * created by natives such as BRCoreTransaction.getInputs() or BRCoreWallet.getAllAddresses())
+ * is adopted by the arena; other objects can be adopted explicitly.  Arenas nest - closing an
+ * inner arena reopens the outer one.
+ *
+ * <pre>
+ *     try (BRCoreArena arena = BRCoreArena.open()) {
+ *         for (byte[] buffer : blockTransactions) {
+ *             BRCoreTransaction transaction = new BRCoreTransaction(buffer);
+ *             ... transaction.getInputs() ...
+ *         }
+ *     }
+ * </pre>
+ *
+ * Adopted objects must not be used once the arena is closed.  Objects whose Core memory is
+ * disowned while in the arena (e.g. a BRCoreTransaction registered with a wallet) are not freed.
+ */
+public class BRCoreArena implements AutoCloseable {
+
+    private static final ThreadLocal<BRCoreArena> currentArena = new ThreadLocal<>();
+
+    private final Thread thread;
+
+    private final BRCoreArena outer;
+
+    private List<BRCoreJniReference> references = new ArrayList<>();
+
+    private BRCoreArena () {
+        this.thread = Thread.currentThread();
+        this.outer  = currentArena.get();
+    }
+
+    /**
+     * Open a new arena on the current thread.
+     *
+     * @return the arena
+     */
+    public static BRCoreArena open () {
+        BRCoreArena arena = new BRCoreArena();
+        currentArena.set(arena);
+        return arena;
+    }
+
+    static BRCoreArena current () {
+        return currentArena.get();
+    }
+
+    /**
+     * Adopt `reference` into this arena; it is freed when the arena closes.
+     *
+     * @param reference
+     * @return `reference`
+     */
+    public synchronized <T extends BRCoreJniReference> T adopt (T reference) {
+        if (null == references)
+            throw new IllegalStateException("BRCoreArena is closed");
+        references.add(reference);
+        return reference;
+    }
+
+    /**
+     * @return the number of objects adopted (and not yet freed) by this arena
+     */
+    public synchronized int size () {
+        return null == references ? 0 : references.size();
+    }
+
+    private synchronized boolean isClosed () {
+        return null == references;
+    }
+
+    /**
+     * Free the Core memory of every adopted object.  Must be called on the thread that opened
+     * the arena.  Closing an already closed arena does nothing.
+     */
+    @Override
+    public void close () {
+        if (thread != Thread.currentThread())
+            throw new IllegalStateException("BRCoreArena closed off its thread");
+
+        List<BRCoreJniReference> references;
+        synchronized (this) {
+            if (null == this.references) return;
+            references = this.references;
+            this.references = null;
+        }
+
+        if (this == currentArena.get()) {
+            // reopen the nearest outer arena still open; outer arenas may be closed out of order
+            BRCoreArena arena = outer;
+            while (null != arena && arena.isClosed())
+                arena = arena.outer;
+
+            if (null == arena) currentArena.remove();
+            else currentArena.set(arena);
+        }
+
+        Class<?>[] classes = new Class<?>[references.size()];
+        long[] addresses = new long[references.size()];
+        int count = 0;
+
+        for (BRCoreJniReference reference : references) {
+            if (reference.releaseNative()) {
+                classes[count] = reference.getClass();
+                addresses[count] = reference.jniReferenceAddress;
+                reference.jniReferenceAddress = 0;
+                count++;
+            }
+        }
+
+        try {
+            BRCoreJniReclaimer.disposeNativeReferences(classes, addresses, count);
+        } finally {
+            BRCoreJniReclaimer.noteDisposed(BRCoreJniReclaimer.countDisposed(addresses, count));
+        }
+    }
+}
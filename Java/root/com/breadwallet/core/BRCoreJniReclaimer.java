@@ -0,0 +1,186 @@
+/*
+ * BreadWallet
+ *
+ * Created by Ed Gamble <ed@breadwallet.com> on 1/22/18.
+ * Copyright (c) 2018 breadwallet LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.breadwallet.core;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reclaim the Core memory held by a BRCoreJniReference once the Java object is unreachable.
+ *
+ * Every BRCoreJniReference registers a PhantomReference holding its class and its JNI reference
+ * address.  A single daemon thread drains the ReferenceQueue, in batches, and frees the Core
+ * memory - the Java object is long gone by then, so the free is performed by the subclass'
+ * disposeNative() on a constructor-less shell of the same class (see disposeNativeReferences()).  Unlike
+ * finalize(), nothing here holds the object through an extra GC cycle and the work does not
+ * compete with every other finalizer in the VM.
+ */
+final class BRCoreJniReclaimer {
+
+    private static final ReferenceQueue<BRCoreJniReference> queue =
+            new ReferenceQueue<>();
+
+    //
+    // The PhantomReferences themselves must stay reachable until enqueued; otherwise they are
+    // collected with their referent and never show up in `queue`.
+    //
+    private static final Set<Reclaimable> reclaimables =
+            Collections.newSetFromMap(new ConcurrentHashMap<Reclaimable, Boolean>());
+
+    private static final AtomicLong pendingCount   = new AtomicLong(0);
+    private static final AtomicLong reclaimedCount = new AtomicLong(0);
+    private static final AtomicLong disposedCount  = new AtomicLong(0);
+
+    static final class Reclaimable extends PhantomReference<BRCoreJniReference> {
+        private final Class<? extends BRCoreJniReference> referenceClass;
+        private final long address;
+
+        /**
+         * Once released the Core memory is either already freed (by an explicit dispose()) or
+         * owned by some other Core entity (a transaction registered with a wallet).  Either
+         * way the reclaimer must not free it.
+         */
+        private boolean released = false;
+
+        private Reclaimable (BRCoreJniReference reference, long address) {
+            super (reference, queue);
+            this.referenceClass = reference.getClass();
+            this.address = address;
+        }
+
+        /**
+         * Release the Core memory from reclamation.
+         *
+         * @return true if this call did the release; false if already released.
+         */
+        synchronized boolean release () {
+            if (released) return false;
+            released = true;
+            if (reclaimables.remove(this)) pendingCount.decrementAndGet();
+            clear();
+            return true;
+        }
+    }
+
+    static Reclaimable register (BRCoreJniReference reference, long address) {
+        Reclaimable reclaimable = new Reclaimable(reference, address);
+        reclaimables.add(reclaimable);
+        pendingCount.incrementAndGet();
+        return reclaimable;
+    }
+
+    static void noteDisposed (long count) {
+        disposedCount.addAndGet(count);
+    }
+
+    static long getPendingCount () {
+        return pendingCount.get();
+    }
+
+    static long getReclaimedCount () {
+        return reclaimedCount.get();
+    }
+
+    static long getDisposedCount () {
+        return disposedCount.get();
+    }
+
+    /** The most references freed by the drainer in one native call. */
+    private static final int RECLAIM_BATCH_SIZE = 256;
+
+    /**
+     * Free the Core memory of every `reclaimable` (as returned by queue.remove()) plus whatever
+     * else is already enqueued, up to RECLAIM_BATCH_SIZE, in one native call.
+     */
+    private static void reclaim (Reclaimable reclaimable) {
+        Class<?>[] classes = new Class<?>[RECLAIM_BATCH_SIZE];
+        long[] addresses = new long[RECLAIM_BATCH_SIZE];
+        int count = 0;
+
+        while (null != reclaimable && count < RECLAIM_BATCH_SIZE) {
+            if (reclaimable.release()) {
+                if (BRCoreJniReference.SHOW_FINALIZE)
+                    System.err.println("Reclaim: " + reclaimable.referenceClass.getName()
+                            + " JNI=" + Long.toHexString(reclaimable.address));
+
+                classes[count] = reclaimable.referenceClass;
+                addresses[count] = reclaimable.address;
+                count++;
+            }
+            if (count < RECLAIM_BATCH_SIZE)
+                reclaimable = (Reclaimable) queue.poll();
+        }
+
+        try {
+            disposeNativeReferences(classes, addresses, count);
+        } finally {
+            reclaimedCount.addAndGet(countDisposed(addresses, count));
+        }
+    }
+
+    /**
+     * Invoke `classes[i]`'s disposeNative() for the Core memory at `addresses[i]`, for each
+     * of the first `count` entries with a non-zero address, and zero the address of each one
+     * disposed.  An exception does not stop the others; the first one raised is thrown once
+     * all have been tried.
+     */
+    static native void disposeNativeReferences (Class<?>[] classes,
+                                                long[] addresses,
+                                                int count);
+
+    /**
+     * @return the number of the first `count` of `addresses` that disposeNativeReferences()
+     *         disposed, given that all were non-zero beforehand.
+     */
+    static int countDisposed (long[] addresses, int count) {
+        int disposed = 0;
+        for (int i = 0; i < count; i++)
+            if (0 == addresses[i]) disposed++;
+        return disposed;
+    }
+
+    static {
+        Thread drainer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (true) {
+                    try {
+                        reclaim((Reclaimable) queue.remove());
+                    } catch (InterruptedException ex) {
+                        // Keep draining; the reclaimer lives as long as the VM.
+                    } catch (Throwable t) {
+                        System.err.println("Reclaim failed: " + t);
+                    }
+                }
+            }
+        }, "BRCoreJniReclaimer");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+}
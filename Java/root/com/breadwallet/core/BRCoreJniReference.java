@@ -40,25 +40,90 @@ public abstract class BRCoreJniReference {
      */
     protected long jniReferenceAddress;
 
+    /**
+     * Reclaims the Core memory once this object is unreachable (in place of finalize()).  Null
+     * if there is no Core memory to reclaim.
+     */
+    private final BRCoreJniReclaimer.Reclaimable reclaimable;
+
     protected BRCoreJniReference (long jniReferenceAddress)
     {
         this.jniReferenceAddress = jniReferenceAddress;
+        this.reclaimable = (0 == jniReferenceAddress
+                ? null
+                : BRCoreJniReclaimer.register(this, jniReferenceAddress));
+
+        // Created within a BRCoreArena scope?  Then the arena frees us.
+        if (null != reclaimable) {
+            BRCoreArena arena = BRCoreArena.current();
+            if (null != arena) arena.adopt(this);
+        }
     }
 
     //
     //
     //
-    protected void finalize () throws Throwable {
-        if (SHOW_FINALIZE) System.err.println("Finalize: " + toString());
-        dispose ();
-    }
 
+    /**
+     * Free the Core memory now rather than when this object is reclaimed.  Safe to call more
+     * than once; only the first call frees.  Once freed the object must not be used.  Does
+     * nothing if the Core memory has been disowned.
+     */
     public void dispose () {
-        disposeNative ();
+        if (null != reclaimable && reclaimable.release()) {
+            if (SHOW_FINALIZE) System.err.println("Dispose: " + toString());
+            disposeNative ();
+            BRCoreJniReclaimer.noteDisposed(1);
+            jniReferenceAddress = 0;
+        }
+    }
+
+    /**
+     * Give up ownership of the Core memory - some other Core entity now frees it (such as a
+     * BRCoreWallet for a registered BRCoreTransaction).  Neither dispose() nor the reclaimer
+     * will free the memory afterwards.
+     */
+    protected void disownNative () {
+        if (null != reclaimable) reclaimable.release();
+    }
+
+    /**
+     * Release the Core memory from reclamation so that the caller can free it (see BRCoreArena).
+     *
+     * @return true if the caller must now free the Core memory; false if already disposed or
+     *         disowned.
+     */
+    boolean releaseNative () {
+        return null != reclaimable && reclaimable.release();
     }
 
     public native void disposeNative ();
 
+    //
+    // Reclamation Statistics
+    //
+
+    /**
+     * @return the number of Core references that are neither disposed, disowned nor reclaimed.
+     */
+    public static long getPendingReferenceCount () {
+        return BRCoreJniReclaimer.getPendingCount();
+    }
+
+    /**
+     * @return the number of Core references freed after their Java object was GCed.
+     */
+    public static long getReclaimedReferenceCount () {
+        return BRCoreJniReclaimer.getReclaimedCount();
+    }
+
+    /**
+     * @return the number of Core references freed by an explicit dispose().
+     */
+    public static long getDisposedReferenceCount () {
+        return BRCoreJniReclaimer.getDisposedCount();
+    }
+
     public String toString() {
         return getClass().getName() + "@" + Integer.toHexString(hashCode()) + " JNI=" + Long.toHexString(jniReferenceAddress);
     }
@@ -27,6 +27,7 @@ package com.breadwallet.core;
 
 
 import java.util.Arrays;
+import java.util.BitSet;
 
 public class BRCoreKey extends BRCoreJniReference {
 
@@ -228,4 +229,91 @@ public class BRCoreKey extends BRCoreJniReference {
     public native byte[] sign (byte[] messageDigest);
 
     public native boolean verify (byte[] messageDigest, byte[] signature);
+
+    //
+    // Batch Operations
+    //
+    // The batch operations take packed inputs, cross JNI once, and spread the secp256k1 work
+    // across up to `batchThreadCount` native threads.
+    //
+
+    private static int batchThreadCount = Runtime.getRuntime().availableProcessors();
+
+    public static int getBatchThreadCount () {
+        return batchThreadCount;
+    }
+
+    public static void setBatchThreadCount (int threadCount) {
+        if (threadCount < 1)
+            throw new IllegalArgumentException("Thread count must be positive: " + threadCount);
+        batchThreadCount = threadCount;
+    }
+
+    static void checkOffsets (String name, int[] offsets, int length) {
+        if (0 == offsets.length || 0 != offsets[0] || length != offsets[offsets.length - 1])
+            throw new IllegalArgumentException(name + " offsets must start at 0 and end at " + length);
+        for (int i = 1; i < offsets.length; i++)
+            if (offsets[i] < offsets[i - 1])
+                throw new IllegalArgumentException(name + " offsets must not decrease");
+    }
+
+    /**
+     * Verify a batch of (pubKey, messageDigest, signature) triples.  Triple `i` is:
+     *   pubKey        - pubKeys[pubKeyOffsets[i], pubKeyOffsets[i+1]), 33 or 65 bytes
+     *   messageDigest - messageDigests[32*i, 32*(i+1))
+     *   signature     - signatures[signatureOffsets[i], signatureOffsets[i+1]), DER encoded
+     * Thus the offsets arrays have one more element than the number of triples.
+     *
+     * @return a BitSet with bit `i` set if signature `i` verified
+     */
+    public static BitSet verifyBatch (byte[] pubKeys, int[] pubKeyOffsets,
+                                      byte[] messageDigests,
+                                      byte[] signatures, int[] signatureOffsets) {
+        checkOffsets("pubKey", pubKeyOffsets, pubKeys.length);
+        checkOffsets("signature", signatureOffsets, signatures.length);
+        int count = pubKeyOffsets.length - 1;
+        if (signatureOffsets.length - 1 != count || 32 * count != messageDigests.length)
+            throw new IllegalArgumentException("Mismatched batch sizes");
+
+        return BitSet.valueOf(jniVerifyBatch(pubKeys, pubKeyOffsets, messageDigests,
+                signatures, signatureOffsets, batchThreadCount));
+    }
+
+    /**
+     * Compact sign a batch of message digests with this key.
+     *
+     * @param messageDigests the packed digests, 32 bytes each
+     * @return the packed compact signatures, 65 bytes each (as compactSign()); all zero if
+     *         signing failed (such as for a key without a secret)
+     */
+    public byte[] compactSignBatch (byte[] messageDigests) {
+        if (0 != messageDigests.length % 32)
+            throw new IllegalArgumentException("Digests must be 32 bytes each");
+        return jniCompactSignBatch(messageDigests, batchThreadCount);
+    }
+
+    private native byte[] jniCompactSignBatch (byte[] messageDigests, int threadCount);
+
+    /**
+     * Recover the public keys from a batch of compact signatures, without creating a
+     * BRCoreKey for each.
+     *
+     * @param messageDigests the packed digests, 32 bytes each
+     * @param signatures the packed compact signatures, 65 bytes each
+     * @param compressed if true the keys are 33 bytes each, otherwise 65 bytes each
+     * @return the packed public keys; all zero for a signature that did not recover
+     */
+    public static byte[] compactRecoverBatch (byte[] messageDigests, byte[] signatures, boolean compressed) {
+        if (0 != messageDigests.length % 32 || 65 * (messageDigests.length / 32) != signatures.length)
+            throw new IllegalArgumentException("Mismatched batch sizes");
+        return jniCompactRecoverBatch(messageDigests, signatures, compressed, batchThreadCount);
+    }
+
+    private static native byte[] jniCompactRecoverBatch (byte[] messageDigests, byte[] signatures,
+                                                         boolean compressed, int threadCount);
+
+    private static native long[] jniVerifyBatch (byte[] pubKeys, int[] pubKeyOffsets,
+                                                 byte[] messageDigests,
+                                                 byte[] signatures, int[] signatureOffsets,
+                                                 int threadCount);
 }
@@ -53,6 +53,40 @@ public class BRCoreMasterPubKey extends BRCoreJniReference {
         return new BRCoreKey (createPubKey ());
     }
 
+    public static final int HASH160_SIZE = 20;
+
+    /**
+     * Derive the hash160 of public keys N(m/0H/chain/index) for each index in [startIndex,
+     * startIndex + count), packed; hash `i` is at [i * HASH160_SIZE, (i + 1) * HASH160_SIZE).
+     * N(m/0H/chain) is derived once per block of indices and the blocks are spread across
+     * BRCoreKey.getBatchThreadCount() threads.
+     *
+     * @param chain SEQUENCE_EXTERNAL_CHAIN (0) or SEQUENCE_INTERNAL_CHAIN (1)
+     * @param startIndex
+     * @param count
+     * @return
+     */
+    public byte[] deriveHash160s (int chain, int startIndex, int count) {
+        if (chain < 0 || startIndex < 0 || count < 0 || count > Integer.MAX_VALUE / HASH160_SIZE
+                || (long) startIndex + count > 1L << 31)
+            throw new IllegalArgumentException("Invalid derivation range: chain " + chain
+                    + ", index " + startIndex + ", count " + count);
+        return jniDeriveHash160s(chain, startIndex, count, BRCoreKey.getBatchThreadCount());
+    }
+
+    /**
+     * Derive the addresses for N(m/0H/chain/index) for each index in [startIndex, startIndex +
+     * count), as deriveHash160s()
+     *
+     * @param chain
+     * @param startIndex
+     * @param count
+     * @return
+     */
+    public String[] deriveAddresses (int chain, int startIndex, int count) {
+        return BRCoreAddress.stringifyHash160s(deriveHash160s(chain, startIndex, count));
+    }
+
 
     /**
      * Constructor from `bytes`.  If `isPaperKey` is true, then `bytes` represents that
@@ -77,6 +111,8 @@ public class BRCoreMasterPubKey extends BRCoreJniReference {
     //
     private native long createPubKey ();
 
+    private native byte[] jniDeriveHash160s (int chain, int startIndex, int count, int threadCount);
+
     private static native long createJniCoreMasterPubKeyFromPhrase (byte[] phrase);
 
     private static native long createJniCoreMasterPubKeyFromSerialization(byte[] pubKey);
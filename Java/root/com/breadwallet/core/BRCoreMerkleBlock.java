@@ -24,6 +24,8 @@
  */
 package com.breadwallet.core;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 /**
@@ -31,8 +33,32 @@ import java.util.Arrays;
  */
 public class BRCoreMerkleBlock extends BRCoreJniReference {
 
+    /**
+     * @param block
+     * @param blockHeight the height, or -1 if unknown
+     * @throws IllegalArgumentException if `block` is not a block
+     */
     public BRCoreMerkleBlock(byte[] block, int blockHeight) {
-        this (createJniCoreMerkleBlock (block, blockHeight));
+        this (checkParsed (createJniCoreMerkleBlock (block, blockHeight)));
+    }
+
+    /**
+     * Parse a block from exactly the `buffer` bytes between its position and limit, without
+     * copying them onto the Java heap if `buffer` is direct.  A serialized block carries no
+     * length (a header-only block would absorb any bytes that follow it) so the caller must
+     * bound the block with the buffer's limit.  The buffer's position is advanced to its limit.
+     *
+     * @param buffer
+     * @param blockHeight the height, or -1 if unknown
+     * @throws IllegalArgumentException if `buffer` does not hold exactly one block
+     */
+    public BRCoreMerkleBlock(ByteBuffer buffer, int blockHeight) {
+        this (createJniCoreMerkleBlockFromBufferOrError (buffer, blockHeight));
+        if (getSerializedSize() != buffer.remaining()) {
+            dispose();
+            throw new IllegalArgumentException("Not exactly one MerkleBlock");
+        }
+        buffer.position (buffer.limit());
     }
 
     protected BRCoreMerkleBlock (long jniReferenceAddress) {
@@ -49,6 +75,25 @@ public class BRCoreMerkleBlock extends BRCoreJniReference {
     // Test
     private static native long createJniCoreMerkleBlockEmpty ();
 
+    private static native long createJniCoreMerkleBlockFromBuffer (ByteBuffer buffer, int offset, int length,
+                                                                   int blockHeight);
+
+    private static long createJniCoreMerkleBlockFromBufferOrError (ByteBuffer buffer, int blockHeight) {
+        if (buffer.isDirect())
+            return checkParsed (createJniCoreMerkleBlockFromBuffer (buffer, buffer.position(),
+                    buffer.remaining(), blockHeight));
+
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return checkParsed (createJniCoreMerkleBlock (bytes, blockHeight));
+    }
+
+    private static long checkParsed (long jniReferenceAddress) {
+        if (0 == jniReferenceAddress)
+            throw new IllegalArgumentException("Not a MerkleBlock");
+        return jniReferenceAddress;
+    }
+
     public native byte[] getBlockHash ();
 
     public native long getVersion ();
@@ -78,6 +123,37 @@ public class BRCoreMerkleBlock extends BRCoreJniReference {
      */
     public native byte[] serialize ();
 
+    /**
+     * Serialize the block into `buffer` at its position, advancing the position.  If `buffer`
+     * is direct, Core serializes straight into it.
+     *
+     * @param buffer
+     * @return the number of bytes written
+     * @throws BufferOverflowException if `buffer` has fewer than getSerializedSize() bytes remaining
+     */
+    public int serialize (ByteBuffer buffer) {
+        if (!buffer.isDirect()) {
+            byte[] bytes = serialize();
+            buffer.put (bytes);
+            return bytes.length;
+        }
+
+        int position = buffer.position();
+        int size = jniSerializeToBuffer (buffer, position, buffer.limit() - position);
+        if (size > buffer.limit() - position)
+            throw new BufferOverflowException();
+
+        buffer.position (position + size);
+        return size;
+    }
+
+    /**
+     * @return the size, in bytes, of the serialized block
+     */
+    public native long getSerializedSize ();
+
+    private native int jniSerializeToBuffer (ByteBuffer buffer, int offset, int length);
+
     public native boolean isValid (long currentTime);
 
     /**
@@ -0,0 +1,300 @@
+/*
+ * BreadWallet
+ *
+ * Created by Ed Gamble <ed@breadwallet.com> on 1/22/18.
+ * Copyright (c) 2018 breadwallet LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.breadwallet.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An append-only file of serialized BRCoreMerkleBlocks, suitable for
+ * BRCorePeerManager.Listener.saveBlocks() and the `blocks` passed to a new BRCorePeerManager.
+ *
+ * The file is a header followed by records:
+ *
+ *      header: MAGIC (int), VERSION (int)
+ *      record: size (int), height (int), block hash (32 bytes), serialized block (size bytes)
+ *
+ * A `replace` save truncates the file before appending; otherwise blocks are appended and, on
+ * load, a later record for a block hash supersedes any earlier one.  Loading maps the file and
+ * parses each block straight from the mapping - no block bytes are copied onto the Java heap.
+ * Once superseded records outnumber live ones the file is compacted, by writing the live
+ * records to a sibling file that then replaces it.  A partially written final record (from a
+ * crash mid-save) is discarded.
+ */
+public class BRCoreMerkleBlockStore {
+    private static final int MAGIC   = 0x42524d42; // "BRMB"
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 4 + 4;
+    private static final int RECORD_HEADER_SIZE = 4 + 4 + 32;
+
+    private final File file;
+
+    private RandomAccessFile randomAccessFile;
+
+    private FileChannel channel;
+
+    // The number of records in the file, including superseded ones.
+    private int recordCount = 0;
+
+    public BRCoreMerkleBlockStore(File file) throws IOException {
+        this.file = file;
+        open();
+    }
+
+    public File getFile () {
+        return file;
+    }
+
+    /**
+     * @return the number of records in the file, including superseded ones
+     */
+    public synchronized int getRecordCount () {
+        return recordCount;
+    }
+
+    /**
+     * Load every (non-superseded) block, in the order first saved.
+     *
+     * @return the blocks
+     * @throws IOException
+     */
+    public synchronized BRCoreMerkleBlock[] load () throws IOException {
+        MappedByteBuffer mapped = map();
+        Map<String, Integer> index = scan(mapped);
+
+        BRCoreMerkleBlock[] blocks = new BRCoreMerkleBlock[index.size()];
+        int blockIndex = 0;
+        for (int recordOffset : index.values()) {
+            int size   = mapped.getInt(recordOffset);
+            int height = mapped.getInt(recordOffset + 4);
+
+            ByteBuffer serialized = mapped.duplicate();
+            serialized.position(recordOffset + RECORD_HEADER_SIZE);
+            serialized.limit(recordOffset + RECORD_HEADER_SIZE + size);
+
+            blocks[blockIndex++] = new BRCoreMerkleBlock(serialized, height);
+        }
+
+        if (blocks.length < recordCount / 2)
+            compact(mapped, index.values());
+
+        return blocks;
+    }
+
+    private MappedByteBuffer map () throws IOException {
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        mapped.order(ByteOrder.BIG_ENDIAN);
+        return mapped;
+    }
+
+    /**
+     * Scan the record headers in `mapped`, discarding any partial final record.
+     *
+     * @return an index of block hash -> record offset, in the order first saved, for
+     *         non-superseded records.
+     */
+    private Map<String, Integer> scan (MappedByteBuffer mapped) throws IOException {
+        long fileSize = mapped.capacity();
+
+        Map<String, Integer> index = new LinkedHashMap<>();
+        byte[] hash = new byte[32];
+        int offset = HEADER_SIZE;
+        int records = 0;
+
+        while (offset + RECORD_HEADER_SIZE <= fileSize) {
+            int size = mapped.getInt(offset);
+            if (size <= 0 || offset + RECORD_HEADER_SIZE + (long) size > fileSize) break;
+
+            mapped.position(offset + 8);
+            mapped.get(hash);
+            index.put(BRCoreWalletManager.bytesToHex(hash), offset);
+
+            offset += RECORD_HEADER_SIZE + size;
+            records++;
+        }
+
+        if (offset < fileSize) channel.truncate(offset);
+        recordCount = records;
+        return index;
+    }
+
+    /**
+     * Save `blocks`.  If `replace` then all previously saved blocks are discarded.
+     *
+     * @param replace
+     * @param blocks
+     * @throws IOException
+     */
+    public synchronized void save (boolean replace, BRCoreMerkleBlock[] blocks) throws IOException {
+        if (replace) rewrite(blocks);
+        else append(blocks);
+    }
+
+    public synchronized void close () throws IOException {
+        channel.close();
+        randomAccessFile.close();
+    }
+
+    private void append (BRCoreMerkleBlock[] blocks) throws IOException {
+        ByteBuffer buffer = encode(blocks);
+        channel.position(channel.size());
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        channel.force(false);
+
+        recordCount += blocks.length;
+    }
+
+    private ByteBuffer encode (BRCoreMerkleBlock[] blocks) {
+        int bufferSize = 0;
+        for (BRCoreMerkleBlock block : blocks)
+            bufferSize += RECORD_HEADER_SIZE + (int) block.getSerializedSize();
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+        for (BRCoreMerkleBlock block : blocks) {
+            int sizePosition = buffer.position();
+            buffer.putInt(0);
+            buffer.putInt((int) block.getHeight());
+            buffer.put(block.getBlockHash());
+            buffer.putInt(sizePosition, block.serialize(buffer));
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Rewrite the file with only `blocks`.  As with compact(), the original is replaced only
+     * once the new file is complete.
+     */
+    private void rewrite (BRCoreMerkleBlock[] blocks) throws IOException {
+        File compactFile = new File(file.getPath() + ".compact");
+        RandomAccessFile compactRandomAccessFile = new RandomAccessFile(compactFile, "rw");
+        FileChannel compactChannel = compactRandomAccessFile.getChannel();
+        try {
+            compactChannel.truncate(0);
+            ByteBuffer buffer = header();
+            while (buffer.hasRemaining())
+                compactChannel.write(buffer);
+            buffer = encode(blocks);
+            while (buffer.hasRemaining())
+                compactChannel.write(buffer);
+            compactChannel.force(false);
+        }
+        finally {
+            compactChannel.close();
+            compactRandomAccessFile.close();
+        }
+
+        replaceWith(compactFile);
+    }
+
+    /**
+     * Rewrite the file with only the records at `offsets` in `mapped`.  The records are written
+     * to a sibling file which then replaces the original, so that a crash or failure part way
+     * through leaves the original intact.
+     */
+    private void compact (MappedByteBuffer mapped, Collection<Integer> offsets) throws IOException {
+        File compactFile = new File(file.getPath() + ".compact");
+        RandomAccessFile compactRandomAccessFile = new RandomAccessFile(compactFile, "rw");
+        FileChannel compactChannel = compactRandomAccessFile.getChannel();
+        try {
+            compactChannel.truncate(0);
+            ByteBuffer header = header();
+            while (header.hasRemaining())
+                compactChannel.write(header);
+            for (int offset : offsets) {
+                long position  = offset;
+                long remaining = RECORD_HEADER_SIZE + mapped.getInt(offset);
+                while (remaining > 0) {
+                    long count = channel.transferTo(position, remaining, compactChannel);
+                    position  += count;
+                    remaining -= count;
+                }
+            }
+            compactChannel.force(false);
+        }
+        finally {
+            compactChannel.close();
+            compactRandomAccessFile.close();
+        }
+
+        replaceWith(compactFile);
+    }
+
+    private void replaceWith (File compactFile) throws IOException {
+        close();
+        boolean replaced = compactFile.renameTo(file);
+        open();
+        if (!replaced)
+            throw new IOException("Failed to replace " + file);
+    }
+
+    private void open () throws IOException {
+        randomAccessFile = new RandomAccessFile(file, "rw");
+        channel = randomAccessFile.getChannel();
+
+        if (channel.size() < HEADER_SIZE || MAGIC != readHeaderMagic())
+            reset();
+        else
+            scan(map());
+    }
+
+    private ByteBuffer header () {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.flip();
+        return header;
+    }
+
+    private void reset () throws IOException {
+        channel.truncate(0);
+
+        ByteBuffer header = header();
+        channel.position(0);
+        while (header.hasRemaining())
+            channel.write(header);
+        channel.force(false);
+
+        recordCount = 0;
+    }
+
+    private int readHeaderMagic () throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        channel.position(0);
+        while (header.hasRemaining() && channel.read(header) > 0);
+        header.flip();
+        return header.remaining() < HEADER_SIZE ? 0 : header.getInt();
+    }
+}
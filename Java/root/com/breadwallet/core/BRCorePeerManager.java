@@ -25,6 +25,8 @@
 package com.breadwallet.core;
 
 import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  *
@@ -62,6 +64,11 @@ public class BRCorePeerManager extends BRCoreJniReference {
     //
     protected BRCoreWallet wallet;
 
+    //
+    // Wallets added with addWallet(); held here so they aren't GCed while the Core uses them
+    //
+    protected final List<BRCoreWallet> addedWallets = new ArrayList<>();
+
     //
     // Hold a weak reference to the listener.  It is a weak reference because it is likely to
     // be self-referential which would prevent GC of this PeerManager.  This listener is used
@@ -126,11 +133,136 @@ public class BRCorePeerManager extends BRCoreJniReference {
 
     public native String getCurrentPeerName ();
 
+    //
+    // Shared Wallets
+    //
+
+    /**
+     * Add `wallet` to the wallets served by this PeerManager.  All wallets share the peer
+     * connections, the block chain and a combined bloom filter; each wallet's transactions and
+     * balance are reported through its own BRCoreWallet.Listener.  Transactions received before
+     * the wallet was added require a rescan.
+     *
+     * @param wallet
+     * @param earliestKeyTime the wallet's earliest key time, in seconds since the unix epoch
+     */
+    public synchronized void addWallet (BRCoreWallet wallet, double earliestKeyTime) {
+        if (wallet == this.wallet || addedWallets.contains(wallet)) return;
+        addedWallets.add(wallet);
+        jniAddWallet(wallet, (long) earliestKeyTime);
+    }
+
+    /**
+     * Remove a wallet added with addWallet().  The wallet this PeerManager was created with
+     * can't be removed.
+     *
+     * @param wallet
+     */
+    public synchronized void removeWallet (BRCoreWallet wallet) {
+        if (wallet == this.wallet)
+            throw new IllegalArgumentException("Can't remove the PeerManager's own wallet");
+        if (!addedWallets.remove(wallet)) return;
+        jniRemoveWallet(wallet);
+    }
+
+    /**
+     * @return the number of wallets served, including the one this PeerManager was created with
+     */
+    public native int getWalletCount ();
+
+    private native void jniAddWallet (BRCoreWallet wallet, long earliestKeyTime);
+
+    private native void jniRemoveWallet (BRCoreWallet wallet);
+
+    //
+    // Bloom Filter
+    //
+
+    /**
+     * The bloom filter policy, the current filter and counts of the transactions it matched,
+     * as of getFilterStats()
+     */
+    public static class FilterStats {
+        /** The false positive rate filters are built for */
+        public final double falsePositiveRate;
+
+        /** The filter is rebuilt when observedFalsePositiveRate exceeds falsePositiveRate * rebuildFactor */
+        public final double rebuildFactor;
+
+        /** The filter tweak, or 0 if it differs per peer */
+        public final long tweak;
+
+        /** The smoothed false positive rate observed in downloaded blocks */
+        public final double observedFalsePositiveRate;
+
+        /** The current filter size in bytes, or 0 if a filter update is pending */
+        public final long length;
+
+        public final long hashFuncs;
+
+        /** The number of elements the current filter was sized for */
+        public final long elementCount;
+
+        /** The number of filters built and loaded to peers */
+        public final long loadCount;
+
+        /** The number of distinct transactions matched by the current filter, in blocks or relayed by peers */
+        public final long matchedTransactionCount;
+
+        /** The number of matched transactions that belong to a wallet */
+        public final long walletTransactionCount;
+
+        protected FilterStats(double[] rates, long[] counts) {
+            this.falsePositiveRate = rates[0];
+            this.rebuildFactor = rates[1];
+            this.observedFalsePositiveRate = rates[2];
+            this.tweak = counts[0];
+            this.length = counts[1];
+            this.hashFuncs = counts[2];
+            this.elementCount = counts[3];
+            this.loadCount = counts[4];
+            this.matchedTransactionCount = counts[5];
+            this.walletTransactionCount = counts[6];
+        }
+    }
+
+    /**
+     * Set the false positive rate bloom filters are built for (0.00005 by default), the multiple
+     * of it the observed rate may drift to before the filter is rebuilt (10 by default), and the
+     * filter tweak, or 0 for a tweak that differs per peer (the default).  A new rate or tweak
+     * rebuilds the filter.
+     *
+     * @param falsePositiveRate
+     * @param rebuildFactor
+     * @param tweak
+     */
+    public void setFilterPolicy (double falsePositiveRate, double rebuildFactor, long tweak) {
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1))
+            throw new IllegalArgumentException("False positive rate must be in (0, 1): " + falsePositiveRate);
+        if (!(rebuildFactor > 1))
+            throw new IllegalArgumentException("Rebuild factor must exceed 1: " + rebuildFactor);
+        if (tweak < 0 || tweak > 0xffffffffL)
+            throw new IllegalArgumentException("Tweak must be a uint32: " + tweak);
+        jniSetFilterPolicy(falsePositiveRate, rebuildFactor, tweak);
+    }
+
+    public FilterStats getFilterStats () {
+        double[] rates = new double[3];
+        long[] counts = new long[7];
+        jniGetFilterStats(rates, counts);
+        return new FilterStats(rates, counts);
+    }
+
+    private native void jniSetFilterPolicy (double falsePositiveRate, double rebuildFactor, long tweak);
+
+    private native void jniGetFilterStats (double[] rates, long[] counts);
+
     @Override
-    protected void finalize() throws Throwable {
-        if (BRCorePeer.ConnectStatus.Disconnected != getConnectStatus())
+    public void dispose() {
+        if (0 != jniReferenceAddress
+                && BRCorePeer.ConnectStatus.Disconnected != getConnectStatus())
             System.out.println ("Disposing PeerManager while not DISCONNECTED: " + this.toString());
-        super.finalize();
+        super.dispose();
     }
 
     /**
@@ -176,6 +308,35 @@ public class BRCorePeerManager extends BRCoreJniReference {
      */
     public native int getPeerCount();
 
+    /**
+     * A connected peer, with its ping time and last block height as of getConnectedPeers()
+     */
+    public static class ConnectedPeer {
+        public final BRCorePeer peer;
+
+        /** The ping time, in seconds */
+        public final double pingTime;
+
+        public final long lastBlock;
+
+        protected ConnectedPeer(BRCorePeer peer, double pingTime, long lastBlock) {
+            this.peer = peer;
+            this.pingTime = pingTime;
+            this.lastBlock = lastBlock;
+        }
+    }
+
+    /**
+     * @return the currently connected peers
+     */
+    public native ConnectedPeer[] getConnectedPeers ();
+
+    /**
+     * @return the peers that have failed to connect, or disconnected with a network error,
+     *         since the prior call
+     */
+    public native BRCorePeer[] getFailedPeers ();
+
     /**
      *
      * @return
@@ -189,8 +350,8 @@ public class BRCorePeerManager extends BRCoreJniReference {
     public void publishTransaction (BRCoreTransaction transaction) {
         // Calling publishTransactionWithListener will 'give' transaction to the wallet.  Thus
         // it must be considered 'registered' if we are not copying.
-        transaction.isRegistered = transaction.isRegistered
-                || !BRCoreTransaction.JNI_COPIES_TRANSACTIONS;
+        transaction.setRegistered(transaction.isRegistered
+                || !BRCoreTransaction.JNI_COPIES_TRANSACTIONS);
         publishTransactionWithListener(transaction, listener.get());
 
     }
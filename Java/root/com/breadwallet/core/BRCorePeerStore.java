@@ -0,0 +1,321 @@
+/*
+ * BreadWallet
+ *
+ * Created by Ed Gamble <ed@breadwallet.com> on 1/22/18.
+ * Copyright (c) 2018 breadwallet LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.breadwallet.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A persistent cache of peers, with per-peer connection statistics, suitable for
+ * BRCorePeerManager.Listener.savePeers() and the `peers` passed to a new BRCorePeerManager.
+ *
+ * Peers come from savePeers().  Statistics come from sampling the peer manager's connected
+ * peers (see recordConnectedPeers()): ping time, last block and a connect success each time a
+ * peer is newly seen connected; and its failed peers (see recordFailedPeers()): a connect
+ * failure each.  Peers that fail repeatedly are forgotten.
+ *
+ * load() returns peers best score first.  The Core orders peers by timestamp, and favours
+ * recent ones when connecting, so load() re-stamps the recent peers in score order.
+ */
+public class BRCorePeerStore {
+    private static final int MAGIC   = 0x42525045; // "BRPE"
+    private static final int VERSION = 1;
+
+    // As in BRPeerManager - limit total to 2500 peers
+    private static final int MAXIMUM_PEERS = 2500;
+
+    // Peers with this many failures, and more failures than successes, are forgotten.
+    private static final int MAXIMUM_CONNECT_FAILURES = 3;
+
+    // As in BRPeerManager - peers older than this trigger a DNS seed lookup
+    private static final long RECENT_PEER_INTERVAL = 3 * 24 * 60 * 60;
+
+    // A peer within this many blocks of the best last block is up to date.
+    private static final long LAST_BLOCK_TOLERANCE = 6;
+
+    static class Entry {
+        byte[] address;
+        int port;
+        long timestamp;
+        double pingTime = -1; // unknown
+        long lastBlock = 0;   // unknown
+        int connectSuccesses = 0;
+        int connectFailures = 0;
+
+        String getKey () {
+            return getKey(address, port);
+        }
+
+        static String getKey (byte[] address, int port) {
+            return BRCoreWalletManager.bytesToHex(address) + ":" + port;
+        }
+    }
+
+    private final File file;
+
+    private Map<String, Entry> entries = new HashMap<>();
+
+    // Keys of the peers connected as of the last recordConnectedPeers()
+    private Set<String> connected = new HashSet<>();
+
+    private boolean dirty = false;
+
+    public BRCorePeerStore(File file) throws IOException {
+        this.file = file;
+        if (file.exists()) read();
+    }
+
+    public File getFile () {
+        return file;
+    }
+
+    public synchronized int getPeerCount () {
+        return entries.size();
+    }
+
+    /**
+     * Load the peers, best score first.
+     *
+     * @return the peers
+     */
+    public synchronized BRCorePeer[] load () {
+        List<Entry> ranked = rank();
+
+        long latest = 0;
+        for (Entry entry : ranked)
+            latest = Math.max(latest, entry.timestamp);
+
+        long recent = System.currentTimeMillis() / 1000 - RECENT_PEER_INTERVAL;
+
+        BRCorePeer[] peers = new BRCorePeer[ranked.size()];
+        int rank = 0;
+        for (Entry entry : ranked) {
+            long timestamp = entry.timestamp >= recent ? latest - rank : entry.timestamp;
+            peers[rank++] = new BRCorePeer(entry.address, entry.port, timestamp);
+        }
+        return peers;
+    }
+
+    /**
+     * Save `peers`.  Previously saved peers that are not in `peers` are kept, with their
+     * statistics, even if `replace` - the Core also drops peers that have not failed (when
+     * pruning old peers, or after a DNS lookup).
+     *
+     * @param replace
+     * @param peers
+     * @throws IOException
+     */
+    public synchronized void save (boolean replace, BRCorePeer[] peers) throws IOException {
+        for (BRCorePeer peer : peers) {
+            Entry entry = new Entry();
+            entry.address = peer.getAddress();
+            entry.port = peer.getPort();
+            entry.timestamp = peer.getTimestamp();
+
+            String key = entry.getKey();
+            Entry existing = entries.get(key);
+            if (null == existing) entries.put(key, entry);
+            else existing.timestamp = Math.max(existing.timestamp, entry.timestamp);
+        }
+
+        if (entries.size() > MAXIMUM_PEERS) {
+            List<Entry> ranked = rank();
+            for (Entry entry : ranked.subList(MAXIMUM_PEERS, ranked.size()))
+                entries.remove(entry.getKey());
+        }
+
+        dirty = true;
+        flush();
+    }
+
+    /**
+     * Record the ping time and last block of each connected peer, and a connect success for
+     * each peer not connected as of the prior call.
+     *
+     * @param connectedPeers from BRCorePeerManager.getConnectedPeers()
+     */
+    public synchronized void recordConnectedPeers (BRCorePeerManager.ConnectedPeer[] connectedPeers) {
+        Set<String> nowConnected = new HashSet<>();
+
+        for (BRCorePeerManager.ConnectedPeer connectedPeer : connectedPeers) {
+            Entry entry = new Entry();
+            entry.address = connectedPeer.peer.getAddress();
+            entry.port = connectedPeer.peer.getPort();
+            entry.timestamp = connectedPeer.peer.getTimestamp();
+
+            String key = entry.getKey();
+            Entry existing = entries.get(key);
+            if (null == existing) entries.put(key, entry);
+            else entry = existing;
+
+            entry.pingTime = connectedPeer.pingTime;
+            entry.lastBlock = Math.max(entry.lastBlock, connectedPeer.lastBlock);
+            if (!connected.contains(key)) entry.connectSuccesses++;
+
+            nowConnected.add(key);
+        }
+
+        connected = nowConnected;
+        dirty = true;
+    }
+
+    /**
+     * Record a connect failure for each of `failedPeers`, forgetting those that fail repeatedly.
+     *
+     * @param failedPeers from BRCorePeerManager.getFailedPeers()
+     */
+    public synchronized void recordFailedPeers (BRCorePeer[] failedPeers) {
+        for (BRCorePeer failedPeer : failedPeers) {
+            String key = Entry.getKey(failedPeer.getAddress(), failedPeer.getPort());
+            Entry entry = entries.get(key);
+            if (null == entry) continue;
+
+            entry.connectFailures++;
+            if (entry.connectFailures >= MAXIMUM_CONNECT_FAILURES
+                    && entry.connectFailures > entry.connectSuccesses)
+                entries.remove(key);
+
+            connected.remove(key);
+            dirty = true;
+        }
+    }
+
+    /**
+     * Write any recorded changes.
+     *
+     * @throws IOException
+     */
+    public synchronized void flush () throws IOException {
+        if (dirty) write();
+        dirty = false;
+    }
+
+    /**
+     * The score; higher is better.  Mostly the connect success rate, penalized by a slow ping
+     * and rewarded for being up to date with the best last block and for a recent timestamp.
+     */
+    private static double score (Entry entry, long bestLastBlock, long now) {
+        double score = 100.0 * (entry.connectSuccesses + 1)
+                / (entry.connectSuccesses + entry.connectFailures + 2);
+
+        if (entry.pingTime >= 0)
+            score -= 20.0 * Math.min(entry.pingTime, 5.0);
+
+        if (entry.lastBlock > 0 && entry.lastBlock + LAST_BLOCK_TOLERANCE >= bestLastBlock)
+            score += 20.0;
+
+        if (entry.timestamp + 3 * 60 * 60 >= now)
+            score += 10.0;
+
+        return score;
+    }
+
+    private List<Entry> rank () {
+        long bestLastBlock = 0;
+        for (Entry entry : entries.values())
+            bestLastBlock = Math.max(bestLastBlock, entry.lastBlock);
+
+        final long now = System.currentTimeMillis() / 1000;
+        final Map<Entry, Double> scores = new HashMap<>();
+        for (Entry entry : entries.values())
+            scores.put(entry, score(entry, bestLastBlock, now));
+
+        List<Entry> ranked = new ArrayList<>(entries.values());
+        Collections.sort(ranked, new Comparator<Entry>() {
+            @Override
+            public int compare(Entry entry, Entry other) {
+                int comparison = Double.compare(scores.get(other), scores.get(entry));
+                return 0 != comparison ? comparison : Long.compare(other.timestamp, entry.timestamp);
+            }
+        });
+        return ranked;
+    }
+
+    private void read () throws IOException {
+        DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            if (MAGIC != input.readInt() || VERSION != input.readInt()) return;
+
+            int count = input.readInt();
+            for (int index = 0; index < count; index++) {
+                Entry entry = new Entry();
+                entry.address = new byte[16];
+                input.readFully(entry.address);
+                entry.port = input.readInt();
+                entry.timestamp = input.readLong();
+                entry.pingTime = input.readDouble();
+                entry.lastBlock = input.readLong();
+                entry.connectSuccesses = input.readInt();
+                entry.connectFailures = input.readInt();
+                entries.put(entry.getKey(), entry);
+            }
+        }
+        catch (IOException ex) {
+            // A truncated cache; keep what was read.
+        }
+        finally {
+            input.close();
+        }
+    }
+
+    private void write () throws IOException {
+        File writeFile = new File(file.getPath() + ".write");
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(writeFile)));
+        try {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(entries.size());
+            for (Entry entry : entries.values()) {
+                output.write(entry.address);
+                output.writeInt(entry.port);
+                output.writeLong(entry.timestamp);
+                output.writeDouble(entry.pingTime);
+                output.writeLong(entry.lastBlock);
+                output.writeInt(entry.connectSuccesses);
+                output.writeInt(entry.connectFailures);
+            }
+        }
+        finally {
+            output.close();
+        }
+
+        if (!writeFile.renameTo(file))
+            throw new IOException("Failed to replace " + file);
+    }
+}
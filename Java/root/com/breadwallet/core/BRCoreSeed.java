@@ -0,0 +1,102 @@
+/*
+ * BreadWallet
+ *
+ * Created by Ed Gamble <ed@breadwallet.com> on 1/22/18.
+ * Copyright (c) 2018 breadwallet LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.breadwallet.core;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A wallet seed, derived once from a 'paper key' phrase and held natively - never on the Java
+ * heap - for a limited lifetime.  Signing with a BRCoreSeed, rather than with the phrase, skips
+ * the BIP39 key derivation (PBKDF2, 2048 rounds of HMAC-SHA512) on every signature.
+ *
+ * The seed is zeroed when it is evicted: explicitly with evict(), when its lifetime ends, or
+ * when this object is disposed or reclaimed.  An evicted seed cannot sign.  A seed may be
+ * disposed while other threads sign with or evict it; they then find it evicted.
+ */
+public class BRCoreSeed extends BRCoreJniReference {
+
+    public static final long DEFAULT_LIFETIME_MILLIS = 5 * 60 * 1000;
+
+    //
+    // Evicts seeds as their lifetime ends; a seed is held weakly so as not to delay its reclaim.
+    //
+    private static final ScheduledExecutorService evictor =
+            Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "BRCoreSeed Evictor");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+    public BRCoreSeed (byte[] phrase) {
+        this (phrase, DEFAULT_LIFETIME_MILLIS);
+    }
+
+    /**
+     * @param phrase the 'paper key' used when the wallet's MasterPubKey was created
+     * @param lifetimeMillis how long the seed is held before it is evicted
+     */
+    public BRCoreSeed (byte[] phrase, long lifetimeMillis) {
+        super (createJniCoreSeed(phrase, checkLifetime(lifetimeMillis)));
+
+        final WeakReference<BRCoreSeed> seed = new WeakReference<>(this);
+        evictor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                BRCoreSeed strongSeed = seed.get();
+                if (null != strongSeed) strongSeed.evict();
+            }
+        }, lifetimeMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private static long checkLifetime (long lifetimeMillis) {
+        if (lifetimeMillis <= 0)
+            throw new IllegalArgumentException("Lifetime must be positive: " + lifetimeMillis);
+        return lifetimeMillis;
+    }
+
+    /**
+     * @return true if the seed has not been evicted and its lifetime has not ended
+     */
+    public native boolean isValid ();
+
+    /**
+     * Zero the seed now.
+     */
+    public native void evict ();
+
+    private static native long createJniCoreSeed (byte[] phrase, long lifetimeMillis);
+
+    /**
+     * Zeroes the seed before freeing it.
+     */
+    public native void disposeNative ();
+}
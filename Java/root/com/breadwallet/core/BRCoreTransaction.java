@@ -24,6 +24,9 @@
  */
 package com.breadwallet.core;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
 /**
  *
  */
@@ -50,14 +53,38 @@ public class BRCoreTransaction extends BRCoreJniReference {
         this (createJniCoreTransactionEmpty());
     }
 
+    /**
+     * Parse a transaction from the `buffer` bytes between its position and limit, without
+     * copying them onto the Java heap if `buffer` is direct.  On success the buffer's position
+     * is advanced past the transaction, so consecutive transactions can be parsed in turn.
+     *
+     * @param buffer
+     * @param blockHeight
+     * @param timeStamp
+     * @throws FailedToParse
+     */
+    public BRCoreTransaction (ByteBuffer buffer, long blockHeight, long timeStamp) throws FailedToParse {
+        this (createJniCoreTransactionFromBufferOrError (buffer, blockHeight, timeStamp));
+        buffer.position (buffer.position() + (int) getSerializedSize());
+    }
+
+    public BRCoreTransaction (ByteBuffer buffer) throws FailedToParse {
+        this (buffer, -1, -1);
+    }
+
     protected BRCoreTransaction (long jniReferenceAddress) {
         super (jniReferenceAddress);
     }
 
-    @Override
-    public void dispose () {
-        if (!isRegistered)
-            disposeNative ();
+    /**
+     * Mark this transaction as registered (or not) with the Core.  Once registered the Core
+     * memory is disowned - it will never be freed by dispose() nor on GC.
+     *
+     * @param registered
+     */
+    protected void setRegistered (boolean registered) {
+        isRegistered = registered;
+        if (registered) disownNative();
     }
 
     /**
@@ -140,6 +167,43 @@ public class BRCoreTransaction extends BRCoreJniReference {
      */
     public native byte[] serialize ();
 
+    /**
+     * Serialize the transaction into `buffer` at its position, advancing the position.  If
+     * `buffer` is direct, Core serializes straight into it.
+     *
+     * @param buffer
+     * @return the number of bytes written
+     * @throws BufferOverflowException if `buffer` has fewer than getSerializedSize() bytes remaining
+     */
+    public int serialize (ByteBuffer buffer) {
+        if (!buffer.isDirect()) {
+            byte[] bytes = serialize();
+            buffer.put (bytes);
+            return bytes.length;
+        }
+
+        int position = buffer.position();
+        int size = jniSerializeToBuffer (buffer, position, buffer.limit() - position);
+        if (size > buffer.limit() - position)
+            throw new BufferOverflowException();
+
+        buffer.position (position + size);
+        return size;
+    }
+
+    /**
+     * @return the size, in bytes, of the serialized transaction
+     */
+    public native long getSerializedSize ();
+
+    /**
+     * Serialize into the direct `buffer` at `offset`, provided the serialization fits in
+     * `length` bytes.
+     *
+     * @return the serialization size - larger than `length` if nothing was written.
+     */
+    private native int jniSerializeToBuffer (ByteBuffer buffer, int offset, int length);
+
     /**
      *
      * @param input
@@ -188,6 +252,19 @@ public class BRCoreTransaction extends BRCoreJniReference {
         sign (new BRCoreKey[] { key }, forkId);
     }
 
+    /**
+     * Sign as sign(keys, forkId) does, with the same result, but compute the inputs' signature
+     * hashes and signatures in parallel, across BRCoreKey.getBatchThreadCount() native threads.
+     *
+     * @param keys
+     * @param forkId
+     */
+    public void signParallel (BRCoreKey[] keys, int forkId) {
+        jniSignParallel (keys, forkId, BRCoreKey.getBatchThreadCount());
+    }
+
+    private native void jniSignParallel (BRCoreKey[] keys, int forkId, int threadCount);
+
     /**
      * Return true if this transaction satisfied the rules in:
      *      https://bitcoin.org/en/developer-guide#standard-transactions
@@ -227,6 +304,13 @@ public class BRCoreTransaction extends BRCoreJniReference {
 
     private static native long createJniCoreTransactionEmpty ();
 
+    /**
+     * Parse the `length` bytes at `offset` in `buffer`, which must be direct.  A `blockHeight`
+     * or `timeStamp` of -1 leaves the parsed value.
+     */
+    private static native long createJniCoreTransactionFromBuffer (ByteBuffer buffer, int offset, int length,
+                                                                   long blockHeight, long timeStamp);
+
     private static long createJniCoreTransactionOrError(byte[] buffer, long blockHeight, long timeStamp)
             throws FailedToParse {
         long jniReferenceAddress = createJniCoreTransaction(buffer, blockHeight, timeStamp);
@@ -243,6 +327,24 @@ public class BRCoreTransaction extends BRCoreJniReference {
         return jniReferenceAddress;
     }
 
+    private static long createJniCoreTransactionFromBufferOrError(ByteBuffer buffer, long blockHeight, long timeStamp)
+            throws FailedToParse {
+        long jniReferenceAddress;
+        if (buffer.isDirect())
+            jniReferenceAddress = createJniCoreTransactionFromBuffer (buffer, buffer.position(),
+                    buffer.remaining(), blockHeight, timeStamp);
+        else {
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.duplicate().get(bytes);
+            jniReferenceAddress = (-1 == blockHeight && -1 == timeStamp
+                    ? createJniCoreTransactionSerialized(bytes)
+                    : createJniCoreTransaction(bytes, blockHeight, timeStamp));
+        }
+        if (0 == jniReferenceAddress)
+            throw new FailedToParse();
+        return jniReferenceAddress;
+    }
+
     /**
      * A Transaction-specific failure to parse.  A `byte[] buffer` could not be parsed into
      * a transaction.  If recovering from persistently stored data, a sync must be started which
@@ -0,0 +1,344 @@
+/*
+ * BreadWallet
+ *
+ * Created by Ed Gamble <ed@breadwallet.com> on 1/22/18.
+ * Copyright (c) 2018 breadwallet LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.breadwallet.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A log of serialized BRCoreTransactions, kept current by the BRCoreWallet.Listener callbacks
+ * and suitable for the `transactions` passed to a new BRCoreWallet.
+ *
+ * The file is a header followed by records:
+ *
+ *      header: MAGIC (int), VERSION (int)
+ *      record: state (byte), hash (32 bytes), block height (int), timestamp (int),
+ *              size (int), serialized transaction (size bytes)
+ *
+ * An added transaction is appended.  An updated transaction has its block height and
+ * timestamp patched in place.  A deleted transaction has its state patched in place to a
+ * tombstone.  Once tombstones account for more of the file than live records, the live
+ * records are copied, as is, into a new file that replaces the log.  Loading maps the file and
+ * parses each live transaction straight from the mapping.
+ */
+public class BRCoreTransactionStore {
+    private static final int MAGIC   = 0x42525458; // "BRTX"
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 4 + 4;
+    private static final int RECORD_HEADER_SIZE = 1 + 32 + 4 + 4 + 4;
+
+    private static final int RECORD_HEIGHT_OFFSET = 1 + 32;
+    private static final int RECORD_SIZE_OFFSET = 1 + 32 + 4 + 4;
+
+    private static final byte RECORD_STATE_LIVE    = 1;
+    private static final byte RECORD_STATE_DELETED = 2;
+
+    // Don't bother compacting smaller logs.
+    private static final long COMPACT_MINIMUM_SIZE = 64 * 1024;
+
+    private final File file;
+
+    private RandomAccessFile randomAccessFile;
+
+    private FileChannel channel;
+
+    // Live records: transaction hash (lowercase hex) -> record offset
+    private Map<String, Integer> index = new LinkedHashMap<>();
+
+    private long liveSize = 0;
+    private long deletedSize = 0;
+
+    public BRCoreTransactionStore(File file) throws IOException {
+        this.file = file;
+        open();
+    }
+
+    public File getFile () {
+        return file;
+    }
+
+    /**
+     * @return the number of live transactions
+     */
+    public synchronized int getTransactionCount () {
+        return index.size();
+    }
+
+    /**
+     * @return the size, in bytes, of the log file
+     */
+    public synchronized long getSize () throws IOException {
+        return channel.size();
+    }
+
+    /**
+     * Load every live transaction, in the order added.
+     *
+     * @return the transactions
+     * @throws IOException
+     */
+    public synchronized BRCoreTransaction[] load () throws IOException {
+        if (deletedSize > liveSize) compact();
+
+        MappedByteBuffer mapped = map();
+        List<BRCoreTransaction> transactions = new ArrayList<>(index.size());
+
+        for (int offset : index.values()) {
+            int height    = mapped.getInt(offset + RECORD_HEIGHT_OFFSET);
+            int timestamp = mapped.getInt(offset + RECORD_HEIGHT_OFFSET + 4);
+            int size      = mapped.getInt(offset + RECORD_SIZE_OFFSET);
+
+            ByteBuffer serialized = mapped.duplicate();
+            serialized.position(offset + RECORD_HEADER_SIZE);
+            serialized.limit(offset + RECORD_HEADER_SIZE + size);
+
+            try {
+                transactions.add(new BRCoreTransaction(serialized,
+                        0xffffffffL & height,
+                        0xffffffffL & timestamp));
+            }
+            catch (BRCoreTransaction.FailedToParse ex) {
+                // Skip; a sync will recover the transaction.
+            }
+        }
+
+        return transactions.toArray(new BRCoreTransaction[transactions.size()]);
+    }
+
+    /**
+     * Append `transaction`, unless already stored.
+     *
+     * @param transaction
+     * @throws IOException
+     */
+    public synchronized void add (BRCoreTransaction transaction) throws IOException {
+        byte[] hash = transaction.getHash();
+        String key  = BRCoreWalletManager.bytesToHex(hash).toLowerCase();
+        if (index.containsKey(key)) return;
+
+        int size = (int) transaction.getSerializedSize();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(RECORD_HEADER_SIZE + size);
+        buffer.put(RECORD_STATE_LIVE);
+        buffer.put(hash);
+        buffer.putInt((int) transaction.getBlockHeight());
+        buffer.putInt((int) transaction.getTimestamp());
+        buffer.putInt(size);
+        transaction.serialize(buffer);
+        buffer.flip();
+
+        long offset = channel.size();
+        write(buffer, offset);
+
+        index.put(key, (int) offset);
+        liveSize += RECORD_HEADER_SIZE + size;
+    }
+
+    /**
+     * Patch the block height and timestamp of the transaction with `hash`, if stored.
+     *
+     * @param hash the transaction hash, as hex
+     * @param blockHeight
+     * @param timestamp
+     * @throws IOException
+     */
+    public synchronized void update (String hash, int blockHeight, int timestamp) throws IOException {
+        Integer offset = index.get(hash.toLowerCase());
+        if (null == offset) return;
+
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        buffer.putInt(blockHeight);
+        buffer.putInt(timestamp);
+        buffer.flip();
+        write(buffer, offset + RECORD_HEIGHT_OFFSET);
+    }
+
+    /**
+     * Tombstone the transaction with `hash`, if stored.
+     *
+     * @param hash the transaction hash, as hex
+     * @throws IOException
+     */
+    public synchronized void delete (String hash) throws IOException {
+        Integer offset = index.remove(hash.toLowerCase());
+        if (null == offset) return;
+
+        write(ByteBuffer.wrap(new byte[] { RECORD_STATE_DELETED }), offset);
+
+        long recordSize = recordSize(offset);
+        liveSize    -= recordSize;
+        deletedSize += recordSize;
+
+        if (deletedSize > liveSize && liveSize + deletedSize > COMPACT_MINIMUM_SIZE)
+            compact();
+    }
+
+    /**
+     * Discard every transaction.
+     *
+     * @throws IOException
+     */
+    public synchronized void clear () throws IOException {
+        reset();
+    }
+
+    /**
+     * Rewrite the log with only its live records.
+     *
+     * @throws IOException
+     */
+    public synchronized void compact () throws IOException {
+        File compactFile = new File(file.getPath() + ".compact");
+        RandomAccessFile compactRandomAccessFile = new RandomAccessFile(compactFile, "rw");
+        FileChannel compactChannel = compactRandomAccessFile.getChannel();
+        try {
+            compactChannel.truncate(0);
+            compactChannel.write(header());
+            for (int offset : index.values()) {
+                long position  = offset;
+                long remaining = recordSize(offset);
+                while (remaining > 0) {
+                    long count = channel.transferTo(position, remaining, compactChannel);
+                    position  += count;
+                    remaining -= count;
+                }
+            }
+            compactChannel.force(false);
+        }
+        finally {
+            compactChannel.close();
+            compactRandomAccessFile.close();
+        }
+
+        close();
+        if (!compactFile.renameTo(file))
+            throw new IOException("Failed to replace " + file);
+        open();
+    }
+
+    public synchronized void close () throws IOException {
+        channel.close();
+        randomAccessFile.close();
+    }
+
+    private void open () throws IOException {
+        randomAccessFile = new RandomAccessFile(file, "rw");
+        channel = randomAccessFile.getChannel();
+
+        if (channel.size() < HEADER_SIZE || MAGIC != readHeaderMagic())
+            reset();
+        else
+            scan();
+    }
+
+    private MappedByteBuffer map () throws IOException {
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        mapped.order(ByteOrder.BIG_ENDIAN);
+        return mapped;
+    }
+
+    /**
+     * Rebuild the index from the record headers, discarding any partial final record.
+     */
+    private void scan () throws IOException {
+        MappedByteBuffer mapped = map();
+        long fileSize = mapped.capacity();
+
+        byte[] hash = new byte[32];
+        int offset = HEADER_SIZE;
+
+        index.clear();
+        liveSize = deletedSize = 0;
+
+        while (offset + RECORD_HEADER_SIZE <= fileSize) {
+            byte state = mapped.get(offset);
+            int size = mapped.getInt(offset + RECORD_SIZE_OFFSET);
+            if ((RECORD_STATE_LIVE != state && RECORD_STATE_DELETED != state)
+                    || size <= 0
+                    || offset + RECORD_HEADER_SIZE + (long) size > fileSize) break;
+
+            if (RECORD_STATE_LIVE == state) {
+                mapped.position(offset + 1);
+                mapped.get(hash);
+                index.put(BRCoreWalletManager.bytesToHex(hash).toLowerCase(), offset);
+                liveSize += RECORD_HEADER_SIZE + size;
+            }
+            else deletedSize += RECORD_HEADER_SIZE + size;
+
+            offset += RECORD_HEADER_SIZE + size;
+        }
+
+        if (offset < fileSize) channel.truncate(offset);
+    }
+
+    private long recordSize (int offset) throws IOException {
+        ByteBuffer size = ByteBuffer.allocate(4);
+        read(size, offset + RECORD_SIZE_OFFSET);
+        return RECORD_HEADER_SIZE + size.getInt(0);
+    }
+
+    private void reset () throws IOException {
+        channel.truncate(0);
+        write(header(), 0);
+        channel.force(false);
+
+        index.clear();
+        liveSize = deletedSize = 0;
+    }
+
+    private static ByteBuffer header () {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.flip();
+        return header;
+    }
+
+    private int readHeaderMagic () throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        read(header, 0);
+        return header.getInt(0);
+    }
+
+    private void write (ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining())
+            position += channel.write(buffer, position);
+    }
+
+    private void read (ByteBuffer buffer, long position) throws IOException {
+        int count;
+        while (buffer.hasRemaining() && (count = channel.read(buffer, position)) > 0)
+            position += count;
+    }
+}
@@ -25,6 +25,7 @@
 package com.breadwallet.core;
 
 import java.lang.ref.WeakReference;
+import java.util.BitSet;
 
 /**
  *
@@ -47,6 +48,19 @@ public class BRCoreWallet extends BRCoreJniReference
         void onTxDeleted(String hash, int notifyUser, final int recommendRescan);
     }
 
+    //
+    // An optional Listener extension.  If the installed listener is a BatchListener then each
+    // Core txUpdated callback is delivered with a single call to the batch onTxUpdated(), rather
+    // than one call to onTxUpdated(String, int, int) per transaction.
+    //
+    public interface BatchListener extends Listener {
+        /**
+         * @param hashes the packed hashes - 32 bytes each, as in getHash() - of the
+         *               updated transactions
+         */
+        void onTxUpdated(byte[] hashes, int blockHeight, int timeStamp);
+    }
+
     //
     // Hold a weak reference to the listener.  It is a weak reference because it is likely to
     // be self-referential which would prevent GC of this Wallet.  This listener is used
@@ -79,7 +93,7 @@ public class BRCoreWallet extends BRCoreJniReference
 
         // All `transactions` are effectively registered - now 'owned' by wallet
         for (BRCoreTransaction transaction : transactions)
-            transaction.isRegistered = true;
+            transaction.setRegistered(true);
     }
 
     protected static native long createJniCoreWallet(BRCoreTransaction[] transactions,
@@ -108,6 +122,58 @@ public class BRCoreWallet extends BRCoreJniReference
     // int BRWalletAddressIsUsed(BRWallet *wallet, const char *addr);
     public native boolean addressIsUsed (BRCoreAddress address);
 
+    /**
+     * Batch containsAddress() for packed 20-byte hash160s, such as from
+     * BRCoreMasterPubKey.deriveHash160s(), checked under a single wallet lock.
+     *
+     * @param hash160s
+     * @return a BitSet with bit `i` set if hash160 `i` is a wallet address
+     */
+    public BitSet containsHash160s (byte[] hash160s) {
+        checkHash160s(hash160s);
+        return BitSet.valueOf(jniContainsHash160s(hash160s, false));
+    }
+
+    /**
+     * Batch addressIsUsed() for packed 20-byte hash160s.
+     *
+     * @param hash160s
+     * @return a BitSet with bit `i` set if hash160 `i` is a used wallet address
+     */
+    public BitSet hash160sAreUsed (byte[] hash160s) {
+        checkHash160s(hash160s);
+        return BitSet.valueOf(jniContainsHash160s(hash160s, true));
+    }
+
+    /**
+     * Batch containsAddress() for address strings, without a BRCoreAddress per address.  An
+     * invalid (or null) address is not contained.
+     *
+     * @param addresses
+     * @return a BitSet with bit `i` set if `addresses[i]` is a wallet address
+     */
+    public BitSet containsAddresses (String[] addresses) {
+        return containsHash160s(BRCoreAddress.hash160sOfAddresses(addresses));
+    }
+
+    /**
+     * Batch addressIsUsed() for address strings.
+     *
+     * @param addresses
+     * @return a BitSet with bit `i` set if `addresses[i]` is a used wallet address
+     */
+    public BitSet addressesAreUsed (String[] addresses) {
+        return hash160sAreUsed(BRCoreAddress.hash160sOfAddresses(addresses));
+    }
+
+    private static void checkHash160s (byte[] hash160s) {
+        if (0 != hash160s.length % BRCoreMasterPubKey.HASH160_SIZE)
+            throw new IllegalArgumentException("Hash160s must be "
+                    + BRCoreMasterPubKey.HASH160_SIZE + " bytes each");
+    }
+
+    private native long[] jniContainsHash160s (byte[] hash160s, boolean used);
+
     // TODO: Holding these transactions when the wallet is GCed.... boom!?
     public BRCoreTransaction[] getTransactions () {
         BRCoreTransaction[] transactions = jniGetTransactions();
@@ -115,7 +181,7 @@ public class BRCoreWallet extends BRCoreJniReference
         // Mark as 'registered' if not a copy.
         for (BRCoreTransaction transaction : transactions) {
             assert (transaction.isSigned());
-            transaction.isRegistered = !BRCoreTransaction.JNI_COPIES_TRANSACTIONS;
+            transaction.setRegistered(!BRCoreTransaction.JNI_COPIES_TRANSACTIONS);
         }
 
         return transactions;
@@ -130,6 +196,121 @@ public class BRCoreWallet extends BRCoreJniReference
 
     public native BRCoreTransaction[] getTransactionsConfirmedBefore (long blockHeight);
 
+    /**
+     * The wallet's transactions as parallel, primitive columns - index `i` of every column
+     * describes the same transaction.  Transactions are ordered oldest first, as in
+     * getTransactions(), except in a range query which is newest first.
+     */
+    public static class TransactionColumns {
+        public static final int HASH_SIZE = 32;
+
+        /** The number of transactions */
+        public final int count;
+
+        /** The transaction hashes, packed; hash `i` is at [i * HASH_SIZE, (i + 1) * HASH_SIZE) */
+        public final byte[] hashes;
+
+        public final int[] blockHeights;
+
+        public final int[] timestamps;
+
+        public final long[] amountsSent;
+
+        public final long[] amountsReceived;
+
+        /** The fee paid; -1 if unknown (not all inputs are in the wallet) */
+        public final long[] fees;
+
+        protected TransactionColumns(int count,
+                                     byte[] hashes,
+                                     int[] blockHeights,
+                                     int[] timestamps,
+                                     long[] amountsSent,
+                                     long[] amountsReceived,
+                                     long[] fees) {
+            this.count = count;
+            this.hashes = hashes;
+            this.blockHeights = blockHeights;
+            this.timestamps = timestamps;
+            this.amountsSent = amountsSent;
+            this.amountsReceived = amountsReceived;
+            this.fees = fees;
+        }
+
+        public byte[] getHash (int index) {
+            byte[] hash = new byte[HASH_SIZE];
+            System.arraycopy(hashes, index * HASH_SIZE, hash, 0, HASH_SIZE);
+            return hash;
+        }
+
+        /**
+         * The net amount, as in BRCoreWallet.getTransactionAmount()
+         *
+         * @param index
+         * @return
+         */
+        public long getAmount (int index) {
+            return amountsSent[index] == 0
+                    ? amountsReceived[index]
+                    : -1 * (amountsSent[index] - amountsReceived[index] - fees[index]);
+        }
+    }
+
+    /**
+     * Return every wallet transaction as TransactionColumns, in a single JNI call and without
+     * creating a BRCoreTransaction per transaction.
+     *
+     * @return
+     */
+    public native TransactionColumns getTransactionColumns ();
+
+    /** The block height range end that includes unconfirmed transactions */
+    public static final long BLOCK_HEIGHT_UNBOUNDED = 0xffffffffL;
+
+    /** The timestamp range end that includes every timestamp */
+    public static final long TIMESTAMP_UNBOUNDED = 0xffffffffL;
+
+    /**
+     * Return a page of the wallet transactions with block heights in [startHeight, endHeight) and
+     * timestamps in [startTime, endTime), newest first, as TransactionColumns.  BRWallet keeps its
+     * transactions sorted by block height, so the height range is found by a binary search and,
+     * with the timestamp range unbounded, a page costs only its size.  Otherwise the transactions
+     * in the height range are filtered by timestamp, newest first, until the page is filled.
+     *
+     * @param startHeight the first block height
+     * @param endHeight the block height range end, exclusive; BLOCK_HEIGHT_UNBOUNDED for all
+     * @param startTime the first timestamp
+     * @param endTime the timestamp range end, exclusive; TIMESTAMP_UNBOUNDED for all
+     * @param offset the number of transactions in the range, newest first, to skip
+     * @param limit the maximum number of transactions
+     * @return the page
+     */
+    public TransactionColumns getTransactionColumns (long startHeight, long endHeight,
+                                                     long startTime, long endTime,
+                                                     int offset, int limit) {
+        if (startHeight < 0 || endHeight < startHeight || startTime < 0 || endTime < startTime
+                || offset < 0 || limit < 0)
+            throw new IllegalArgumentException("Invalid transaction range or page");
+        return jniGetTransactionColumnsInRange(startHeight, endHeight, startTime, endTime, offset, limit);
+    }
+
+    private native TransactionColumns jniGetTransactionColumnsInRange (long startHeight, long endHeight,
+                                                                       long startTime, long endTime,
+                                                                       int offset, int limit);
+
+    /**
+     * The number of wallet transactions in the ranges, as for getTransactionColumns(long, long,
+     * long, long, int, int), for paging.
+     */
+    public int getTransactionCount (long startHeight, long endHeight, long startTime, long endTime) {
+        if (startHeight < 0 || endHeight < startHeight || startTime < 0 || endTime < startTime)
+            throw new IllegalArgumentException("Invalid transaction range");
+        return jniGetTransactionCountInRange(startHeight, endHeight, startTime, endTime);
+    }
+
+    private native int jniGetTransactionCountInRange (long startHeight, long endHeight,
+                                                      long startTime, long endTime);
+
     public native long getBalance ();
 
     public native long getTotalSent ();
@@ -138,6 +319,96 @@ public class BRCoreWallet extends BRCoreJniReference
 
     // UTXOs
 
+    /**
+     * A page of the wallet's unspent outputs as parallel, primitive columns - index `i` of every
+     * column describes the same output.  Outputs are in the wallet's UTXO order, which is stable
+     * until the wallet's transactions change.
+     */
+    public static class UTXOColumns {
+        public static final int HASH_SIZE = 32;
+
+        /** The number of outputs in this page */
+        public final int count;
+
+        /** The index, among all the wallet's UTXOs, of this page's first output */
+        public final int offset;
+
+        /** The transaction hashes, packed; hash `i` is at [i * HASH_SIZE, (i + 1) * HASH_SIZE) */
+        public final byte[] hashes;
+
+        /** The output index within its transaction */
+        public final int[] indices;
+
+        public final long[] amounts;
+
+        /** The scripts, packed; script `i` is at [scriptOffsets[i], scriptOffsets[i + 1]) */
+        public final byte[] scripts;
+
+        public final int[] scriptOffsets;
+
+        protected UTXOColumns(int count,
+                              int offset,
+                              byte[] hashes,
+                              int[] indices,
+                              long[] amounts,
+                              byte[] scripts,
+                              int[] scriptOffsets) {
+            this.count = count;
+            this.offset = offset;
+            this.hashes = hashes;
+            this.indices = indices;
+            this.amounts = amounts;
+            this.scripts = scripts;
+            this.scriptOffsets = scriptOffsets;
+        }
+
+        public byte[] getHash (int index) {
+            byte[] hash = new byte[HASH_SIZE];
+            System.arraycopy(hashes, index * HASH_SIZE, hash, 0, HASH_SIZE);
+            return hash;
+        }
+
+        public byte[] getScript (int index) {
+            byte[] script = new byte[scriptOffsets[index + 1] - scriptOffsets[index]];
+            System.arraycopy(scripts, scriptOffsets[index], script, 0, script.length);
+            return script;
+        }
+    }
+
+    /**
+     * The number of unspent outputs.  BRWallet maintains its UTXOs as transactions are
+     * registered, so this does not walk the transaction history.
+     *
+     * @return
+     */
+    public native int getUTXOCount ();
+
+    /**
+     * The total amount of the unspent outputs.  This is the balance; BRWallet computes the
+     * balance as exactly this sum.
+     *
+     * @return
+     */
+    public long getUTXOTotal () {
+        return getBalance();
+    }
+
+    /**
+     * Return up to `limit` unspent outputs starting with the `offset`'th.  Page through all of
+     * them by advancing `offset` by the returned count until the count is zero.
+     *
+     * @param offset
+     * @param limit
+     * @return
+     */
+    public UTXOColumns getUTXOColumns (int offset, int limit) {
+        if (offset < 0 || limit < 0)
+            throw new IllegalArgumentException("Invalid UTXO page: offset " + offset + ", limit " + limit);
+        return jniGetUTXOColumns(offset, limit);
+    }
+
+    private native UTXOColumns jniGetUTXOColumns (int offset, int limit);
+
     public native long getFeePerKb ();
 
     public native void setFeePerKb (long feePerKb);
@@ -146,6 +417,65 @@ public class BRCoreWallet extends BRCoreJniReference
 
     public native long getDefaultFeePerKb ();
 
+    /**
+     * How createTransaction() and createTransactionForOutputs() choose the UTXOs to spend.
+     */
+    public enum CoinSelection {
+        /** UTXOs in wallet order; the default */
+        OldestFirst(0),
+
+        /** The largest UTXOs first, for the fewest inputs */
+        LargestFirst(1),
+
+        /** A set of UTXOs that needs no change output, if one is found; otherwise LargestFirst */
+        BranchAndBound(2),
+
+        /** Also spend the smallest UTXOs, toward leaving the UTXO target; otherwise LargestFirst */
+        Consolidate(3);
+
+        private int value;
+
+        public int getValue () {
+            return value;
+        }
+
+        CoinSelection (int value) {
+            this.value = value;
+        }
+
+        public static CoinSelection fromValue (int value) {
+            for (CoinSelection selection : CoinSelection.values())
+                if (selection.value == value)
+                    return selection;
+            return OldestFirst;
+        }
+    }
+
+    public CoinSelection getCoinSelection () {
+        return CoinSelection.fromValue(getCoinSelectionValue());
+    }
+
+    private native int getCoinSelectionValue ();
+
+    public void setCoinSelection (CoinSelection selection) {
+        setCoinSelection(selection, 0);
+    }
+
+    /**
+     * Set the coin selection.  For CoinSelection.Consolidate, each transaction spends enough
+     * small UTXOs, bounded by the transaction size limit, to leave at most `utxoTarget` UTXOs.
+     *
+     * @param selection
+     * @param utxoTarget
+     */
+    public void setCoinSelection (CoinSelection selection, int utxoTarget) {
+        if (utxoTarget < 0)
+            throw new IllegalArgumentException("UTXO target must not be negative: " + utxoTarget);
+        jniSetCoinSelection(selection.getValue(), utxoTarget);
+    }
+
+    private native void jniSetCoinSelection (int selection, int utxoTarget);
+
     /**
      * Creates a BRCoreTransaction for sending `amount` to `address`.  Will create a
      * BRCoreTransactionOutput for `address` with a script of:
@@ -170,6 +500,47 @@ public class BRCoreWallet extends BRCoreJniReference
      */
     public native BRCoreTransaction createTransactionForOutputs (BRCoreTransactionOutput[] outputs);
 
+    /**
+     * An unsigned transaction from createTransactionForPayouts(), with its fee.
+     */
+    public static class PayoutTransaction {
+        public final BRCoreTransaction transaction;
+
+        /** The fee; the total of the inputs less the total of the outputs */
+        public final long fee;
+
+        protected PayoutTransaction(BRCoreTransaction transaction, long fee) {
+            this.transaction = transaction;
+            this.fee = fee;
+        }
+    }
+
+    /**
+     * Create a transaction paying `amounts[i]` to `addresses[i]`, for every `i`, in one call and
+     * without a BRCoreTransactionOutput per recipient.  Inputs are chosen as getCoinSelection()
+     * says; change and the fee are handled as in createTransactionForOutputs().
+     *
+     * @param addresses the recipients
+     * @param amounts the amount for each recipient
+     * @return the transaction and its fee; or null if an address is invalid, the funds are
+     * insufficient or the outputs don't all fit in one transaction (split the payout).
+     */
+    public PayoutTransaction createTransactionForPayouts (String[] addresses, long[] amounts) {
+        if (0 == addresses.length || addresses.length != amounts.length)
+            throw new IllegalArgumentException("Mismatched or empty payouts");
+        for (long amount : amounts)
+            if (amount <= 0)
+                throw new IllegalArgumentException("Payout amounts must be positive: " + amount);
+
+        BRCoreTransaction transaction = jniCreateTransactionForPayouts(addresses, amounts);
+        return null == transaction
+                ? null
+                : new PayoutTransaction(transaction, getTransactionFee(transaction));
+    }
+
+    private native BRCoreTransaction jniCreateTransactionForPayouts (String[] addresses,
+                                                                     long[] amounts);
+
     /**
      * Sign `transaction` using `phrase`.  The `phrase` must be the 'paper key' used when the
      * wallet's MasterPubKey was originally created.
@@ -180,6 +551,50 @@ public class BRCoreWallet extends BRCoreJniReference
      */
     public native boolean signTransaction (BRCoreTransaction transaction, byte[] phrase);
 
+    /**
+     * Sign `transaction` as signTransaction() does, but derive each needed private key once and
+     * sign the inputs in parallel, across BRCoreKey.getBatchThreadCount() native threads.  For
+     * transactions with many inputs.
+     *
+     * @param transaction
+     * @param phrase
+     * @return
+     */
+    public boolean signTransactionParallel (BRCoreTransaction transaction, byte[] phrase) {
+        return jniSignTransactionParallel(transaction, phrase, BRCoreKey.getBatchThreadCount());
+    }
+
+    private native boolean jniSignTransactionParallel (BRCoreTransaction transaction,
+                                                       byte[] phrase,
+                                                       int threadCount);
+
+    /**
+     * Sign `transaction` using `seed`, which avoids deriving the seed from the phrase on each
+     * call.  Fails if `seed` has been evicted.
+     *
+     * @param transaction
+     * @param seed
+     * @return
+     */
+    public boolean signTransaction (BRCoreTransaction transaction, BRCoreSeed seed) {
+        return jniSignTransactionWithSeed(transaction, seed, 1);
+    }
+
+    /**
+     * Sign `transaction` using `seed`, as signTransactionParallel() does.
+     *
+     * @param transaction
+     * @param seed
+     * @return
+     */
+    public boolean signTransactionParallel (BRCoreTransaction transaction, BRCoreSeed seed) {
+        return jniSignTransactionWithSeed(transaction, seed, BRCoreKey.getBatchThreadCount());
+    }
+
+    private native boolean jniSignTransactionWithSeed (BRCoreTransaction transaction,
+                                                       BRCoreSeed seed,
+                                                       int threadCount);
+
     public native boolean containsTransaction (BRCoreTransaction transaction);
 
     public boolean registerTransaction (BRCoreTransaction transaction) {
@@ -187,7 +602,7 @@ public class BRCoreWallet extends BRCoreJniReference
         boolean registered = jniRegisterTransaction(transaction);
 
         // Make isRegistered sticky.
-        transaction.isRegistered = transaction.isRegistered || registered;
+        transaction.setRegistered(transaction.isRegistered || registered);
 
         // Return the status of the register.
         return registered;
@@ -214,8 +629,8 @@ public class BRCoreWallet extends BRCoreJniReference
 
         // We mark as 'registered' if not a copy.
         if (null != transaction)
-            transaction.isRegistered = transaction.isRegistered
-                || !BRCoreTransaction.JNI_COPIES_TRANSACTIONS;
+            transaction.setRegistered(transaction.isRegistered
+                || !BRCoreTransaction.JNI_COPIES_TRANSACTIONS);
 
         return transaction;
     }
@@ -264,6 +679,57 @@ public class BRCoreWallet extends BRCoreJniReference
 
     public native long getBalanceAfterTransaction (BRCoreTransaction transaction);
 
+    /**
+     * The wallet's balance over a time range, downsampled to at most a given number of points.
+     * BRWallet keeps the balance after each transaction as transactions are registered and
+     * updated, so this is one pass over the history rather than a getBalanceAfterTransaction()
+     * per transaction.
+     */
+    public static class BalanceHistory {
+        /** The balance before the range's first transaction */
+        public final long startBalance;
+
+        /** The number of points */
+        public final int count;
+
+        /** The timestamp of the latest transaction up to each point */
+        public final int[] timestamps;
+
+        public final int[] blockHeights;
+
+        /** The balance after the last transaction up to each point */
+        public final long[] balances;
+
+        protected BalanceHistory(long startBalance,
+                                 int count,
+                                 int[] timestamps,
+                                 int[] blockHeights,
+                                 long[] balances) {
+            this.startBalance = startBalance;
+            this.count = count;
+            this.timestamps = timestamps;
+            this.blockHeights = blockHeights;
+            this.balances = balances;
+        }
+    }
+
+    /**
+     * Get the balance history for transactions with timestamps in [startTime, endTime).  The range
+     * is split into `maxPoints` equal intervals; each interval with transactions is one point.
+     *
+     * @param startTime the range start, in seconds since the epoch
+     * @param endTime the range end, exclusive
+     * @param maxPoints the maximum number of points
+     * @return the history
+     */
+    public BalanceHistory getBalanceHistory (long startTime, long endTime, int maxPoints) {
+        if (startTime < 0 || endTime < startTime || maxPoints < 0)
+            throw new IllegalArgumentException("Invalid balance history range or maxPoints");
+        return jniGetBalanceHistory(startTime, endTime, maxPoints);
+    }
+
+    private native BalanceHistory jniGetBalanceHistory (long startTime, long endTime, int maxPoints);
+
     /**
      * Return a BRCoreAddress for a) the receiver (if we sent an amount) or b) the sender (if
      * we received an amount).  The returned address will be the first address that is not in
@@ -286,12 +752,11 @@ public class BRCoreWallet extends BRCoreJniReference
      * @return The/A BRCoreAddress that received an amount from us (that we sent to)
      */
     public BRCoreAddress getTransactionAddressInputs(BRCoreTransaction transaction) {
-        for (BRCoreTransactionInput input : transaction.getInputs()) {
-            BRCoreAddress address = new BRCoreAddress(input.getAddress());
-            if (!containsAddress(address))
-                return address;
-        }
-        return null;
+        BRCoreTransactionInput[] inputs = transaction.getInputs();
+        String[] addresses = new String[inputs.length];
+        for (int index = 0; index < inputs.length; index++)
+            addresses[index] = inputs[index].getAddress();
+        return firstAddressNotContained(addresses);
     }
 
     /**
@@ -302,18 +767,78 @@ public class BRCoreWallet extends BRCoreJniReference
      * @return The/A BRCoreAddress that sent to us.
      */
     public BRCoreAddress getTransactionAddressOutputs(BRCoreTransaction transaction) {
-        for (BRCoreTransactionOutput output : transaction.getOutputs()) {
-            BRCoreAddress address = new BRCoreAddress (output.getAddress());
-            if (!containsAddress (address))
-                return address;
-        }
-        return null;
+        BRCoreTransactionOutput[] outputs = transaction.getOutputs();
+        String[] addresses = new String[outputs.length];
+        for (int index = 0; index < outputs.length; index++)
+            addresses[index] = outputs[index].getAddress();
+        return firstAddressNotContained(addresses);
+    }
+
+    private BRCoreAddress firstAddressNotContained (String[] addresses) {
+        int index = containsAddresses(addresses).nextClearBit(0);
+        return index < addresses.length ? new BRCoreAddress(addresses[index]) : null;
     }
 
     public native long getFeeForTransactionSize (long size);
 
     public native long getFeeForTransactionAmount (long amount);
 
+    /**
+     * Fee quotes from getFeeQuotes(), as columns: for each amount, the fee, the size (vsize) and
+     * the number of inputs of the transaction that would send it; all zero for an amount that
+     * can't be sent in one transaction.
+     */
+    public static class FeeQuotes {
+        public final long[] fees;
+        public final int[] sizes;
+        public final int[] inputCounts;
+
+        protected FeeQuotes(int count) {
+            this.fees = new long[count];
+            this.sizes = new int[count];
+            this.inputCounts = new int[count];
+        }
+    }
+
+    /**
+     * Quote, at the wallet's fee-per-kb, the fees for sending each of `amounts`.
+     *
+     * @see #getFeeQuotes(long[], long[])
+     */
+    public FeeQuotes getFeeQuotes (long[] amounts) {
+        return getFeeQuotes(amounts, null);
+    }
+
+    /**
+     * Quote the fee for sending each `amounts[i]` at `feePerKbs[i]`, as createTransaction() would,
+     * coin selection included, but without creating any transactions.
+     *
+     * @param amounts the amounts to quote
+     * @param feePerKbs the fee-per-kb for each amount, at most getMaxFeePerKb(); or null for
+     *                  getFeePerKb()
+     * @return the quotes
+     */
+    public FeeQuotes getFeeQuotes (long[] amounts, long[] feePerKbs) {
+        if (null != feePerKbs && feePerKbs.length != amounts.length)
+            throw new IllegalArgumentException("Mismatched amounts and feePerKbs");
+        for (long amount : amounts)
+            if (amount <= 0)
+                throw new IllegalArgumentException("Amounts must be positive: " + amount);
+        if (null != feePerKbs) {
+            long maxFeePerKb = getMaxFeePerKb();
+            for (long feePerKb : feePerKbs)
+                if (feePerKb < 0 || feePerKb > maxFeePerKb)
+                    throw new IllegalArgumentException("FeePerKbs must be in [0, " + maxFeePerKb + "]: " + feePerKb);
+        }
+
+        FeeQuotes quotes = new FeeQuotes(amounts.length);
+        jniGetFeeQuotes(amounts, feePerKbs, quotes.fees, quotes.sizes, quotes.inputCounts);
+        return quotes;
+    }
+
+    private native void jniGetFeeQuotes (long[] amounts, long[] feePerKbs,
+                                         long[] fees, int[] sizes, int[] inputCounts);
+
     public native long getMinOutputAmount ();
 
     public native long getMaxOutputAmount ();
@@ -24,7 +24,20 @@
  */
 package com.breadwallet.core;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A BRCoreWalletManger instance manages a single wallet, and that wallet's individual connection
@@ -34,7 +47,7 @@ import java.util.concurrent.Executor;
  */
 public class BRCoreWalletManager implements
         BRCorePeerManager.Listener,
-        BRCoreWallet.Listener {
+        BRCoreWallet.BatchListener {
 
     protected static boolean SHOW_CALLBACK = true;
     protected static boolean SHOW_CALLBACK_DETAIL = false;
@@ -51,16 +64,36 @@ public class BRCoreWalletManager implements
     BRCoreWallet wallet; // Optional<BRCoreWallet>
 
     BRCorePeerManager peerManager; // Optional<BRCorePeerManager>
-    
+
+    //
+    // Persistent storage, specific to this wallet manager.  If null, nothing is persisted and
+    // subclasses are expected to override the load*() and save*() methods.
+    //
+    protected File storageDirectory;
+
+    BRCoreMerkleBlockStore blockStore; // Optional<BRCoreMerkleBlockStore>
+
+    BRCoreTransactionStore transactionStore; // Optional<BRCoreTransactionStore>
+
+    BRCorePeerStore peerStore; // Optional<BRCorePeerStore>
+
     //
     //
     //
     public BRCoreWalletManager(BRCoreMasterPubKey masterPubKey,
                                BRCoreChainParams chainParams,
                                double earliestPeerTime) {
+        this (masterPubKey, chainParams, earliestPeerTime, null);
+    }
+
+    public BRCoreWalletManager(BRCoreMasterPubKey masterPubKey,
+                               BRCoreChainParams chainParams,
+                               double earliestPeerTime,
+                               File storageDirectory) {
         this.masterPubKey = masterPubKey;
         this.chainParams = chainParams;
         this.earliestPeerTime = earliestPeerTime;
+        this.storageDirectory = storageDirectory;
     }
 
     //
@@ -154,6 +187,115 @@ public class BRCoreWalletManager implements
         return new WrappedExceptionPeerManagerListener (this);
     }
 
+    /**
+     * Serve this manager's wallet from the PeerManager of `host`, rather than creating a
+     * PeerManager of its own, so that many wallet managers share one set of peer connections
+     * and one block chain.  Must be called before getPeerManager().  Wallet Listener callbacks
+     * still come to this manager; PeerManager Listener callbacks go to `host` only.
+     *
+     * @param host the wallet manager owning the shared PeerManager
+     */
+    public synchronized void sharePeerManager (BRCoreWalletManager host) {
+        if (null != peerManager)
+            throw new IllegalStateException("PeerManager already created");
+
+        BRCoreWallet wallet = getWallet();
+        BRCorePeerManager shared = host.getPeerManager();
+        if (null == wallet || null == shared)
+            throw new IllegalStateException("No wallet to share");
+
+        shared.addWallet(wallet, earliestPeerTime);
+        peerManager = shared;
+    }
+
+    /**
+     * Stop serving this manager's wallet from the PeerManager shared with sharePeerManager().
+     */
+    public synchronized void unsharePeerManager () {
+        if (null == peerManager || wallet == peerManager.wallet) return;
+        peerManager.removeWallet(wallet);
+        peerManager = null;
+    }
+
+    //
+    // Shared Chain
+    //
+
+    /**
+     * The process-wide header chain for one BRCoreChainParams: the PeerManager of `host`, the
+     * first wallet manager attached, with a count of the wallet managers attached to it.
+     */
+    private static class SharedChain {
+        final BRCoreWalletManager host;
+        int referenceCount = 0;
+
+        SharedChain(BRCoreWalletManager host) {
+            this.host = host;
+        }
+    }
+
+    private static final Map<BRCoreChainParams, SharedChain> sharedChains = new HashMap<>();
+
+    boolean isSharedChainAttached = false;
+
+    /**
+     * Attach to the process-wide header chain for this manager's BRCoreChainParams, so that any
+     * number of wallet managers on the same chain hold one copy of the chain and run one sync.
+     * The first manager attached hosts the chain - its PeerManager, block store and PeerManager
+     * Listener serve all of them - and keeps it until the last manager detaches.
+     *
+     * @return the shared PeerManager
+     */
+    public BRCorePeerManager attachSharedChain () {
+        synchronized (sharedChains) {
+            if (!isSharedChainAttached) {
+                SharedChain chain = sharedChains.get(chainParams);
+                if (null == chain) {
+                    if (null == getPeerManager())
+                        throw new IllegalStateException("No wallet to share");
+                    chain = new SharedChain(this);
+                    sharedChains.put(chainParams, chain);
+                }
+                else if (chain.host != this)
+                    sharePeerManager(chain.host);
+
+                chain.referenceCount++;
+                isSharedChainAttached = true;
+            }
+            return getPeerManager();
+        }
+    }
+
+    /**
+     * Detach from the header chain attached with attachSharedChain().  When the last manager
+     * detaches, the shared PeerManager is disconnected and the chain released.
+     */
+    public void detachSharedChain () {
+        synchronized (sharedChains) {
+            SharedChain chain = sharedChains.get(chainParams);
+            if (!isSharedChainAttached || null == chain) return;
+
+            isSharedChainAttached = false;
+            if (chain.host != this) unsharePeerManager();
+
+            if (0 == --chain.referenceCount) {
+                sharedChains.remove(chainParams);
+                chain.host.getPeerManager().disconnect();
+            }
+        }
+    }
+
+    /**
+     * @param chainParams
+     * @return the number of wallet managers attached to the shared chain for `chainParams`
+     */
+    public static int getSharedChainReferenceCount (BRCoreChainParams chainParams) {
+        synchronized (sharedChains) {
+            SharedChain chain = sharedChains.get(chainParams);
+            return null == chain ? 0 : chain.referenceCount;
+        }
+    }
+
     //
     //
     //
@@ -191,19 +333,124 @@ public class BRCoreWalletManager implements
 
     protected BRCoreTransaction[] loadTransactions ()
     {
+        BRCoreTransactionStore store = getTransactionStore();
+        if (null != store) {
+            try { return store.load(); }
+            catch (IOException ex) {
+                System.err.println(getChainDescriptiveName() + ": loadTransactions: " + ex);
+            }
+        }
         return new BRCoreTransaction[0];
     }
 
+    protected synchronized BRCoreTransactionStore getTransactionStore () {
+        if (null == transactionStore && null != storageDirectory) {
+            transactionStore = createTransactionStore();
+        }
+        return transactionStore;
+    }
+
+    /**
+     * Factory method to create a BRCoreTransactionStore (or subtype) in `storageDirectory`
+     *
+     * @return the store, or null if it can't be opened
+     */
+    protected BRCoreTransactionStore createTransactionStore () {
+        try {
+            storageDirectory.mkdirs();
+            return new BRCoreTransactionStore(new File(storageDirectory, "transactions"));
+        }
+        catch (IOException ex) {
+            System.err.println(getChainDescriptiveName() + ": createTransactionStore: " + ex);
+            return null;
+        }
+    }
+
     protected BRCoreMerkleBlock[] loadBlocks ()
     {
+        BRCoreMerkleBlockStore store = getBlockStore();
+        if (null != store) {
+            try { return store.load(); }
+            catch (IOException ex) {
+                System.err.println(getChainDescriptiveName() + ": loadBlocks: " + ex);
+            }
+        }
         return new BRCoreMerkleBlock[0];
     }
 
+    protected synchronized BRCoreMerkleBlockStore getBlockStore () {
+        if (null == blockStore && null != storageDirectory) {
+            blockStore = createBlockStore();
+        }
+        return blockStore;
+    }
+
+    /**
+     * Factory method to create a BRCoreMerkleBlockStore (or subtype) in `storageDirectory`
+     *
+     * @return the store, or null if it can't be opened
+     */
+    protected BRCoreMerkleBlockStore createBlockStore () {
+        try {
+            storageDirectory.mkdirs();
+            return new BRCoreMerkleBlockStore(new File(storageDirectory, "blocks"));
+        }
+        catch (IOException ex) {
+            System.err.println(getChainDescriptiveName() + ": createBlockStore: " + ex);
+            return null;
+        }
+    }
+
     protected BRCorePeer[] loadPeers ()
     {
+        BRCorePeerStore store = getPeerStore();
+        if (null != store) return store.load();
         return new BRCorePeer[0];
     }
 
+    protected synchronized BRCorePeerStore getPeerStore () {
+        if (null == peerStore && null != storageDirectory) {
+            peerStore = createPeerStore();
+        }
+        return peerStore;
+    }
+
+    /**
+     * Factory method to create a BRCorePeerStore (or subtype) in `storageDirectory`
+     *
+     * @return the store, or null if it can't be opened
+     */
+    protected BRCorePeerStore createPeerStore () {
+        try {
+            storageDirectory.mkdirs();
+            return new BRCorePeerStore(new File(storageDirectory, "peers"));
+        }
+        catch (IOException ex) {
+            System.err.println(getChainDescriptiveName() + ": createPeerStore: " + ex);
+            return null;
+        }
+    }
+
+    /**
+     * Record the connected peers' statistics in the peer store, optionally writing the store.
+     *
+     * @param flush if true, write the store
+     */
+    protected void recordConnectedPeers (boolean flush) {
+        BRCorePeerStore store = getPeerStore();
+        BRCorePeerManager peerManager = this.peerManager;
+        if (null == store || null == peerManager) return;
+
+        store.recordConnectedPeers(peerManager.getConnectedPeers());
+        store.recordFailedPeers(peerManager.getFailedPeers());
+        if (flush) {
+            try { store.flush(); }
+            catch (IOException ex) {
+                System.err.println(getChainDescriptiveName() + ": recordConnectedPeers: " + ex);
+            }
+        }
+    }
+
     private void showTxDetail (String label) {
         BRCoreWallet wallet = getWallet();
 
@@ -237,12 +484,16 @@ public class BRCoreWalletManager implements
 
     @Override
     public void syncStopped(String error) {
+        recordConnectedPeers(true);
+
         if (!SHOW_CALLBACK) return;
         System.out.println (getChainDescriptiveName() + ": syncStopped: " + error);
     }
 
     @Override
     public void txStatusUpdate() {
+        recordConnectedPeers(false);
+
         if (!SHOW_CALLBACK) return;
         System.out.println (getChainDescriptiveName() + ": txStatusUpdate");
         //super.txStatusUpdate();
@@ -253,6 +504,14 @@ public class BRCoreWalletManager implements
 
     @Override
     public void saveBlocks(boolean replace, BRCoreMerkleBlock[] blocks) {
+        BRCoreMerkleBlockStore store = getBlockStore();
+        if (null != store) {
+            try { store.save(replace, blocks); }
+            catch (IOException ex) {
+                System.err.println(getChainDescriptiveName() + ": saveBlocks: " + ex);
+            }
+        }
+
         if (!SHOW_CALLBACK) return;
         System.out.println(getChainDescriptiveName() + String.format(": saveBlocks: %d", blocks.length));
 
@@ -263,6 +522,14 @@ public class BRCoreWalletManager implements
 
     @Override
     public void savePeers(boolean replace, BRCorePeer[] peers) {
+        BRCorePeerStore store = getPeerStore();
+        if (null != store) {
+            try { store.save(replace, peers); }
+            catch (IOException ex) {
+                System.err.println(getChainDescriptiveName() + ": savePeers: " + ex);
+            }
+        }
+
         if (!SHOW_CALLBACK) return;
         System.out.println(getChainDescriptiveName() + String.format(": savePeers: %d", peers.length));
 
@@ -300,6 +567,14 @@ public class BRCoreWalletManager implements
 
     @Override
     public void onTxAdded(BRCoreTransaction transaction) {
+        BRCoreTransactionStore store = getTransactionStore();
+        if (null != store) {
+            try { store.add(transaction); }
+            catch (IOException ex) {
+                System.err.println(getChainDescriptiveName() + ": onTxAdded: " + ex);
+            }
+        }
+
         if (!SHOW_CALLBACK) return;
         System.out.println (getChainDescriptiveName() + ": onTxAdded: " + bytesToHex(transaction.getHash()));
 
@@ -309,6 +584,14 @@ public class BRCoreWalletManager implements
 
     @Override
     public void onTxUpdated(String hash, int blockHeight, int timeStamp) {
+        BRCoreTransactionStore store = getTransactionStore();
+        if (null != store) {
+            try { store.update(hash, blockHeight, timeStamp); }
+            catch (IOException ex) {
+                System.err.println(getChainDescriptiveName() + ": onTxUpdated: " + ex);
+            }
+        }
+
         if (!SHOW_CALLBACK) return;
         System.out.println (getChainDescriptiveName() + ": onTxUpdated: " + hash);
 
@@ -316,8 +599,22 @@ public class BRCoreWalletManager implements
         showTxDetail("onTxUpdated");
     }
 
+    @Override
+    public void onTxUpdated(byte[] hashes, int blockHeight, int timeStamp) {
+        for (int offset = 0; offset < hashes.length; offset += HASH_SIZE)
+            onTxUpdated(hashToHex(hashes, offset), blockHeight, timeStamp);
+    }
+
     @Override
     public void onTxDeleted(String hash, int notifyUser, int recommendRescan) {
+        BRCoreTransactionStore store = getTransactionStore();
+        if (null != store) {
+            try { store.delete(hash); }
+            catch (IOException ex) {
+                System.err.println(getChainDescriptiveName() + ": onTxDeleted: " + ex);
+            }
+        }
+
         if (!SHOW_CALLBACK) return;
         System.out.println (getChainDescriptiveName() + ": onTxDeleted: " + hash);
 
@@ -521,7 +818,7 @@ public class BRCoreWalletManager implements
     //
     // Exception Wrapped WalletListener
     //
-    static public class WrappedExceptionWalletListener implements BRCoreWallet.Listener {
+    static public class WrappedExceptionWalletListener implements BRCoreWallet.BatchListener {
         private BRCoreWallet.Listener listener;
 
         public WrappedExceptionWalletListener(BRCoreWallet.Listener listener) {
@@ -552,6 +849,14 @@ public class BRCoreWalletManager implements
             }
         }
 
+        @Override
+        public void onTxUpdated(byte[] hashes, int blockHeight, int timeStamp) {
+            try { deliverTxUpdated(listener, hashes, blockHeight, timeStamp); }
+            catch (Exception ex) {
+                ex.printStackTrace(System.err);
+            }
+        }
+
         @Override
         public void onTxDeleted(String hash, int notifyUser, int recommendRescan) {
             try { listener.onTxDeleted (hash, notifyUser, recommendRescan); }
@@ -567,7 +872,7 @@ public class BRCoreWalletManager implements
     // Executor Wrapped WalletListener
     //
 
-    static public class WrappedExecutorWalletListener implements BRCoreWallet.Listener {
+    static public class WrappedExecutorWalletListener implements BRCoreWallet.BatchListener {
         private BRCoreWallet.Listener listener;
         Executor executor;
 
@@ -606,6 +911,16 @@ public class BRCoreWalletManager implements
             });
         }
 
+        @Override
+        public void onTxUpdated(final byte[] hashes, final int blockHeight, final int timeStamp) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    deliverTxUpdated (listener, hashes, blockHeight, timeStamp);
+                }
+            });
+        }
+
         @Override
         public void onTxDeleted (final String hash, final int notifyUser, final int recommendRescan) {
             executor.execute(new Runnable() {
@@ -617,8 +932,393 @@ public class BRCoreWalletManager implements
         }
     }
 
+    // ============================================================================================
+    //
+    // During a sync or rescan the Core fires callbacks by the thousand - mostly redundant.  The
+    // Coalescing wrappers collect callbacks for a window of time and then run them, as one
+    // batch, in a single Runnable on the executor, merging redundant callbacks along the way.
+
+    //
+    // Times the end of each coalescing window; never runs Listener methods itself.
+    //
+    private static final ScheduledExecutorService coalescingScheduler =
+            Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "BRCoreWalletManager Coalescing");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+    //
+    // Coalescing Executor Wrapped PeerManagerListener
+    //
+
+    /**
+     * A PeerManagerListener that runs callbacks on `executor` in batches, one batch per
+     * `windowMillis`.  Within a batch callbacks run in their original order except that
+     * txStatusUpdate() runs at most once, last.  networkIsReachable() is not deferred.
+     */
+    static public class CoalescingExecutorPeerManagerListener implements BRCorePeerManager.Listener {
+        BRCorePeerManager.Listener listener;
+        Executor executor;
+        long windowMillis;
+
+        // Pending callbacks; guarded by `this`
+        private List<Runnable> pending = new ArrayList<>();
+        private boolean pendingTxStatusUpdate = false;
+        private boolean scheduled = false;
+
+        public CoalescingExecutorPeerManagerListener(BRCorePeerManager.Listener listener,
+                                                     Executor executor,
+                                                     long windowMillis) {
+            this.listener = listener;
+            this.executor = executor;
+            this.windowMillis = windowMillis;
+        }
+
+        private synchronized void schedule () {
+            if (scheduled) return;
+            scheduled = true;
+            coalescingScheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    flush();
+                }
+            }, windowMillis, TimeUnit.MILLISECONDS);
+        }
+
+        private void flush () {
+            final List<Runnable> callbacks;
+            final boolean txStatusUpdate;
+            synchronized (this) {
+                callbacks = pending;
+                txStatusUpdate = pendingTxStatusUpdate;
+                pending = new ArrayList<>();
+                pendingTxStatusUpdate = false;
+                scheduled = false;
+            }
+
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    for (Runnable callback : callbacks)
+                        callback.run();
+                    if (txStatusUpdate)
+                        listener.txStatusUpdate();
+                }
+            });
+        }
+
+        private void add (Runnable callback) {
+            synchronized (this) { pending.add(callback); }
+            schedule();
+        }
+
+        @Override
+        public void syncStarted() {
+            add(new Runnable() {
+                @Override
+                public void run() {
+                    listener.syncStarted();
+                }
+            });
+        }
+
+        @Override
+        public void syncStopped(final String error) {
+            add(new Runnable() {
+                @Override
+                public void run() {
+                    listener.syncStopped(error);
+                }
+            });
+        }
+
+        @Override
+        public void txStatusUpdate() {
+            synchronized (this) { pendingTxStatusUpdate = true; }
+            schedule();
+        }
+
+        @Override
+        public void saveBlocks(final boolean replace, final BRCoreMerkleBlock[] blocks) {
+            add(new Runnable() {
+                @Override
+                public void run() {
+                    listener.saveBlocks(replace, blocks);
+                }
+            });
+        }
+
+        @Override
+        public void savePeers(final boolean replace, final BRCorePeer[] peers) {
+            add(new Runnable() {
+                @Override
+                public void run() {
+                    listener.savePeers(replace, peers);
+                }
+            });
+        }
+
+        @Override
+        public boolean networkIsReachable() {
+            return listener.networkIsReachable();
+        }
+
+        @Override
+        public void txPublished(final String error) {
+            add(new Runnable() {
+                @Override
+                public void run() {
+                    listener.txPublished(error);
+                }
+            });
+        }
+    }
+
+    //
+    // Coalescing Executor Wrapped WalletListener
+    //
+
+    /**
+     * A WalletListener that runs callbacks on `executor` in batches, one batch per
+     * `windowMillis`.  Within a batch, onTxAdded(), onTxDeleted() and onTxUpdated() run in the
+     * order they arrived, except that onTxUpdated() runs once per updated transaction, with its
+     * latest height and timestamp, at its latest position; consecutive updates are grouped by
+     * block height - a BatchListener gets one call per group.  Updates that precede the
+     * transaction's onTxDeleted() are dropped.  Finally balanceChanged() runs once, with the
+     * latest balance.
+     */
+    static public class CoalescingExecutorWalletListener implements BRCoreWallet.BatchListener {
+        private BRCoreWallet.Listener listener;
+        Executor executor;
+        long windowMillis;
+
+        private static abstract class Pending {
+        }
+
+        private static class Added extends Pending {
+            BRCoreTransaction transaction;
+        }
+
+        private static class Updated {
+            byte[] hash;
+            int blockHeight;
+            int timeStamp;
+        }
+
+        // A run of consecutive updates
+        private static class Updates extends Pending {
+            Map<String, Updated> updated = new LinkedHashMap<>(); // lowercase hex hash -> update
+        }
+
+        private static class Deleted extends Pending {
+            String hash;
+            int notifyUser;
+            int recommendRescan;
+        }
+
+        // Pending callbacks, in arrival order; guarded by `this`
+        private List<Pending> pending = new ArrayList<>();
+        private Map<String, Updates> updatesByHash = new HashMap<>(); // the run holding each update
+        private boolean balanceChanged = false;
+        private long balance;
+        private boolean scheduled = false;
+
+        public CoalescingExecutorWalletListener(BRCoreWallet.Listener listener,
+                                                Executor executor,
+                                                long windowMillis) {
+            this.listener = listener;
+            this.executor = executor;
+            this.windowMillis = windowMillis;
+        }
+
+        private synchronized void schedule () {
+            if (scheduled) return;
+            scheduled = true;
+            coalescingScheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    flush();
+                }
+            }, windowMillis, TimeUnit.MILLISECONDS);
+        }
+
+        private void flush () {
+            final List<Pending> pending;
+            final boolean balanceChanged;
+            final long balance;
+            synchronized (this) {
+                pending = this.pending;
+                balanceChanged = this.balanceChanged;
+                balance = this.balance;
+
+                this.pending = new ArrayList<>();
+                this.updatesByHash = new HashMap<>();
+                this.balanceChanged = false;
+                this.scheduled = false;
+            }
+
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    for (Pending event : pending) {
+                        if (event instanceof Added)
+                            listener.onTxAdded(((Added) event).transaction);
+
+                        else if (event instanceof Deleted) {
+                            Deleted delete = (Deleted) event;
+                            listener.onTxDeleted(delete.hash, delete.notifyUser, delete.recommendRescan);
+                        }
+
+                        else
+                            deliverUpdates(((Updates) event).updated.values());
+                    }
+
+                    if (balanceChanged)
+                        listener.balanceChanged(balance);
+                }
+            });
+        }
+
+        // Group `updated` by block height and timestamp, in the order each was first seen.
+        private void deliverUpdates (Collection<Updated> updated) {
+            Map<Long, List<Updated>> updatedByHeight = new LinkedHashMap<>();
+            for (Updated update : updated) {
+                Long key = ((long) update.blockHeight << 32) | (update.timeStamp & 0xFFFFFFFFL);
+                List<Updated> updates = updatedByHeight.get(key);
+                if (null == updates) {
+                    updates = new ArrayList<>();
+                    updatedByHeight.put(key, updates);
+                }
+                updates.add(update);
+            }
+
+            for (List<Updated> updates : updatedByHeight.values()) {
+                byte[] hashes = new byte[HASH_SIZE * updates.size()];
+                for (int i = 0; i < updates.size(); i++)
+                    System.arraycopy(updates.get(i).hash, 0, hashes, i * HASH_SIZE, HASH_SIZE);
+                deliverTxUpdated(listener, hashes,
+                        updates.get(0).blockHeight,
+                        updates.get(0).timeStamp);
+            }
+        }
+
+        @Override
+        public void balanceChanged(long balance) {
+            synchronized (this) {
+                this.balanceChanged = true;
+                this.balance = balance;
+            }
+            schedule();
+        }
+
+        @Override
+        public void onTxAdded(BRCoreTransaction transaction) {
+            Added add = new Added();
+            add.transaction = transaction;
+
+            synchronized (this) { pending.add(add); }
+            schedule();
+        }
+
+        private void update (String key, byte[] hash, int blockHeight, int timeStamp) {
+            Updated update = new Updated();
+            update.hash = hash;
+            update.blockHeight = blockHeight;
+            update.timeStamp = timeStamp;
+
+            synchronized (this) {
+                Pending last = pending.isEmpty() ? null : pending.get(pending.size() - 1);
+                Updates updates;
+                if (last instanceof Updates) updates = (Updates) last;
+                else {
+                    updates = new Updates();
+                    pending.add(updates);
+                }
+
+                // An earlier update of this transaction moves here - it has not been deleted since
+                Updates earlier = updatesByHash.put(key, updates);
+                if (null != earlier && earlier != updates) earlier.updated.remove(key);
+
+                updates.updated.put(key, update);
+            }
+        }
+
+        @Override
+        public void onTxUpdated(String hash, int blockHeight, int timeStamp) {
+            update(hash.toLowerCase(), hexToHash(hash), blockHeight, timeStamp);
+            schedule();
+        }
+
+        @Override
+        public void onTxUpdated(byte[] hashes, int blockHeight, int timeStamp) {
+            for (int offset = 0; offset < hashes.length; offset += HASH_SIZE)
+                update(hashToHex(hashes, offset),
+                        Arrays.copyOfRange(hashes, offset, offset + HASH_SIZE),
+                        blockHeight, timeStamp);
+            schedule();
+        }
+
+        @Override
+        public void onTxDeleted(String hash, int notifyUser, int recommendRescan) {
+            Deleted delete = new Deleted();
+            delete.hash = hash;
+            delete.notifyUser = notifyUser;
+            delete.recommendRescan = recommendRescan;
+
+            synchronized (this) {
+                Updates earlier = updatesByHash.remove(hash.toLowerCase());
+                if (null != earlier) earlier.updated.remove(hash.toLowerCase());
+
+                pending.add(delete);
+            }
+            schedule();
+        }
+    }
+
+    // ============================================================================================
+
+    private static final int HASH_SIZE = 32;
+
+    //
+    // Deliver a batch txUpdated to `listener` - as one call if it is a BatchListener; otherwise
+    // as one call per hash, in the lowercase hex form the Core uses.
+    //
+    private static void deliverTxUpdated (BRCoreWallet.Listener listener,
+                                          byte[] hashes,
+                                          int blockHeight,
+                                          int timeStamp) {
+        if (listener instanceof BRCoreWallet.BatchListener)
+            ((BRCoreWallet.BatchListener) listener).onTxUpdated(hashes, blockHeight, timeStamp);
+        else
+            for (int offset = 0; offset < hashes.length; offset += HASH_SIZE)
+                listener.onTxUpdated(hashToHex(hashes, offset), blockHeight, timeStamp);
+    }
+
+    private final static char[] hexLowerArray = "0123456789abcdef".toCharArray();
+    private static String hashToHex (byte[] hashes, int offset) {
+        char[] hexChars = new char[HASH_SIZE * 2];
+        for (int j = 0; j < HASH_SIZE; j++) {
+            int v = hashes[offset + j] & 0xFF;
+            hexChars[j * 2] = hexLowerArray[v >>> 4];
+            hexChars[j * 2 + 1] = hexLowerArray[v & 0x0F];
+        }
+        return new String(hexChars);
+    }
+
+    private static byte[] hexToHash (String hex) {
+        byte[] hash = new byte[HASH_SIZE];
+        for (int j = 0; j < HASH_SIZE && 2 * j + 1 < hex.length(); j++)
+            hash[j] = (byte) ((Character.digit(hex.charAt(2 * j), 16) << 4)
+                    + Character.digit(hex.charAt(2 * j + 1), 16));
+        return hash;
+    }
+
     private final static char[] hexArray = "0123456789ABCDEF".toCharArray();
-    private static String bytesToHex(byte[] bytes) {
+    protected static String bytesToHex(byte[] bytes) {
         char[] hexChars = new char[bytes.length * 2];
         for ( int j = 0; j < bytes.length; j++ ) {
             int v = bytes[j] & 0xFF;
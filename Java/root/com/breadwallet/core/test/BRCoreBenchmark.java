@@ -0,0 +1,319 @@
+/*
+ * BreadWallet
+ *
+ * Created by Ed Gamble <ed@breadwallet.com> on 1/22/18.
+ * Copyright (c) 2018 breadwallet LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.breadwallet.core.test;
+
+import com.breadwallet.core.BRCoreAddress;
+import com.breadwallet.core.BRCoreArena;
+import com.breadwallet.core.BRCoreKey;
+import com.breadwallet.core.BRCoreMasterPubKey;
+import com.breadwallet.core.BRCoreTransaction;
+import com.breadwallet.core.BRCoreTransactionInput;
+import com.breadwallet.core.BRCoreTransactionOutput;
+import com.breadwallet.core.BRCoreWallet;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Per-operation latency and allocation of the Core JNI surface.  Each benchmark runs warmup
+ * batches and then measured batches, each batch inside a BRCoreArena so that the native memory
+ * of the Core objects it creates is freed promptly.  Reports ns/op, allocated bytes/op (when the
+ * JVM supports thread allocation counters), Core objects created/op and GC count/time over the
+ * measurement.
+ *
+ * Usage: BRCoreBenchmark [name-prefix ...]
+ *        -Dbenchmark.millis=<measurement time per benchmark, default 2000>
+ *        -Dbenchmark.utxos=<synthetic wallet UTXO count, default 1000>
+ */
+public class BRCoreBenchmark {
+    static {
+        System.loadLibrary("Core");
+    }
+
+    private static final long SATOSHIS = 100000000L;
+
+    private static final String PAPER_KEY =
+            "ginger settle marine tissue robot crane night number ramp coast roast critic";
+
+    private static final String ADDRESS = "1CC3X2gu58d6wXUWMffpuzN9JAfTUWu4Kj";
+
+    private static final byte[] FUNDING_SECRET = { // 32
+            0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
+            0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 1
+    };
+
+    private static final int BATCH_SIZE = 100;
+
+    //
+    // A Benchmark runs one operation
+    //
+    private static abstract class Benchmark {
+        final String name;
+
+        Benchmark(String name) {
+            this.name = name;
+        }
+
+        abstract void run () throws Exception;
+    }
+
+    //
+    // Synthetic Wallet Fixture
+    //
+
+    private static class Fixture {
+        final byte[] phrase = PAPER_KEY.getBytes();
+        final byte[] seed = BRCoreKey.getSeedFromPhrase(phrase);
+        final BRCoreMasterPubKey masterPubKey = new BRCoreMasterPubKey(phrase, true);
+        final BRCoreKey key = new BRCoreKey(seed, 0, 0);
+        final byte[] digest = BRCoreKey.encodeSHA256("benchmark".getBytes());
+        final byte[] signature = key.sign(digest);
+        final BRCoreAddress address = new BRCoreAddress(ADDRESS);
+        final BRCoreKey fundingKey = new BRCoreKey(FUNDING_SECRET, true);
+        final BRCoreWallet wallet;
+        final BRCoreTransaction unsignedTransaction;
+        final BRCoreKey[] signingKeys;
+        final byte[] transactionBytes;
+        final int utxoCount;
+
+        Fixture(int utxoCount) throws BRCoreWallet.WalletExecption, BRCoreTransaction.FailedToParse {
+            this.utxoCount = utxoCount;
+            this.wallet = new BRCoreWallet(new BRCoreTransaction[]{}, masterPubKey, 0x00, new BRCoreWallet.Listener() {
+                @Override
+                public void balanceChanged(long balance) { }
+
+                @Override
+                public void onTxAdded(BRCoreTransaction transaction) { }
+
+                @Override
+                public void onTxUpdated(String hash, int blockHeight, int timeStamp) { }
+
+                @Override
+                public void onTxDeleted(String hash, int notifyUser, int recommendRescan) { }
+            });
+
+            // One funding transaction per UTXO, from the funding key to the wallet (which, as
+            // in test/BRWalletManager, the funding key signs).
+            byte[] inScript = new BRCoreAddress(fundingKey.address()).getPubKeyScript();
+            byte[] outScript = wallet.getReceiveAddress().getPubKeyScript();
+            byte[] inHash = new byte[32];
+            for (int i = 0; i < utxoCount; i++) {
+                inHash[28] = (byte) (i >>> 24);
+                inHash[29] = (byte) (i >>> 16);
+                inHash[30] = (byte) (i >>> 8);
+                inHash[31] = (byte) i;
+
+                BRCoreTransaction transaction = new BRCoreTransaction();
+                transaction.addInput(
+                        new BRCoreTransactionInput(inHash, 0, 1, inScript, new byte[]{}, new byte[]{}, 4294967295L));
+                transaction.addOutput(
+                        new BRCoreTransactionOutput(SATOSHIS, outScript));
+                transaction.sign(fundingKey, 0x00);
+                transaction.setTimestamp(1);
+                wallet.registerTransaction(transaction);
+            }
+
+            if (utxoCount * SATOSHIS != wallet.getBalance() || utxoCount != wallet.getUTXOCount())
+                throw new IllegalStateException("Fixture funding failed: balance " + wallet.getBalance()
+                        + ", UTXOs " + wallet.getUTXOCount());
+
+            // Every UTXO pays the wallet's first receive address: external chain, index 0.
+            unsignedTransaction = wallet.createTransaction(SATOSHIS / 2, address);
+            signingKeys = new BRCoreKey[] { key };
+            if (null == unsignedTransaction)
+                throw new IllegalStateException("Fixture transaction failed");
+
+            BRCoreTransaction transaction = new BRCoreTransaction(unsignedTransaction.serialize());
+            transaction.sign(signingKeys, 0x00);
+            if (!transaction.isSigned())
+                throw new IllegalStateException("Fixture signing failed");
+            transactionBytes = transaction.serialize();
+        }
+    }
+
+    private static List<Benchmark> createBenchmarks (final Fixture fixture) throws Exception {
+        List<Benchmark> benchmarks = new LinkedList<>();
+        final BRCoreTransaction transaction = new BRCoreTransaction(fixture.transactionBytes);
+
+        benchmarks.add(new Benchmark("key.sign") {
+            @Override
+            void run() {
+                fixture.key.sign(fixture.digest);
+            }
+        });
+
+        benchmarks.add(new Benchmark("key.verify") {
+            @Override
+            void run() {
+                fixture.key.verify(fixture.digest, fixture.signature);
+            }
+        });
+
+        benchmarks.add(new Benchmark("key.compactSign") {
+            @Override
+            void run() {
+                fixture.key.compactSign(fixture.digest);
+            }
+        });
+
+        benchmarks.add(new Benchmark("transaction.parse") {
+            @Override
+            void run() throws Exception {
+                new BRCoreTransaction(fixture.transactionBytes);
+            }
+        });
+
+        benchmarks.add(new Benchmark("transaction.serialize") {
+            @Override
+            void run() {
+                transaction.serialize();
+            }
+        });
+
+        benchmarks.add(new Benchmark("transaction.sign") {
+            // Signing only; no coin selection and no PBKDF2 seed derivation from the phrase.
+            @Override
+            void run() {
+                fixture.unsignedTransaction.sign(fixture.signingKeys, 0x00);
+            }
+        });
+
+        benchmarks.add(new Benchmark("wallet.createTransaction") {
+            // Spend most of the balance, so that coin selection visits most UTXOs.
+            final long amount = (fixture.utxoCount - 1) * SATOSHIS;
+
+            @Override
+            void run() {
+                fixture.wallet.createTransaction(amount, fixture.address);
+            }
+        });
+
+        benchmarks.add(new Benchmark("address.parse") {
+            @Override
+            void run() {
+                new BRCoreAddress(ADDRESS).isValid();
+            }
+        });
+
+        benchmarks.add(new Benchmark("masterPubKey.derive") {
+            @Override
+            void run() {
+                new BRCoreMasterPubKey(fixture.phrase, true);
+            }
+        });
+
+        benchmarks.add(new Benchmark("key.deriveBIP32") {
+            int index = 0;
+
+            @Override
+            void run() {
+                new BRCoreKey(fixture.seed, 0, index++ % 1000);
+            }
+        });
+
+        return benchmarks;
+    }
+
+    //
+    // Measurement
+    //
+
+    private static long getAllocatedBytes () {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        return bean instanceof com.sun.management.ThreadMXBean
+                ? ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId())
+                : -1;
+    }
+
+    private static long[] getGCCountAndTime () {
+        long[] result = { 0, 0 };
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            result[0] += Math.max(0, bean.getCollectionCount());
+            result[1] += Math.max(0, bean.getCollectionTime());
+        }
+        return result;
+    }
+
+    /**
+     * @return { operations, Core objects created (and freed by the arenas) }
+     */
+    private static long[] runBatches (Benchmark benchmark, long millis) throws Exception {
+        long operations = 0;
+        long objects = 0;
+        long end = System.nanoTime() + millis * 1000000L;
+        do {
+            try (BRCoreArena arena = BRCoreArena.open()) {
+                for (int i = 0; i < BATCH_SIZE; i++)
+                    benchmark.run();
+                objects += arena.size();
+            }
+            operations += BATCH_SIZE;
+        } while (System.nanoTime() < end);
+        return new long[] { operations, objects };
+    }
+
+    private static void measure (Benchmark benchmark, long millis) throws Exception {
+        runBatches(benchmark, millis / 2); // warmup
+
+        long[] gcStart = getGCCountAndTime();
+        long allocatedStart = getAllocatedBytes();
+        long start = System.nanoTime();
+
+        long[] counts = runBatches(benchmark, millis);
+        long operations = counts[0];
+
+        long elapsed = System.nanoTime() - start;
+        long allocated = getAllocatedBytes() - allocatedStart;
+        long[] gcEnd = getGCCountAndTime();
+
+        System.out.println(String.format("    %-26s %12.1f ns/op %10s B/op %6.1f obj/op %6d gc %6d ms",
+                benchmark.name,
+                (double) elapsed / operations,
+                allocatedStart < 0 ? "n/a" : String.format("%.1f", (double) allocated / operations),
+                (double) counts[1] / operations,
+                gcEnd[0] - gcStart[0],
+                gcEnd[1] - gcStart[1]));
+    }
+
+    public static void main(String[] args) throws Exception {
+        long millis = Long.getLong("benchmark.millis", 2000);
+        int utxos = Integer.getInteger("benchmark.utxos", 1000);
+
+        System.out.println("Fixture: " + utxos + " UTXOs");
+        Fixture fixture = new Fixture(utxos);
+
+        System.out.println("Benchmarks:");
+        for (Benchmark benchmark : createBenchmarks(fixture)) {
+            boolean selected = 0 == args.length;
+            for (String prefix : args)
+                selected |= benchmark.name.startsWith(prefix);
+            if (selected)
+                measure(benchmark, millis);
+        }
+    }
+}
@@ -25,28 +25,40 @@
 package com.breadwallet.core.test;
 
 import com.breadwallet.core.BRCoreAddress;
+import com.breadwallet.core.BRCoreArena;
 import com.breadwallet.core.BRCoreChainParams;
+import com.breadwallet.core.BRCoreJniReference;
 import com.breadwallet.core.BRCoreKey;
 import com.breadwallet.core.BRCoreMasterPubKey;
 import com.breadwallet.core.BRCoreMerkleBlock;
+import com.breadwallet.core.BRCoreMerkleBlockStore;
 import com.breadwallet.core.BRCorePaymentProtocolACK;
 import com.breadwallet.core.BRCorePaymentProtocolInvoiceRequest;
 import com.breadwallet.core.BRCorePaymentProtocolMessage;
 import com.breadwallet.core.BRCorePaymentProtocolRequest;
 import com.breadwallet.core.BRCorePeer;
 import com.breadwallet.core.BRCorePeerManager;
+import com.breadwallet.core.BRCorePeerStore;
+import com.breadwallet.core.BRCoreSeed;
 import com.breadwallet.core.BRCoreTransaction;
 import com.breadwallet.core.BRCoreTransactionInput;
 import com.breadwallet.core.BRCoreTransactionOutput;
+import com.breadwallet.core.BRCoreTransactionStore;
 import com.breadwallet.core.BRCoreWallet;
 import com.breadwallet.core.BRCoreWalletManager;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.security.SecureRandom;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
  *
@@ -255,6 +267,79 @@ public class BRWalletManager extends BRCoreWalletManager {
 
         forceGC();
         forceGC();
+
+        System.out.println ("        Reclaim:");
+        long reclaimed = BRCoreJniReference.getReclaimedReferenceCount();
+        long disposed  = BRCoreJniReference.getDisposedReferenceCount();
+
+        for (int i = 0; i < 10000; i++)
+            new BRCoreAddress("1CC3X2gu58d6wXUWMffpuzN9JAfTUWu4Kj");
+
+        BRCoreAddress address = new BRCoreAddress("1CC3X2gu58d6wXUWMffpuzN9JAfTUWu4Kj");
+        address.dispose();
+        address.dispose();
+        asserting (disposed + 1 == BRCoreJniReference.getDisposedReferenceCount());
+
+        forceGC();
+        forceGC();
+        asserting (reclaimed < BRCoreJniReference.getReclaimedReferenceCount());
+        System.out.println ("            Pending: " + BRCoreJniReference.getPendingReferenceCount()
+                + ", Reclaimed: " + BRCoreJniReference.getReclaimedReferenceCount());
+
+        System.out.println ("        Arena:");
+        disposed = BRCoreJniReference.getDisposedReferenceCount();
+        BRCoreAddress outside = new BRCoreAddress("1CC3X2gu58d6wXUWMffpuzN9JAfTUWu4Kj");
+        try (BRCoreArena arena = BRCoreArena.open()) {
+            for (int i = 0; i < 100; i++)
+                new BRCoreAddress("1CC3X2gu58d6wXUWMffpuzN9JAfTUWu4Kj");
+            try (BRCoreArena inner = BRCoreArena.open()) {
+                new BRCoreAddress("1CC3X2gu58d6wXUWMffpuzN9JAfTUWu4Kj");
+                asserting (1 == inner.size());
+            }
+            arena.adopt(outside);
+            asserting (101 == arena.size());
+        }
+        asserting (disposed + 102 == BRCoreJniReference.getDisposedReferenceCount());
+        outside.dispose();
+        asserting (disposed + 102 == BRCoreJniReference.getDisposedReferenceCount());
+
+        // Closed out of order, the thread is left with no arena rather than a closed one
+        BRCoreArena first = BRCoreArena.open();
+        BRCoreArena second = BRCoreArena.open();
+        first.close();
+        second.close();
+        BRCoreAddress after = new BRCoreAddress("1CC3X2gu58d6wXUWMffpuzN9JAfTUWu4Kj");
+        asserting (0 == first.size() && 0 == second.size());
+        after.dispose();
+        asserting (disposed + 103 == BRCoreJniReference.getDisposedReferenceCount());
+
+        // A failed dispose does not stop the rest; the failure is rethrown and not counted
+        try {
+            try (BRCoreArena arena = BRCoreArena.open()) {
+                new BRCoreAddress("1CC3X2gu58d6wXUWMffpuzN9JAfTUWu4Kj");
+                new FailingReference();
+                new BRCoreAddress("1CC3X2gu58d6wXUWMffpuzN9JAfTUWu4Kj");
+                asserting (3 == arena.size());
+            }
+            asserting (false);
+        } catch (IllegalStateException ex) {
+            asserting (FailingReference.FAILURE.equals(ex.getMessage()));
+        }
+        asserting (disposed + 105 == BRCoreJniReference.getDisposedReferenceCount());
+    }
+
+    // A reference whose Core memory can never be freed
+    private static class FailingReference extends BRCoreJniReference {
+        static final String FAILURE = "FailingReference";
+
+        FailingReference () {
+            super (1);
+        }
+
+        @Override
+        public void disposeNative () {
+            throw new IllegalStateException(FAILURE);
+        }
     }
 
     private static void runKeyTests() {
@@ -426,6 +511,32 @@ public class BRWalletManager extends BRCoreWalletManager {
         System.out.println ("            signature    : " + Arrays.toString((signature)));
 
         asserting (key.verify(messageDigest, signature));
+
+        System.out.println("        Verify Batch:");
+        {
+            // 100 triples; every third one with a corrupted digest
+            int count = 100;
+            byte[] pubKey = key.getPubKey();
+            ByteBuffer pubKeys = ByteBuffer.allocate(count * pubKey.length);
+            ByteBuffer digests = ByteBuffer.allocate(count * 32);
+            ByteBuffer signatures = ByteBuffer.allocate(count * signature.length);
+            int[] pubKeyOffsets = new int[count + 1];
+            int[] signatureOffsets = new int[count + 1];
+            for (int i = 0; i < count; i++) {
+                byte[] digest = messageDigest.clone();
+                if (0 == i % 3) digest[0] ^= 1;
+                pubKeys.put(pubKey);
+                digests.put(digest);
+                signatures.put(signature);
+                pubKeyOffsets[i + 1] = pubKeys.position();
+                signatureOffsets[i + 1] = signatures.position();
+            }
+
+            BitSet verified = BRCoreKey.verifyBatch(pubKeys.array(), pubKeyOffsets, digests.array(),
+                    signatures.array(), signatureOffsets);
+            for (int i = 0; i < count; i++)
+                asserting ((0 != i % 3) == verified.get(i));
+        }
         //
 
         /*
@@ -457,6 +568,28 @@ public class BRWalletManager extends BRCoreWalletManager {
         System.out.println ("            compact signature (R key) : " + Arrays.toString(keyCompactSigRecovered.getPubKey()));
         asserting (Arrays.equals(key.getPubKey(), keyCompactSigRecovered.getPubKey()));
 
+        System.out.println("        Compact Sign Batch:");
+        {
+            int count = 50;
+            byte[] digests = new byte[32 * count];
+            for (int i = 0; i < count; i++)
+                System.arraycopy(BRCoreKey.encodeSHA256(("message " + i).getBytes()), 0, digests, 32 * i, 32);
+
+            byte[] compactSigs = key.compactSignBatch(digests);
+            asserting (65 * count == compactSigs.length);
+            asserting (Arrays.equals(key.compactSign(Arrays.copyOfRange(digests, 32, 64)),
+                    Arrays.copyOfRange(compactSigs, 65, 130)));
+
+            byte[] pubKeys = BRCoreKey.compactRecoverBatch(digests, compactSigs, true);
+            asserting (33 * count == pubKeys.length);
+            for (int i = 0; i < count; i++)
+                asserting (Arrays.equals(key.getPubKey(), Arrays.copyOfRange(pubKeys, 33 * i, 33 * (i + 1))));
+
+            pubKeys = BRCoreKey.compactRecoverBatch(digests, compactSigs, false);
+            asserting (65 * count == pubKeys.length);
+            asserting (4 == pubKeys[0]);
+        }
+
         // Encrypt/Decrypt
         System.out.println("        Encrypt/Decrypt:");
         BRCoreKey privKey = new BRCoreKey("a1a8cae79e17cb4ddb4fb6871fcc87f3ee5cbb1049a168657d2c3493d79bfa16");
@@ -575,6 +708,23 @@ public class BRWalletManager extends BRCoreWalletManager {
 
         asserting (Arrays.equals(transactionSerialized, transactionFromSerialized.serialize()));
 
+        System.out.println("        ByteBuffer:");
+        ByteBuffer buffer = ByteBuffer.allocateDirect(2 * transactionSerialized.length);
+        asserting (transactionSerialized.length == transaction.getSerializedSize());
+        asserting (transactionSerialized.length == transaction.serialize(buffer));
+        asserting (transactionSerialized.length == transaction.serialize(buffer));
+        asserting (0 == buffer.remaining());
+        buffer.flip();
+        try {
+            transactionFromSerialized = new BRCoreTransaction(buffer, 100, 1);
+            asserting (Arrays.equals(transactionSerialized, transactionFromSerialized.serialize()));
+            transactionFromSerialized = new BRCoreTransaction(buffer);
+            asserting (Arrays.equals(transactionSerialized, transactionFromSerialized.serialize()));
+        } catch (BRCoreTransaction.FailedToParse ex) {
+            asserting (false);
+        }
+        asserting (0 == buffer.remaining());
+
         System.out.println("        Five Inputs / Four Outputs:");
 
         transaction = new BRCoreTransaction();
@@ -803,6 +953,93 @@ public class BRWalletManager extends BRCoreWalletManager {
         asserting (SATOSHIS == w.getBalance());
         asserting (w.getAllAddresses().length == 1 + SEQUENCE_GAP_LIMIT_EXTERNAL + SEQUENCE_GAP_LIMIT_INTERNAL);
 
+        System.out.println("            UTXO Columns");
+        asserting (1 == w.getUTXOCount());
+        asserting (SATOSHIS == w.getUTXOTotal());
+        BRCoreWallet.UTXOColumns utxos = w.getUTXOColumns(0, Integer.MAX_VALUE);
+        asserting (1 == utxos.count && SATOSHIS == utxos.amounts[0]);
+        asserting (Arrays.equals(tx.getHash(), utxos.getHash(0)));
+        asserting (Arrays.equals(tx.getOutputs()[utxos.indices[0]].getScript(), utxos.getScript(0)));
+        asserting (0 == w.getUTXOColumns(1, 10).count);
+
+        System.out.println("            Coin Selection");
+        asserting (BRCoreWallet.CoinSelection.OldestFirst == w.getCoinSelection());
+        for (BRCoreWallet.CoinSelection selection : BRCoreWallet.CoinSelection.values()) {
+            w.setCoinSelection(selection, 1);
+            asserting (selection == w.getCoinSelection());
+            BRCoreTransaction selected = w.createTransaction(SATOSHIS/4, addr);
+            asserting (null != selected && 1 == selected.getInputs().length);
+        }
+        w.setCoinSelection(BRCoreWallet.CoinSelection.OldestFirst);
+
+        System.out.println("            Balance History");
+        BRCoreWallet.BalanceHistory history = w.getBalanceHistory(0, Integer.MAX_VALUE, 1);
+        asserting (1 == history.count && w.getBalance() == history.balances[0] && 0 == history.startBalance);
+        history = w.getBalanceHistory(0, Integer.MAX_VALUE, 1000);
+        asserting (history.count <= w.getTransactions().length && w.getBalance() == history.balances[history.count - 1]);
+        asserting (0 == w.getBalanceHistory(0, 1, 10).count);
+
+        System.out.println("            Fee Quotes");
+        long[] quoted = { SATOSHIS/4, SATOSHIS/2, 2*SATOSHIS };
+        BRCoreWallet.FeeQuotes quotes = w.getFeeQuotes(quoted);
+        for (int index = 0; index < 2; index++) {
+            BRCoreTransaction quotedTx = w.createTransaction(quoted[index], addr);
+            asserting (null != quotedTx && quotes.fees[index] == w.getTransactionFee(quotedTx));
+            asserting (quotedTx.getInputs().length == quotes.inputCounts[index]);
+        }
+        asserting (0 == quotes.fees[2] && 0 == quotes.sizes[2] && 0 == quotes.inputCounts[2]);
+        quotes = w.getFeeQuotes(quoted, new long[] { 2 * w.getFeePerKb(), w.getFeePerKb(), w.getFeePerKb() });
+        asserting (quotes.fees[0] > w.getFeeQuotes(quoted).fees[0]);
+
+        for (long feePerKb : new long[] { -1, w.getMaxFeePerKb() + 1, Long.MAX_VALUE }) {
+            try {
+                w.getFeeQuotes(quoted, new long[] { w.getFeePerKb(), feePerKb, w.getFeePerKb() });
+                asserting (false);
+            } catch (IllegalArgumentException ex) {
+                // expected
+            }
+        }
+
+        System.out.println("            Payout Transaction");
+        String[] payees = { addr.stringify(), addr.stringify() };
+        BRCoreWallet.PayoutTransaction payout = w.createTransactionForPayouts(payees, new long[] { SATOSHIS/8, SATOSHIS/8 });
+        asserting (null != payout && payout.fee > 0);
+        asserting (payout.fee == w.getTransactionFee(payout.transaction));
+        asserting (3 == payout.transaction.getOutputs().length);
+        asserting (null == w.createTransactionForPayouts(payees, new long[] { SATOSHIS, SATOSHIS }));
+        asserting (null == w.createTransactionForPayouts(new String[] { "not an address" }, new long[] { SATOSHIS/8 }));
+
+        System.out.println("            Derive Addresses");
+        List<String> derived = new LinkedList<>();
+        derived.addAll(Arrays.asList(mpk.deriveAddresses(0, 0, 1 + SEQUENCE_GAP_LIMIT_EXTERNAL)));
+        derived.addAll(Arrays.asList(mpk.deriveAddresses(1, 0, 1 + SEQUENCE_GAP_LIMIT_INTERNAL)));
+        for (BRCoreAddress walletAddr : w.getAllAddresses())
+            asserting (derived.contains(walletAddr.stringify()));
+
+        // Spans several derivation blocks; a sub-range matches the whole
+        byte[] hash160s = mpk.deriveHash160s(0, 0, 600);
+        asserting (600 * BRCoreMasterPubKey.HASH160_SIZE == hash160s.length);
+        asserting (Arrays.equals(Arrays.copyOfRange(hash160s, 250 * BRCoreMasterPubKey.HASH160_SIZE, 550 * BRCoreMasterPubKey.HASH160_SIZE),
+                mpk.deriveHash160s(0, 250, 300)));
+        asserting (0 == mpk.deriveHash160s(0, 0, 0).length);
+
+        try {
+            mpk.deriveHash160s(0, 0, Integer.MAX_VALUE / BRCoreMasterPubKey.HASH160_SIZE + 1);
+            asserting (false);
+        } catch (IllegalArgumentException ex) {
+            // expected; the packed result would not fit in a byte[]
+        }
+
+        System.out.println("            Contains Addresses");
+        BitSet contained = w.containsHash160s(mpk.deriveHash160s(0, 0, 20));
+        asserting (1 + SEQUENCE_GAP_LIMIT_EXTERNAL == contained.cardinality());
+        asserting (1 + SEQUENCE_GAP_LIMIT_EXTERNAL == contained.nextClearBit(0));
+
+        String[] candidates = { derived.get(0), "not an address", null, addr.stringify() };
+        contained = w.containsAddresses(candidates);
+        asserting (contained.get(0) && 1 == contained.cardinality());
+        asserting (w.addressesAreUsed(new String[] { recvAddr.stringify() }).get(0) == w.addressIsUsed(recvAddr));
+
         byte[] txHash = tx.getHash();
 
         System.out.println("            Can't send Two SATOSHI");
@@ -820,6 +1057,36 @@ public class BRWalletManager extends BRCoreWalletManager {
 	    w.signTransaction(tx, phrase);
         asserting (tx.isSigned());
 
+        System.out.println("            Sign Parallel");
+        BRCoreTransaction txParallel = w.createTransaction(SATOSHIS/4, addr);
+        asserting (w.signTransactionParallel(txParallel, phrase));
+        asserting (txParallel.isSigned());
+
+        // Same signatures as serial signing; `k` owns `inScript`
+        BRCoreTransaction txSerial = new BRCoreTransaction();
+        txParallel = new BRCoreTransaction();
+        for (int i = 0; i < 20; i++) {
+            txSerial.addInput(new BRCoreTransactionInput(inHash, i, 1, inScript, new byte[]{}, new byte[]{}, 4294967295L));
+            txParallel.addInput(new BRCoreTransactionInput(inHash, i, 1, inScript, new byte[]{}, new byte[]{}, 4294967295L));
+        }
+        txSerial.addOutput(new BRCoreTransactionOutput(SATOSHIS, outScript));
+        txParallel.addOutput(new BRCoreTransactionOutput(SATOSHIS, outScript));
+        txSerial.sign(k, 0x00);
+        txParallel.signParallel(new BRCoreKey[] { k }, 0x00);
+        asserting (txParallel.isSigned());
+        asserting (Arrays.equals(txSerial.serialize(), txParallel.serialize()));
+
+        System.out.println("            Sign With Seed");
+        BRCoreSeed seed = new BRCoreSeed(phrase);
+        asserting (seed.isValid());
+        BRCoreTransaction txSeed = w.createTransaction(SATOSHIS/4, addr);
+        asserting (w.signTransaction(txSeed, seed));
+        asserting (txSeed.isSigned());
+        seed.evict();
+        asserting (!seed.isValid());
+        asserting (!w.signTransaction(w.createTransaction(SATOSHIS/4, addr), seed));
+        seed.dispose();
+
         tx.setTimestamp(1);
         w.registerTransaction(tx);
         asserting (w.getBalance() + w.getTransactionFee(tx) == SATOSHIS/2);
@@ -830,6 +1097,57 @@ public class BRWalletManager extends BRCoreWalletManager {
         asserting(2 == w.getTransactions().length);
         BRCoreTransaction foundTX = w.transactionForHash(txHash);
 
+        System.out.println("            Transaction Columns");
+        BRCoreWallet.TransactionColumns columns = w.getTransactionColumns();
+        asserting (2 == columns.count);
+        asserting (Arrays.equals(txHash, columns.getHash(0)));
+        asserting (SATOSHIS == columns.getAmount(0));
+        asserting (Arrays.equals(tx.getHash(), columns.getHash(1)));
+        asserting (w.getTransactionAmount(tx) == columns.getAmount(1));
+        asserting (w.getTransactionFee(tx) == columns.fees[1]);
+
+        // A range query is newest first
+        columns = w.getTransactionColumns(0, BRCoreWallet.BLOCK_HEIGHT_UNBOUNDED,
+                0, BRCoreWallet.TIMESTAMP_UNBOUNDED, 0, 10);
+        asserting (2 == columns.count && 2 == w.getTransactionCount(0, BRCoreWallet.BLOCK_HEIGHT_UNBOUNDED,
+                0, BRCoreWallet.TIMESTAMP_UNBOUNDED));
+        asserting (Arrays.equals(tx.getHash(), columns.getHash(0)));
+        columns = w.getTransactionColumns(0, BRCoreWallet.BLOCK_HEIGHT_UNBOUNDED,
+                0, BRCoreWallet.TIMESTAMP_UNBOUNDED, 1, 10);
+        asserting (1 == columns.count && Arrays.equals(txHash, columns.getHash(0)));
+        asserting (0 == w.getTransactionColumns(0, 1, 0, BRCoreWallet.TIMESTAMP_UNBOUNDED, 0, 10).count);
+
+        System.out.println("            Transaction Store");
+        try {
+            File transactionFile = File.createTempFile("transactions", null);
+            transactionFile.deleteOnExit();
+
+            BRCoreTransactionStore transactionStore = new BRCoreTransactionStore(transactionFile);
+            transactionStore.add(foundTX);
+            transactionStore.add(tx);
+            transactionStore.add(tx);
+            asserting (2 == transactionStore.getTransactionCount());
+
+            transactionStore.update(BRCoreWalletManager.bytesToHex(tx.getHash()), 100, 200);
+            transactionStore.delete(BRCoreWalletManager.bytesToHex(txHash));
+            transactionStore.close();
+
+            transactionStore = new BRCoreTransactionStore(transactionFile);
+            BRCoreTransaction[] storedTransactions = transactionStore.load();
+            asserting (1 == storedTransactions.length);
+            asserting (Arrays.equals(tx.getHash(), storedTransactions[0].getHash()));
+            asserting (100 == storedTransactions[0].getBlockHeight());
+            asserting (200 == storedTransactions[0].getTimestamp());
+
+            long size = transactionStore.getSize();
+            transactionStore.compact();
+            asserting (size > transactionStore.getSize());
+            asserting (1 == transactionStore.load().length);
+            transactionStore.close();
+        } catch (IOException ex) {
+            asserting (false);
+        }
+
         // TODO: removeTransaction leads to a memory error
         // The transaction for txHash is freed but other dependent transactions are also freed
         // presumably they are all already registered?  Seems not.
@@ -923,6 +1241,133 @@ public class BRWalletManager extends BRCoreWalletManager {
 
         asserting (tx.isSigned());
         System.out.println("            Signed");
+
+        System.out.println("        Coalescing Listener");
+        final List<String> delivered = new LinkedList<>();
+        final ByteBuffer deliveredHashes = ByteBuffer.allocate(1024);
+        final CountDownLatch batches = new CountDownLatch(1);
+
+        BRCoreWallet.Listener coalescingListener = new BRCoreWalletManager.CoalescingExecutorWalletListener(
+                new BRCoreWallet.BatchListener() {
+                    @Override
+                    public void balanceChanged(long balance) {
+                        delivered.add("balance:" + balance);
+                    }
+
+                    @Override
+                    public void onTxAdded(BRCoreTransaction transaction) {
+                        delivered.add("added");
+                    }
+
+                    @Override
+                    public void onTxUpdated(String hash, int blockHeight, int timeStamp) {
+                        delivered.add("updated:" + hash + ":" + blockHeight);
+                    }
+
+                    @Override
+                    public void onTxUpdated(byte[] hashes, int blockHeight, int timeStamp) {
+                        delivered.add("updated:" + (hashes.length / 32) + ":" + blockHeight);
+                        deliveredHashes.put(hashes);
+                    }
+
+                    @Override
+                    public void onTxDeleted(String hash, int notifyUser, int recommendRescan) {
+                        delivered.add("deleted:" + hash);
+                    }
+                },
+                new Executor() {
+                    @Override
+                    public void execute(Runnable runnable) {
+                        runnable.run();
+                        batches.countDown();
+                    }
+                },
+                50);
+
+        String hashA = String.format("%064x", 0xa);
+        String hashB = String.format("%064x", 0xb);
+        String hashC = String.format("%064x", 0xc);
+
+        coalescingListener.balanceChanged(1);
+        coalescingListener.onTxUpdated(hashA, 10, 0);
+        coalescingListener.onTxUpdated(hashB, 11, 0);
+        coalescingListener.onTxUpdated(hashC, 11, 0);
+        coalescingListener.onTxUpdated(hashA, 11, 0);
+        coalescingListener.onTxDeleted(hashC, 0, 0);
+        coalescingListener.balanceChanged(2);
+
+        try {
+            asserting (batches.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException ex) {
+            asserting (false);
+        }
+        asserting (Arrays.asList("updated:2:11", "deleted:" + hashC, "balance:2").equals(delivered));
+        asserting (2 * 32 == deliveredHashes.position());
+        asserting (0xa == deliveredHashes.get(31) && 0xb == deliveredHashes.get(63));
+
+        // Add, delete, add of one transaction replays in arrival order, with its update last
+        final CountDownLatch replayed = new CountDownLatch(1);
+        final List<String> replay = new LinkedList<>();
+        BRCoreWallet.Listener replayListener = new BRCoreWalletManager.CoalescingExecutorWalletListener(
+                new BRCoreWallet.Listener() {
+                    @Override
+                    public void balanceChanged(long balance) {
+                    }
+
+                    @Override
+                    public void onTxAdded(BRCoreTransaction transaction) {
+                        replay.add("added");
+                    }
+
+                    @Override
+                    public void onTxUpdated(String hash, int blockHeight, int timeStamp) {
+                        replay.add("updated:" + hash + ":" + blockHeight);
+                    }
+
+                    @Override
+                    public void onTxDeleted(String hash, int notifyUser, int recommendRescan) {
+                        replay.add("deleted:" + hash);
+                    }
+                },
+                new Executor() {
+                    @Override
+                    public void execute(Runnable runnable) {
+                        runnable.run();
+                        replayed.countDown();
+                    }
+                },
+                50);
+
+        BRCoreTransaction replayTransaction = new BRCoreTransaction();
+        replayListener.onTxAdded(replayTransaction);
+        replayListener.onTxUpdated(hashA, 10, 0);
+        replayListener.onTxDeleted(hashA, 0, 0);
+        replayListener.onTxAdded(replayTransaction);
+        replayListener.onTxUpdated(hashB, 12, 0);
+        replayListener.onTxUpdated(hashA, 11, 0);
+
+        try {
+            asserting (replayed.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException ex) {
+            asserting (false);
+        }
+        asserting (Arrays.asList("added", "deleted:" + hashA, "added",
+                "updated:" + hashB + ":12", "updated:" + hashA + ":11").equals(replay));
+
+        System.out.println("        Shared Chain");
+        BRCoreWalletManager wm2 = new BRCoreWalletManager(
+                new BRCoreMasterPubKey(BRCoreMasterPubKey.generatePaperKey(new SecureRandom().generateSeed(16), words), true),
+                BRCoreChainParams.testnetChainParams, -1);
+
+        BRCorePeerManager pm = wm.attachSharedChain();
+        asserting (pm == wm2.attachSharedChain() && pm == wm2.getPeerManager());
+        asserting (2 == pm.getWalletCount());
+        asserting (2 == BRCoreWalletManager.getSharedChainReferenceCount(BRCoreChainParams.testnetChainParams));
+
+        wm2.detachSharedChain();
+        asserting (1 == pm.getWalletCount());
+        wm.detachSharedChain();
+        asserting (0 == BRCoreWalletManager.getSharedChainReferenceCount(BRCoreChainParams.testnetChainParams));
     }
 
     //
@@ -945,6 +1390,44 @@ public class BRWalletManager extends BRCoreWalletManager {
         for (int i = 0; i < 1024; i++)
             peers[i] = peer;
 
+        System.out.println("            Peer Store");
+        try {
+            File peerFile = File.createTempFile("peers", null);
+            peerFile.delete();
+            peerFile.deleteOnExit();
+
+            long now = System.currentTimeMillis() / 1000;
+            byte[] address = new byte[16];
+            BRCorePeer[] storePeers = new BRCorePeer[4];
+            for (int i = 0; i < storePeers.length; i++) {
+                address[15] = (byte) i;
+                storePeers[i] = new BRCorePeer(address, 8333, now - 60 * i);
+            }
+
+            BRCorePeerStore peerStore = new BRCorePeerStore(peerFile);
+            peerStore.save(true, storePeers);
+            asserting (4 == peerStore.getPeerCount());
+
+            // Peer 0 dropped by the Core, repeatedly -> kept
+            for (int i = 0; i < 3; i++)
+                peerStore.save(true, Arrays.copyOfRange(storePeers, 1, 4));
+            asserting (4 == peerStore.getPeerCount());
+
+            // Peer 0 fails to connect, repeatedly -> forgotten
+            for (int i = 0; i < 3; i++)
+                peerStore.recordFailedPeers(new BRCorePeer[] { storePeers[0] });
+            asserting (3 == peerStore.getPeerCount());
+            peerStore.flush();
+
+            peerStore = new BRCorePeerStore(peerFile);
+            BRCorePeer[] loadedPeers = peerStore.load();
+            asserting (3 == loadedPeers.length);
+            asserting (loadedPeers[0].getTimestamp() > loadedPeers[1].getTimestamp());
+            asserting (loadedPeers[1].getTimestamp() > loadedPeers[2].getTimestamp());
+        } catch (IOException ex) {
+            asserting (false);
+        }
+
         System.out.println("            Blocks");
 
         BRCoreMerkleBlock block = new BRCoreMerkleBlock(getMerkleBlockBytes(), 100001);
@@ -954,6 +1437,85 @@ public class BRWalletManager extends BRCoreWalletManager {
         byte[] hash = block.getBlockHash();
         asserting (!block.containsTransactionHash(hash));
 
+        ByteBuffer blockBuffer = ByteBuffer.allocateDirect((int) block.getSerializedSize());
+        block.serialize(blockBuffer);
+        blockBuffer.flip();
+        asserting (Arrays.equals(hash, new BRCoreMerkleBlock(blockBuffer, 100001).getBlockHash()));
+
+        // A header-only block followed by a second block parses only when bounded by limit()
+        byte[] blockBytes = getMerkleBlockBytes();
+        ByteBuffer blocksBuffer = ByteBuffer.allocateDirect(80 + blockBytes.length);
+        blocksBuffer.put(blockBytes, 0, 80).put(blockBytes).flip();
+        try {
+            new BRCoreMerkleBlock(blocksBuffer, -1);
+            asserting (false);
+        } catch (IllegalArgumentException ex) {
+            asserting (0 == blocksBuffer.position());
+        }
+
+        blocksBuffer.limit(80);
+        BRCoreMerkleBlock headerBlock = new BRCoreMerkleBlock(blocksBuffer, -1);
+        asserting (Arrays.equals(hash, headerBlock.getBlockHash()));
+        asserting (0 == headerBlock.getTransactionCount() && 80 == headerBlock.getSerializedSize());
+        asserting (80 == blocksBuffer.position());
+
+        blocksBuffer.limit(blocksBuffer.capacity());
+        asserting (Arrays.equals(hash, new BRCoreMerkleBlock(blocksBuffer, -1).getBlockHash()));
+        asserting (!blocksBuffer.hasRemaining());
+
+        // A heap buffer parses too, advancing its position to its limit
+        ByteBuffer heapBuffer = ByteBuffer.wrap(getMerkleBlockBytes());
+        asserting (Arrays.equals(hash, new BRCoreMerkleBlock(heapBuffer, 100001).getBlockHash()));
+        asserting (!heapBuffer.hasRemaining());
+
+        try {
+            new BRCoreMerkleBlock(ByteBuffer.wrap(new byte[10]), -1);
+            asserting (false);
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+
+        System.out.println("            Block Store");
+        try {
+            File blockFile = File.createTempFile("blocks", null);
+            blockFile.deleteOnExit();
+
+            BRCoreMerkleBlockStore blockStore = new BRCoreMerkleBlockStore(blockFile);
+            asserting (0 == blockStore.load().length);
+
+            blockStore.save(false, new BRCoreMerkleBlock[] { block });
+            blockStore.save(false, new BRCoreMerkleBlock[] { block });
+            asserting (2 == blockStore.getRecordCount());
+            blockStore.close();
+
+            blockStore = new BRCoreMerkleBlockStore(blockFile);
+            BRCoreMerkleBlock[] storedBlocks = blockStore.load();
+            asserting (1 == storedBlocks.length);
+            asserting (Arrays.equals(hash, storedBlocks[0].getBlockHash()));
+            asserting (100001 == storedBlocks[0].getHeight());
+
+            blockStore.save(true, new BRCoreMerkleBlock[] { new BRCoreMerkleBlock(getMerkleBlockBytes(), 100002) });
+            storedBlocks = blockStore.load();
+            asserting (1 == storedBlocks.length && 100002 == storedBlocks[0].getHeight());
+            asserting (1 == blockStore.getRecordCount());
+
+            // superseded records outnumber live ones; load() compacts
+            for (int i = 0; i < 5; i++)
+                blockStore.save(false, new BRCoreMerkleBlock[] { block });
+            storedBlocks = blockStore.load();
+            asserting (2 == storedBlocks.length);
+            asserting (2 == blockStore.getRecordCount());
+            asserting (!new File(blockFile.getPath() + ".compact").exists());
+            blockStore.close();
+
+            blockStore = new BRCoreMerkleBlockStore(blockFile);
+            storedBlocks = blockStore.load();
+            asserting (2 == storedBlocks.length && 100002 == storedBlocks[0].getHeight());
+            blockStore.close();
+        } catch (IOException ex) {
+            asserting (false);
+        }
+
         BRCoreMerkleBlock[] blocks = new BRCoreMerkleBlock[1024];
         for (int i = 0; i < 1024; i++)
             blocks[i] = block;
@@ -969,6 +1531,36 @@ public class BRWalletManager extends BRCoreWalletManager {
                 getPeerManagerListener());
         asserting (null != pm);
 
+        System.out.println("            Shared Wallets");
+        asserting (1 == pm.getWalletCount());
+
+        BRCoreMasterPubKey mpk2 = new BRCoreMasterPubKey(
+                BRCoreMasterPubKey.generatePaperKey(new SecureRandom().generateSeed(16), words), true);
+        BRCoreWallet w2 = createWallet(new BRCoreTransaction[]{}, mpk2, 0x00, getWalletListener());
+
+        pm.addWallet(w2, 0);
+        pm.addWallet(w2, 0);
+        asserting (2 == pm.getWalletCount());
+        pm.removeWallet(w2);
+        asserting (1 == pm.getWalletCount());
+
+        System.out.println("            Filter Policy");
+        BRCorePeerManager.FilterStats stats = pm.getFilterStats();
+        asserting (0.00005 == stats.falsePositiveRate && 10.0 == stats.rebuildFactor && 0 == stats.tweak);
+        asserting (0 == stats.matchedTransactionCount && 0 == stats.walletTransactionCount);
+
+        pm.setFilterPolicy(0.0001, 5.0, 0xfedcba98L);
+        stats = pm.getFilterStats();
+        asserting (0.0001 == stats.falsePositiveRate && 5.0 == stats.rebuildFactor && 0xfedcba98L == stats.tweak);
+        asserting (0 == stats.length);
+
+        try {
+            pm.setFilterPolicy(0.0, 5.0, 0);
+            asserting (false);
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+
 //        pm.testSaveBlocksCallback(false, blocks);
 //        pm.testSavePeersCallback(false, peers);
     }
@@ -2229,6 +2229,50 @@ int BRWalletTests()
 
     BRTransactionFree(tx);
     BRWalletFree(w);
+
+    // coin selection, from UTXOs of 1, 2, 5 and 3 bitcoin
+    uint64_t utxoAmounts[] = { SATOSHIS, SATOSHIS*2, SATOSHIS*5, SATOSHIS*3 };
+    BRTransaction *utxoTx[4];
+    
+    for (size_t i = 0; i < 4; i++) {
+        utxoTx[i] = BRTransactionNew();
+        BRTransactionAddInput(utxoTx[i], inHash, (uint32_t)i, 1, inScript, inScriptLen, NULL, 0, NULL, 0, TXIN_SEQUENCE);
+        BRTransactionAddOutput(utxoTx[i], utxoAmounts[i], outScript, outScriptLen);
+        BRTransactionSign(utxoTx[i], 0, &k, 1);
+    }
+    
+    w = BRWalletNew(utxoTx, 4, mpk, 0);
+    if (BRWalletBalance(w) != SATOSHIS*11 || BRWalletUTXOs(w, NULL, 0) != 4)
+        r = 0, fprintf(stderr, "***FAILED*** %s: BRWalletCoinSelection() test 1\n", __func__);
+    
+    BRWalletSetCoinSelection(w, BRCoinSelectionLargestFirst, 0); // largest inputs first, with change
+    tx = BRWalletCreateTransaction(w, SATOSHIS*6, addr.s);
+    if (! tx || tx->inCount != 2 || tx->inputs[0].amount != SATOSHIS*5 || tx->inputs[1].amount != SATOSHIS*3 ||
+        tx->outCount != 2)
+        r = 0, fprintf(stderr, "***FAILED*** %s: BRWalletCoinSelection() test 2\n", __func__);
+    
+    // 3 and 1 bitcoin exactly cover the amount plus the fee of a two input tx, leaving less than the cost of change
+    amt = SATOSHIS*4 - ((tx) ? BRWalletFeeForTx(w, tx) : 0) - 100;
+    BRTransactionFree(tx);
+    BRWalletSetCoinSelection(w, BRCoinSelectionBranchAndBound, 0);
+    tx = BRWalletCreateTransaction(w, amt, addr.s);
+    if (! tx || tx->inCount != 2 || tx->inputs[0].amount != SATOSHIS*3 || tx->inputs[1].amount != SATOSHIS ||
+        tx->outCount != 1)
+        r = 0, fprintf(stderr, "***FAILED*** %s: BRWalletCoinSelection() test 3\n", __func__);
+    
+    BRTransactionFree(tx);
+    tx = BRWalletCreateTransaction(w, SATOSHIS*9/2, addr.s); // no exact match, falls back to largest-first
+    if (! tx || tx->inCount != 1 || tx->inputs[0].amount != SATOSHIS*5 || tx->outCount != 2)
+        r = 0, fprintf(stderr, "***FAILED*** %s: BRWalletCoinSelection() test 4\n", __func__);
+    
+    BRTransactionFree(tx);
+    BRWalletSetCoinSelection(w, BRCoinSelectionConsolidate, 1); // spends every UTXO, leaving only the change
+    tx = BRWalletCreateTransaction(w, SATOSHIS, addr.s);
+    if (! tx || tx->inCount != 4 || tx->outCount != 2)
+        r = 0, fprintf(stderr, "***FAILED*** %s: BRWalletCoinSelection() test 5\n", __func__);
+    
+    BRTransactionFree(tx);
+    BRWalletFree(w);
     
     amt = BRBitcoinAmount(50000, 50000);
     if (amt != SATOSHIS) r = 0, fprintf(stderr, "***FAILED*** %s: BRBitcoinAmount() test 1\n", __func__);
@@ -2862,6 +2906,65 @@ int BRPeerTests()
     return r;
 }
 
+void BRPeerManagerRelayedTxTest(BRPeerManager *manager, BRPeer *peer, BRTransaction *tx);
+void BRPeerManagerRelayedBlockTest(BRPeerManager *manager, BRPeer *peer, BRMerkleBlock *block);
+
+int BRPeerManagerTests()
+{
+    int r = 1;
+    UInt512 seed = UINT512_ZERO;
+    BRMasterPubKey mpk = BRBIP32MasterPubKey(&seed, sizeof(seed));
+    BRWallet *w = BRWalletNew(NULL, 0, mpk, 0);
+    BRPeerManager *manager = BRPeerManagerNew(&BR_CHAIN_PARAMS, w, 0, NULL, 0, NULL, 0);
+    BRPeer *p1 = BRPeerNew(BR_CHAIN_PARAMS.magicNumber), *p2 = BRPeerNew(BR_CHAIN_PARAMS.magicNumber);
+    UInt256 secret = uint256("0000000000000000000000000000000000000000000000000000000000000001"),
+            inHash = uint256("0000000000000000000000000000000000000000000000000000000000000001"),
+            txHashes[2];
+    BRKey k;
+    BRAddress addr, recvAddr = BRWalletReceiveAddress(w);
+    BRTransaction *tx;
+    BRMerkleBlock *block;
+    BRPeerManagerFilterStats stats;
+    uint8_t flags[] = { 0x07 };
+    
+    BRKeySetSecret(&k, &secret, 1);
+    BRKeyAddress(&k, addr.s, sizeof(addr));
+    
+    uint8_t inScript[BRAddressScriptPubKey(NULL, 0, addr.s)];
+    size_t inScriptLen = BRAddressScriptPubKey(inScript, sizeof(inScript), addr.s);
+    uint8_t outScript[BRAddressScriptPubKey(NULL, 0, recvAddr.s)];
+    size_t outScriptLen = BRAddressScriptPubKey(outScript, sizeof(outScript), recvAddr.s);
+    
+    tx = BRTransactionNew();
+    BRTransactionAddInput(tx, inHash, 0, 1, inScript, inScriptLen, NULL, 0, NULL, 0, TXIN_SEQUENCE);
+    BRTransactionAddOutput(tx, SATOSHIS, outScript, outScriptLen);
+    BRTransactionSign(tx, 0, &k, 1);
+    txHashes[0] = tx->txHash;
+    txHashes[1] = inHash; // a false positive
+    
+    // the same wallet tx relayed by two peers, then in a block along with a false positive, counts once
+    BRPeerManagerRelayedTxTest(manager, p1, BRTransactionCopy(tx));
+    BRPeerManagerRelayedTxTest(manager, p2, BRTransactionCopy(tx));
+    stats = BRPeerManagerFilterStatistics(manager);
+    if (stats.txCount != 1 || stats.walletTxCount != 1)
+        r = 0, fprintf(stderr, "***FAILED*** %s: BRPeerManagerFilterStatistics() test 1\n", __func__);
+    
+    block = BRMerkleBlockNew();
+    block->totalTx = 2;
+    BRMerkleBlockSetTxHashes(block, txHashes, 2, flags, sizeof(flags));
+    BRPeerManagerRelayedBlockTest(manager, p1, block);
+    stats = BRPeerManagerFilterStatistics(manager);
+    if (stats.txCount != 2 || stats.walletTxCount != 1)
+        r = 0, fprintf(stderr, "***FAILED*** %s: BRPeerManagerFilterStatistics() test 2\n", __func__);
+    
+    BRTransactionFree(tx);
+    BRPeerFree(p1);
+    BRPeerFree(p2);
+    BRPeerManagerFree(manager);
+    BRWalletFree(w);
+    return r;
+}
+
 int BRRunTests()
 {
     int fail = 0;
@@ -2916,6 +3019,8 @@ int BRRunTests()
     printf("%s\n", (BRPaymentProtocolTests()) ? "success" : (fail++, "***FAIL***"));
     printf("BRPaymentProtocolEncryptionTests... ");
     printf("%s\n", (BRPaymentProtocolEncryptionTests()) ? "success" : (fail++, "***FAIL***"));
+    printf("BRPeerManagerTests...               ");
+    printf("%s\n", (BRPeerManagerTests()) ? "success" : (fail++, "***FAIL***"));
     printf("\n");
     
     if (fail > 0) printf("%d TEST FUNCTION(S) ***FAILED***\n", fail);